@@ -90,7 +90,7 @@ export DISPLAY=:99
 
 cp projects/itest.cloud.deployment/build.xml build.xml || errorExit "Copying build.xml failed, exiting"
 
-ant run -Dtest=${1} -Dlocale="${LOCALE}" -Denvironment="${ENVIRONMENT}" -Dprefix="${PREFIX}" -Dparams="${PARAMS}" -Dheadless=true -Dperformance="${PERFORMANCE}" || errorExit "Invoking test scenario failed, exiting"
+ant run -Dtest=${1} -Dlocale="${LOCALE}" -Denvironment="${ENVIRONMENT}" -Dprefix="${PREFIX}" -Dparams="${PARAMS}" -Dheadless=true -Dperformance="${PERFORMANCE}" -DshardIndex="${SHARD_INDEX}" -DshardCount="${SHARD_COUNT}" -DshardDurations="${SHARD_DURATIONS}" -DrerunFailed="${RERUN_FAILED}" || errorExit "Invoking test scenario failed, exiting"
 
 if [[ -z ${ARTIFACTORY_ACCOUNT} ]];
 then
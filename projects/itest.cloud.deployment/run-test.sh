@@ -87,7 +87,7 @@ export CLASSPATH=projects/com.ibm.itest.cloud.common/libs/junit-4.12.jar:project
 
 cp projects/itest.cloud.deployment/build.xml build.xml || errorExit "Copying build.xml failed, exiting"
 
-ant run -Dtest=${1} -Dlocale="${LOCALE}" -Denvironment="${ENVIRONMENT}" -Dprefix="${PREFIX}" -Dparams="${PARAMS}" -Dheadless=true -Dperformance="${PERFORMANCE}" || errorExit "Invoking test scenario failed, exiting"
+ant run -Dtest=${1} -Dlocale="${LOCALE}" -Denvironment="${ENVIRONMENT}" -Dprefix="${PREFIX}" -Dparams="${PARAMS}" -Dheadless=true -Dperformance="${PERFORMANCE}" -DshardIndex="${SHARD_INDEX}" -DshardCount="${SHARD_COUNT}" -DshardDurations="${SHARD_DURATIONS}" -DrerunFailed="${RERUN_FAILED}" || errorExit "Invoking test scenario failed, exiting"
 
 if [[ -z ${ARTIFACTORY_ACCOUNT} ]];
 then
@@ -34,6 +34,11 @@ public IbmTestScenarioRunner(final Class< ? > klass, final RunnerBuilder builder
 	super(klass, builder);
 }
 
+@Override
+protected IbmTestScenarioExecution createScenarioExecution() {
+	return new IbmTestScenarioExecution();
+}
+
 @Override
 protected String getName() {
 	return "IBM Test Scenario Runner";
@@ -13,7 +13,7 @@
  *********************************************************************/
 package itest.cloud;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Modifier;
 
 import org.openqa.selenium.By;
@@ -21,6 +21,7 @@ import org.openqa.selenium.By;
 import itest.cloud.factory.Factory;
 import itest.cloud.page.Page;
 import itest.cloud.page.dialog.AbstractWindow;
+import itest.cloud.util.ConstructorUtil;
 
 /**
  * Factory to create instances of {@link AbstractWindow}.
@@ -117,46 +118,35 @@ public static <W extends AbstractWindow> W createInstance(final Page page, final
 		pageClass = (Class<? extends Page>) pageClass.getSuperclass();
 	}
 
-	// Loop until found the constructor on the right subclass of WebPage
-	Exception exception = null;
+	// Loop until found the constructor on the right subclass of WebPage.
+	// Constructors are cached, hence the lookup is only done once per classes combination
+	boolean noData = data == null || data.length == 0;
+	Object[] arguments;
+	if (locator == null) {
+		// Use default locator constructors
+		arguments = noData ? new Object[] { page } : new Object[] { page, data };
+	} else {
+		// Use locator constructors
+		arguments = noData ? new Object[] { page, locator } : new Object[] { page, locator, data };
+	}
 	while (pageClass != null) {
-		try {
-			// Use default locator constructors
-			if (locator == null) {
-
-				// Use no data constructor
-				if (data == null || data.length == 0) {
-					Constructor<W> constructor = windowClass.getConstructor(pageClass);
-					return constructor.newInstance(page);
-				}
-
-				// Use data constructor
-				Constructor<W> constructor = windowClass.getConstructor(pageClass, String[].class);
-				return constructor.newInstance(page, data);
-			}
-
-			// Use locator constructor with no data
-			if (data == null || data.length == 0) {
-				Constructor<W> constructor = windowClass.getConstructor(pageClass, By.class);
-				return constructor.newInstance(page, locator);
-			}
-
-			// Use locator constructor with data
-			Constructor<W> constructor = windowClass.getConstructor(pageClass, By.class, String[].class);
-			return constructor.newInstance(page, locator, data);
+		MethodHandle constructor;
+		if (locator == null) {
+			constructor = noData
+				? ConstructorUtil.getConstructor(windowClass, pageClass)
+				: ConstructorUtil.getConstructor(windowClass, pageClass, String[].class);
+		} else {
+			constructor = noData
+				? ConstructorUtil.getConstructor(windowClass, pageClass, By.class)
+				: ConstructorUtil.getConstructor(windowClass, pageClass, By.class, String[].class);
 		}
-		catch (Exception ex) {
-			if (exception == null) {
-				exception = ex;
-			}
+		if (constructor != null) {
+			return ConstructorUtil.newInstance(constructor, arguments);
 		}
 		pageClass = (Class< ? extends Page>) pageClass.getSuperclass();
 	}
 
 	// No constructor were found, give up
-	if (exception != null) {
-		throw exception;
-	}
-	throw new Exception("Cannot create instance of "+windowClass.getName()+" web menu.");
+	throw new NoSuchMethodException("Cannot create instance of "+windowClass.getName()+" web menu: no constructor found for "+page.getClass().getName()+(locator == null ? "" : ", locator")+(noData ? "" : " and data")+" parameters.");
 }
 }
@@ -0,0 +1,162 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Handle the JavaScript alerts, confirmations and prompts when they open instead
+ * of polling the browser for them.
+ * <p>
+ * Dialogs are notified by the browser using the DevTools <code>Page.javascriptDialogOpening</code>
+ * event on Chromium based browsers and the WebDriver BiDi <code>browsingContext.userPromptOpened</code>
+ * event on Firefox. They are then immediately accepted or dismissed according to the policy.
+ * As long as no dialog is open, {@link Browser#purgeAlert(String, int)} does not need
+ * to ask the driver whether there's an alert to purge.
+ * </p><p>
+ * Only the dialogs of the window which was current when the browser started are notified,
+ * hence callers knowing that an alert is open (e.g. when handling an
+ * {@link org.openqa.selenium.UnhandledAlertException}) always ask the driver
+ * (see {@link Browser#purgeAlert(String, int, boolean)}).
+ * </p><p>
+ * The policy is set using the {@link #ALERT_POLICY_ID} parameter:
+ * <ul>
+ * <li><code>poll</code>: dialogs are not watched, the browser is asked for alerts to purge
+ * after each page get (default),</li>
+ * <li><code>accept</code>: dialogs are accepted when they open,</li>
+ * <li><code>dismiss</code>: dialogs are dismissed when they open, except the <code>beforeunload</code>
+ * ones which are always accepted to let the navigation go on.</li>
+ * </ul>
+ * </p>
+ */
+public class AlertWatcher {
+
+	// Parameters
+	final static String ALERT_POLICY_ID = "alertPolicy";
+	final static String ALERT_POLICY = getParameterValue(ALERT_POLICY_ID, "poll").toLowerCase();
+	final static boolean WATCH_ALERTS = ALERT_POLICY.equals("accept") || ALERT_POLICY.equals("dismiss");
+
+	// Browser
+	private final Browser browser;
+
+	// Alerts
+	private final AtomicInteger openAlerts = new AtomicInteger();
+	private final AtomicInteger handledAlerts = new AtomicInteger();
+	private volatile boolean watching = false;
+
+AlertWatcher(final Browser browser) {
+	this.browser = browser;
+}
+
+/**
+ * Print the total number of handled alerts.
+ */
+void close() {
+	if (this.handledAlerts.get() > 0) {
+		println("Info: " + this.handledAlerts.get() + " alerts were " + (ALERT_POLICY.equals("accept") ? "accepted" : "dismissed") + " during the browser session.");
+	}
+}
+
+/**
+ * Return the number of dialogs currently open in the browser.
+ * <p>
+ * The number is only meaningful when the dialogs are watched.
+ * </p>
+ * @return The number of open dialogs
+ * @see #isWatching()
+ */
+int getOpenAlertsCount() {
+	return this.openAlerts.get();
+}
+
+/**
+ * Tells whether the dialogs are watched.
+ *
+ * @return <code>true</code> if the browser notifies dialogs opening,
+ * <code>false</code> otherwise
+ */
+boolean isWatching() {
+	return this.watching;
+}
+
+private void onAlertClosed() {
+	this.openAlerts.updateAndGet(count -> count > 0 ? count - 1 : 0);
+}
+
+private boolean onAlertOpening(final String type, final String message, final String url) {
+	this.openAlerts.incrementAndGet();
+	boolean accept = ALERT_POLICY.equals("accept") || "beforeunload".equals(type);
+	println("Alert " + this.handledAlerts.incrementAndGet() + " (" + type + "): " + message);
+	println("	- page: " + url);
+	println("	- " + (accept ? "accept" : "dismiss") + " the alert...");
+	return accept;
+}
+
+/**
+ * Start watching the dialogs.
+ * <p>
+ * A warning is printed if the browser supports neither DevTools nor WebDriver BiDi,
+ * alerts being then polled as usual.
+ * </p>
+ */
+synchronized void start() {
+	if (this.watching) return;
+	try {
+		DevTools devTools = this.browser.getDevTools();
+		if (devTools != null) {
+			devTools.addListener(new Event<Map<String, Object>>("Page.javascriptDialogOpening", input -> input.read(Json.MAP_TYPE)), params -> {
+				boolean accept = onAlertOpening((String) params.get("type"), (String) params.get("message"), (String) params.get("url"));
+				try {
+					// DevTools events are handled in their own thread, hence it's safe to wait for the response
+					devTools.send(new Command<Void>("Page.handleJavaScriptDialog", Collections.singletonMap("accept", accept)));
+				}
+				catch (WebDriverException wde) {
+					println("	 get following exception while handling the alert:");
+					printException(wde);
+				}
+			});
+			devTools.addListener(new Event<Map<String, Object>>("Page.javascriptDialogClosed", input -> input.read(Json.MAP_TYPE)), params -> onAlertClosed());
+			devTools.send(new Command<Void>("Page.enable", Collections.emptyMap()));
+		} else {
+			BiDi bidi = this.browser.getBiDi();
+			if (bidi == null) {
+				println("WARNING: Browser " + this.browser.getName() + " supports neither DevTools nor WebDriver BiDi, alerts will be polled.");
+				return;
+			}
+			bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>("browsingContext.userPromptOpened", params -> params), params -> {
+				boolean accept = onAlertOpening((String) params.get("type"), (String) params.get("message"), String.valueOf(params.get("context")));
+				Map<String, Object> handleParams = new HashMap<String, Object>();
+				handleParams.put("context", params.get("context"));
+				handleParams.put("accept", accept);
+				// Do not wait for the response as this runs in the BiDi events thread
+				bidi.send(new org.openqa.selenium.bidi.Command<Void>("browsingContext.handleUserPrompt", handleParams, input -> null, false));
+			});
+			bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>("browsingContext.userPromptClosed", params -> params), params -> onAlertClosed());
+		}
+		this.watching = true;
+		if (DEBUG) debugPrintln("		+ Alerts watched for " + this.browser.getName() + " browser with policy '" + ALERT_POLICY + "'.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot watch alerts, they will be polled: " + wde.getMessage());
+	}
+}
+}
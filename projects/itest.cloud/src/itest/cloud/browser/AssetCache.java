@@ -0,0 +1,422 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Record static assets (scripts, style sheets, fonts, ...) in a local cache and replay them
+ * in next browser sessions instead of downloading them again.
+ * <p>
+ * The cache is set using the following parameters:
+ * <ul>
+ * <li>{@link #ASSET_CACHE_ID}: whether the cache is used (default is false),</li>
+ * <li>{@link #ASSET_CACHE_DIR_ID}: the cache directory which is kept between executions
+ * (default is <code>itest-asset-cache</code> in the temporary directory),</li>
+ * <li>{@link #ASSET_CACHE_TYPES_ID}: the comma separated list of the DevTools resource types
+ * which are cached (default is <code>Script,Stylesheet,Font</code>).</li>
+ * </ul>
+ * </p><p>
+ * Requests are intercepted using the DevTools <code>Fetch</code> domain, hence the cache
+ * is only available for local Chromium based browsers. Assets are recorded by URL with their
+ * <code>ETag</code>, their <code>Cache-Control</code> header and their record time. When an asset
+ * is requested again:
+ * <ul>
+ * <li>if it's still fresh, i.e. its file name contains a content hash, its response was
+ * immutable or its <code>max-age</code> has not expired since it was recorded, it's replayed
+ * from the cache without any network access,</li>
+ * <li>otherwise, the request is sent with an <code>If-None-Match</code> header and the cached
+ * content is replayed when the server answers the asset is unchanged.</li>
+ * </ul>
+ * </p>
+ */
+public class AssetCache {
+
+	// Parameters
+	final static String ASSET_CACHE_ID = "assetCache";
+	final static String ASSET_CACHE_DIR_ID = "assetCacheDir";
+	final static String ASSET_CACHE_TYPES_ID = "assetCacheTypes";
+	final static boolean ASSET_CACHE = getParameterBooleanValue(ASSET_CACHE_ID, false);
+
+	// Headers
+	private final static String ETAG_HEADER = "ETag";
+	private final static String IF_NONE_MATCH_HEADER = "If-None-Match";
+	private final static String CACHE_CONTROL_HEADER = "Cache-Control";
+	private final static Set<String> IGNORED_HEADERS = new HashSet<String>(Arrays.asList(
+		"content-encoding", "content-length", "transfer-encoding", "set-cookie", "date", "age"));
+
+	// Freshness, the content hash has to be in the file name, e.g. main.3f2a9c1b.js. A hash
+	// shorter than 20 characters has to mix digits and letters, so that dates (e.g. app-20240101.js)
+	// and other numbers are not taken for hashes
+	private final static Pattern CONTENT_HASH_FILE = Pattern.compile(
+		".*[.-]((?=[0-9a-fA-F]*[a-fA-F])(?=[0-9a-fA-F]*[0-9])[0-9a-fA-F]{8,}|[0-9a-fA-F]{20,})(\\.min)?\\.(js|mjs|css|woff2?|ttf|otf|eot|svg|png|gif|jpe?g|webp)");
+	private final static Pattern UUID = Pattern.compile(".*[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}.*");
+	private final static Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+	// Cached assets per URL, shared by all browsers
+	private final static Map<String, Asset> ASSETS = new ConcurrentHashMap<String, Asset>();
+	private static File CACHE_DIR;
+
+	// Writer
+	private final static int SHUTDOWN_TIMEOUT = 60;
+	private static ExecutorService WRITER;
+
+	/**
+	 * Sender of the DevTools commands (see {@link DevTools#send(Command)}).
+	 * <p>
+	 * This allows to exercise the cache without any browser, e.g. against a local
+	 * fixture server (see {@link AssetCacheHarness}).
+	 * </p>
+	 */
+	interface CommandSender {
+		<X> X send(Command<X> command);
+	}
+
+	/**
+	 * An asset of the cache.
+	 */
+	static class Asset {
+		final String url;
+		final String etag;
+		final long time;
+		final List<Map<String, Object>> headers;
+		final File bodyFile;
+		Asset(final String url, final String etag, final long time, final List<Map<String, Object>> headers, final File bodyFile) {
+			this.url = url;
+			this.etag = etag;
+			this.time = time;
+			this.headers = headers;
+			this.bodyFile = bodyFile;
+		}
+		boolean isFresh() {
+			if (hasContentHash(this.url)) return true;
+			String cacheControl = getHeader(this.headers, CACHE_CONTROL_HEADER);
+			if (cacheControl == null || cacheControl.contains("no-cache")) return false;
+			long maxAge = getMaxAge(cacheControl);
+			if (maxAge >= 0) {
+				return System.currentTimeMillis() - this.time < TimeUnit.SECONDS.toMillis(maxAge);
+			}
+			return cacheControl.contains("immutable");
+		}
+	}
+
+	// Browser
+	private final Browser browser;
+
+	// Counts
+	private final AtomicInteger recorded = new AtomicInteger();
+	private final AtomicInteger replayed = new AtomicInteger();
+	private final AtomicInteger revalidated = new AtomicInteger();
+
+AssetCache(final Browser browser) {
+	this.browser = browser;
+}
+
+/**
+ * Print the cache usage of the browser session.
+ */
+void close() {
+	if (this.recorded.get() + this.replayed.get() + this.revalidated.get() > 0) {
+		println("Info: Asset cache recorded " + this.recorded.get() + " assets, replayed " + this.replayed.get() +
+			" assets without network and " + this.revalidated.get() + " unchanged assets during the browser session.");
+	}
+}
+
+private static void continueRequest(final CommandSender devTools, final String requestId, final List<Map<String, Object>> headers) {
+	Map<String, Object> parameters = new HashMap<String, Object>();
+	parameters.put("requestId", requestId);
+	if (headers != null) {
+		parameters.put("headers", headers);
+	}
+	devTools.send(new Command<Void>("Fetch.continueRequest", parameters));
+}
+
+private static void fulfillRequest(final CommandSender devTools, final String requestId, final Asset asset) throws IOException {
+	Map<String, Object> parameters = new HashMap<String, Object>();
+	parameters.put("requestId", requestId);
+	parameters.put("responseCode", Integer.valueOf(200));
+	parameters.put("responseHeaders", asset.headers);
+	parameters.put("body", Base64.getEncoder().encodeToString(Files.readAllBytes(asset.bodyFile.toPath())));
+	devTools.send(new Command<Void>("Fetch.fulfillRequest", parameters));
+}
+
+private static String getFileName(final String url) {
+	try {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(UTF_8));
+		StringBuilder builder = new StringBuilder();
+		for (byte b: digest) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+	catch (NoSuchAlgorithmException nsae) {
+		// Should not happen as all JVMs support SHA-256
+		throw new IllegalStateException(nsae);
+	}
+}
+
+private static String getHeader(final List<Map<String, Object>> headers, final String name) {
+	for (Map<String, Object> header: headers) {
+		if (name.equalsIgnoreCase((String) header.get("name"))) {
+			return (String) header.get("value");
+		}
+	}
+	return null;
+}
+
+private static synchronized ExecutorService getWriter() {
+	if (WRITER == null) {
+		WRITER = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "asset-cache-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	return WRITER;
+}
+
+@SuppressWarnings("unchecked")
+void handleRequest(final CommandSender devTools, final Map<String, Object> params) {
+	String requestId = (String) params.get("requestId");
+	Map<String, Object> request = (Map<String, Object>) params.get("request");
+	String url = (String) request.get("url");
+	Asset asset = "GET".equals(request.get("method")) ? ASSETS.get(url) : null;
+	try {
+		if (params.containsKey("responseStatusCode") || params.containsKey("responseErrorReason")) {
+			// Response stage
+			Number status = (Number) params.get("responseStatusCode");
+			if (status != null && status.intValue() == 304 && asset != null) {
+				fulfillRequest(devTools, requestId, asset);
+				this.revalidated.incrementAndGet();
+				if (DEBUG) debugPrintln("		+ Asset unchanged, replayed from cache: " + url);
+				return;
+			}
+			if (status != null && status.intValue() == 200 && "GET".equals(request.get("method"))) {
+				List<Map<String, Object>> headers = (List<Map<String, Object>>) params.get("responseHeaders");
+				if (headers == null) headers = Collections.emptyList();
+				if (!shouldRecord(url, headers)) {
+					// Do not transfer the body of assets which are not cached or already cached
+					continueRequest(devTools, requestId, null);
+					return;
+				}
+				Map<String, Object> body = devTools.send(new Command<Map<String, Object>>("Fetch.getResponseBody", Collections.singletonMap("requestId", requestId), Json.MAP_TYPE));
+				continueRequest(devTools, requestId, null);
+				record(url, headers, body);
+				return;
+			}
+			continueRequest(devTools, requestId, null);
+			return;
+		}
+
+		// Request stage
+		if (asset == null) {
+			continueRequest(devTools, requestId, null);
+		}
+		else if (asset.isFresh()) {
+			fulfillRequest(devTools, requestId, asset);
+			this.replayed.incrementAndGet();
+			if (DEBUG) debugPrintln("		+ Fresh asset replayed from cache: " + url);
+		}
+		else if (asset.etag == null) {
+			// Expired asset which cannot be revalidated, download it again
+			continueRequest(devTools, requestId, null);
+		}
+		else {
+			// Ask the server whether the asset has changed
+			List<Map<String, Object>> headers = new ArrayList<Map<String, Object>>();
+			for (Map.Entry<String, Object> header: ((Map<String, Object>) request.get("headers")).entrySet()) {
+				headers.add(toHeader(header.getKey(), String.valueOf(header.getValue())));
+			}
+			headers.add(toHeader(IF_NONE_MATCH_HEADER, asset.etag));
+			continueRequest(devTools, requestId, headers);
+		}
+	}
+	catch (IOException | WebDriverException ex) {
+		// The request has to go on whatever happens in the cache
+		if (DEBUG) debugPrintln("		+ Asset cache cannot handle request " + url + ": " + ex.getMessage());
+		try {
+			continueRequest(devTools, requestId, null);
+		}
+		catch (WebDriverException wde) {
+			// The request was already continued or the page is gone
+		}
+	}
+}
+
+/*
+ * Return the max-age of the given Cache-Control header in seconds, -1 if none.
+ */
+private static long getMaxAge(final String cacheControl) {
+	Matcher matcher = MAX_AGE.matcher(cacheControl);
+	return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+}
+
+/*
+ * Tells whether the file name of the given URL contains a content hash.
+ */
+private static boolean hasContentHash(final String url) {
+	String path = url.replaceFirst("[?#].*", "");
+	String fileName = path.substring(path.lastIndexOf('/') + 1);
+	return CONTENT_HASH_FILE.matcher(fileName).matches() && !UUID.matcher(fileName).matches();
+}
+
+@SuppressWarnings("unchecked")
+static synchronized void loadAssets() {
+	if (CACHE_DIR != null) return;
+	CACHE_DIR = new File(getParameterValue(ASSET_CACHE_DIR_ID, System.getProperty("java.io.tmpdir") + File.separator + "itest-asset-cache"));
+	CACHE_DIR.mkdirs();
+	File[] files = CACHE_DIR.listFiles((dir, name) -> name.endsWith(".json"));
+	if (files == null) return;
+	Json json = new Json();
+	for (File file: files) {
+		try {
+			Map<String, Object> metadata = json.toType(new String(Files.readAllBytes(file.toPath()), UTF_8), Json.MAP_TYPE);
+			File bodyFile = new File(CACHE_DIR, file.getName().replace(".json", ".body"));
+			if (bodyFile.exists()) {
+				String url = (String) metadata.get("url");
+				List<Map<String, Object>> headers = (List<Map<String, Object>>) metadata.get("headers");
+				Number time = (Number) metadata.get("time");
+				ASSETS.put(url, new Asset(url, (String) metadata.get("etag"), time == null ? file.lastModified() : time.longValue(), headers, bodyFile));
+			}
+		}
+		catch (IOException | RuntimeException ex) {
+			println("WARNING: Cannot read cached asset " + file + ": " + ex.getMessage());
+		}
+	}
+	if (DEBUG) debugPrintln("		+ Loaded " + ASSETS.size() + " cached assets from " + CACHE_DIR);
+}
+
+private void record(final String url, final List<Map<String, Object>> responseHeaders, final Map<String, Object> body) {
+	String etag = getHeader(responseHeaders, ETAG_HEADER);
+
+	// Keep only headers still valid for the decoded body
+	List<Map<String, Object>> headers = new ArrayList<Map<String, Object>>();
+	for (Map<String, Object> header: responseHeaders) {
+		if (!IGNORED_HEADERS.contains(((String) header.get("name")).toLowerCase())) {
+			headers.add(header);
+		}
+	}
+	String content = (String) body.get("body");
+	byte[] bytes = Boolean.TRUE.equals(body.get("base64Encoded")) ? Base64.getDecoder().decode(content) : content.getBytes(UTF_8);
+	String fileName = getFileName(url);
+	Asset asset = new Asset(url, etag, System.currentTimeMillis(), headers, new File(CACHE_DIR, fileName + ".body"));
+	this.recorded.incrementAndGet();
+	getWriter().submit(() -> {
+		Map<String, Object> metadata = new LinkedHashMap<String, Object>();
+		metadata.put("url", url);
+		metadata.put("etag", etag);
+		metadata.put("time", Long.valueOf(asset.time));
+		metadata.put("headers", headers);
+		try {
+			Files.write(asset.bodyFile.toPath(), bytes);
+			Files.write(new File(CACHE_DIR, fileName + ".json").toPath(), new Json().toJson(metadata).getBytes(UTF_8));
+			ASSETS.put(url, asset);
+			if (DEBUG) debugPrintln("		+ Asset recorded in cache: " + url);
+		}
+		catch (IOException ioe) {
+			println("WARNING: Cannot record asset " + url + " in cache: " + ioe.getMessage());
+		}
+	});
+}
+
+/*
+ * Tells whether the response of the given URL has to be recorded, i.e. whether it's
+ * cacheable and not already in the cache with the same ETag.
+ */
+private static boolean shouldRecord(final String url, final List<Map<String, Object>> responseHeaders) {
+	String etag = getHeader(responseHeaders, ETAG_HEADER);
+	String cacheControl = getHeader(responseHeaders, CACHE_CONTROL_HEADER);
+	boolean cacheable = etag != null || hasContentHash(url) || (cacheControl != null && (getMaxAge(cacheControl) > 0 || cacheControl.contains("immutable")));
+	if (!cacheable || (cacheControl != null && cacheControl.contains("no-store"))) {
+		return false;
+	}
+	Asset cachedAsset = ASSETS.get(url);
+	return cachedAsset == null || etag == null || !etag.equals(cachedAsset.etag);
+}
+
+/**
+ * Wait for all pending assets to be written in the cache and stop the writer.
+ */
+public static synchronized void shutdown() {
+	if (WRITER != null) {
+		WRITER.shutdown();
+		try {
+			if (!WRITER.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				println("WARNING: Some assets were not written in cache after " + SHUTDOWN_TIMEOUT + " seconds.");
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		WRITER = null;
+	}
+}
+
+/**
+ * Start intercepting the browser requests to use the cache.
+ * <p>
+ * A warning is printed if the browser does not support DevTools.
+ * </p>
+ */
+void start() {
+	DevTools devTools = this.browser.getDevTools();
+	if (devTools == null) {
+		println("WARNING: Browser " + this.browser.getName() + " does not support DevTools, assets cannot be cached.");
+		return;
+	}
+	loadAssets();
+	CommandSender sender = devTools::send;
+	List<Map<String, Object>> patterns = new ArrayList<Map<String, Object>>();
+	for (String type: getParameterValue(ASSET_CACHE_TYPES_ID, "Script,Stylesheet,Font").split(",")) {
+		for (String stage: new String[] { "Request", "Response" }) {
+			Map<String, Object> pattern = new HashMap<String, Object>();
+			pattern.put("urlPattern", "*");
+			pattern.put("resourceType", type.trim());
+			pattern.put("requestStage", stage);
+			patterns.add(pattern);
+		}
+	}
+	try {
+		devTools.addListener(new Event<Map<String, Object>>("Fetch.requestPaused", input -> input.read(Json.MAP_TYPE)), params -> handleRequest(sender, params));
+		devTools.send(new Command<Void>("Fetch.enable", Collections.singletonMap("patterns", patterns)));
+		if (DEBUG) debugPrintln("		+ Asset cache started for " + this.browser.getName() + " browser.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot start asset cache: " + wde.getMessage());
+	}
+}
+
+private static Map<String, Object> toHeader(final String name, final String value) {
+	Map<String, Object> header = new LinkedHashMap<String, Object>();
+	header.put("name", name);
+	header.put("value", value);
+	return header;
+}
+}
@@ -0,0 +1,231 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.devtools.Command;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Check the {@link AssetCache} offline against a local fixture server.
+ * <p>
+ * Usage: <code>AssetCacheHarness</code>
+ * </p><p>
+ * No browser is needed: the DevTools <code>Fetch</code> domain is simulated by sending the
+ * requests to the fixture server, hence the cache decisions (record, replay, revalidate)
+ * are checked as they would be for a browser. Two sessions load the same assets, the first
+ * one with an empty cache in a temporary directory, the second one using this cache.
+ * The process exits with a non-zero status when a check fails.
+ * </p>
+ */
+public class AssetCacheHarness {
+
+	// Fixture assets: path, headers (ETag, Cache-Control) and whether If-None-Match is honored
+	private final static String[][] FIXTURES = {
+		{ "/app.3f2a9c1b.js", null, "max-age=0", "true" },
+		{ "/app-20240101.js", "\"d1\"", "no-cache", "true" },
+		{ "/style.css", "\"s1\"", "no-cache", "true" },
+		{ "/always.css", "\"a1\"", "no-cache", "false" },
+		{ "/page.js", null, null, "true" },
+	};
+
+	// Server hits and body transfers
+	private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<String, AtomicInteger>();
+	private int bodies = 0;
+
+	// Outcome of each request of the current session
+	private final Map<String, String> outcomes = new LinkedHashMap<String, String>();
+	private final Map<String, Map<String, Object>> pendingRequests = new HashMap<String, Map<String, Object>>();
+	private final Map<String, byte[]> responseBodies = new HashMap<String, byte[]>();
+	private int failures = 0;
+
+public static void main(final String[] args) throws Exception {
+	File cacheDir = Files.createTempDirectory("itest-asset-cache").toFile();
+	System.setProperty(AssetCache.ASSET_CACHE_DIR_ID, cacheDir.getPath());
+	HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+	AssetCacheHarness harness = new AssetCacheHarness();
+	server.createContext("/", exchange -> harness.serve(exchange));
+	server.start();
+	try {
+		String root = "http://127.0.0.1:" + server.getAddress().getPort();
+		AssetCache.loadAssets();
+
+		// First session records the cacheable assets
+		harness.runSession(root);
+		AssetCache.shutdown();
+		harness.check("recorded", "/app.3f2a9c1b.js", "network");
+		harness.check("recorded", "/app-20240101.js", "network");
+		harness.check("recorded", "/style.css", "network");
+		harness.check("recorded", "/always.css", "network");
+		harness.check("not cacheable", "/page.js", "network");
+		harness.checkCount("response bodies read", harness.bodies, 4);
+
+		// Second session replays or revalidates them
+		harness.hits.clear();
+		harness.runSession(root);
+		harness.check("content hash", "/app.3f2a9c1b.js", "replayed");
+		harness.checkCount("server hits for content hash", harness.getHits("/app.3f2a9c1b.js"), 0);
+		harness.check("date is not a hash", "/app-20240101.js", "revalidated");
+		harness.check("ETag", "/style.css", "revalidated");
+		harness.check("same ETag without 304", "/always.css", "network");
+		harness.check("not cacheable", "/page.js", "network");
+		harness.checkCount("response bodies read", harness.bodies, 4);
+	}
+	finally {
+		server.stop(0);
+		AssetCache.shutdown();
+	}
+	System.out.println(harness.failures == 0 ? "Asset cache harness passed." : "Asset cache harness failed with " + harness.failures + " errors.");
+	System.exit(harness.failures == 0 ? 0 : 1);
+}
+
+private void check(final String kind, final String path, final String expected) {
+	String outcome = this.outcomes.get(path);
+	if (!expected.equals(outcome)) {
+		System.err.println("KO: " + path + " (" + kind + ") was " + outcome + " instead of " + expected);
+		this.failures++;
+	}
+}
+
+private void checkCount(final String kind, final int count, final int expected) {
+	if (count != expected) {
+		System.err.println("KO: " + count + " " + kind + " instead of " + expected);
+		this.failures++;
+	}
+}
+
+private int getHits(final String path) {
+	AtomicInteger count = this.hits.get(path);
+	return count == null ? 0 : count.get();
+}
+
+private void runSession(final String root) {
+	this.outcomes.clear();
+	AssetCache cache = new AssetCache(null);
+	AssetCache.CommandSender sender = new AssetCache.CommandSender() {
+		@Override
+		public <X> X send(final Command<X> command) {
+			return AssetCacheHarness.this.send(cache, this, command);
+		}
+	};
+	int id = 0;
+	for (String[] fixture: FIXTURES) {
+		Map<String, Object> request = new HashMap<String, Object>();
+		request.put("url", root + fixture[0]);
+		request.put("method", "GET");
+		request.put("headers", new HashMap<String, Object>());
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("requestId", "request-" + (++id));
+		params.put("request", request);
+		this.pendingRequests.put((String) params.get("requestId"), params);
+		cache.handleRequest(sender, params);
+	}
+}
+
+@SuppressWarnings("unchecked")
+private <X> X send(final AssetCache cache, final AssetCache.CommandSender sender, final Command<X> command) {
+	Map<String, Object> params = command.getParams();
+	String requestId = (String) params.get("requestId");
+	Map<String, Object> pausedParams = this.pendingRequests.get(requestId);
+	String url = (String) ((Map<String, Object>) pausedParams.get("request")).get("url");
+	String path = url.substring(url.indexOf('/', url.indexOf("//") + 2));
+	switch (command.getMethod()) {
+		case "Fetch.fulfillRequest":
+			this.outcomes.put(path, pausedParams.containsKey("responseStatusCode") ? "revalidated" : "replayed");
+			return null;
+		case "Fetch.getResponseBody":
+			this.bodies++;
+			Map<String, Object> body = new HashMap<String, Object>();
+			body.put("body", Base64.getEncoder().encodeToString(this.responseBodies.get(requestId)));
+			body.put("base64Encoded", Boolean.TRUE);
+			return (X) body;
+		case "Fetch.continueRequest":
+			if (pausedParams.containsKey("responseStatusCode")) {
+				// Response stage, the browser gets the network response
+				this.outcomes.put(path, "network");
+				return null;
+			}
+			// Request stage, send the request and pause at response stage
+			try {
+				HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+				List<Map<String, Object>> headers = (List<Map<String, Object>>) params.get("headers");
+				if (headers != null) {
+					for (Map<String, Object> header: headers) {
+						connection.setRequestProperty((String) header.get("name"), (String) header.get("value"));
+					}
+				}
+				int status = connection.getResponseCode();
+				List<Map<String, Object>> responseHeaders = new ArrayList<Map<String, Object>>();
+				for (Map.Entry<String, List<String>> header: connection.getHeaderFields().entrySet()) {
+					if (header.getKey() != null) {
+						Map<String, Object> responseHeader = new HashMap<String, Object>();
+						responseHeader.put("name", header.getKey());
+						responseHeader.put("value", header.getValue().get(0));
+						responseHeaders.add(responseHeader);
+					}
+				}
+				if (status == 200) {
+					try (InputStream stream = connection.getInputStream()) {
+						this.responseBodies.put(requestId, stream.readAllBytes());
+					}
+				}
+				pausedParams.put("responseStatusCode", Integer.valueOf(status));
+				pausedParams.put("responseHeaders", responseHeaders);
+				cache.handleRequest(sender, pausedParams);
+			}
+			catch (IOException ioe) {
+				throw new UncheckedIOException(ioe);
+			}
+			return null;
+		default:
+			throw new IllegalArgumentException("Unexpected command " + command.getMethod());
+	}
+}
+
+private void serve(final HttpExchange exchange) throws IOException {
+	String path = exchange.getRequestURI().getPath();
+	this.hits.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+	for (String[] fixture: FIXTURES) {
+		if (fixture[0].equals(path)) {
+			if (fixture[1] != null) exchange.getResponseHeaders().set("ETag", fixture[1]);
+			if (fixture[2] != null) exchange.getResponseHeaders().set("Cache-Control", fixture[2]);
+			if (fixture[1] != null && Boolean.parseBoolean(fixture[3]) && fixture[1].equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			byte[] body = ("/* " + path + " */").getBytes(UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream stream = exchange.getResponseBody()) {
+				stream.write(body);
+			}
+			return;
+		}
+	}
+	exchange.sendResponseHeaders(404, -1);
+	exchange.close();
+}
+}
@@ -0,0 +1,174 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.*;
+
+import org.openqa.selenium.*;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+/**
+ * Open a WebDriver BiDi session on the persistent WebSocket of the driver besides
+ * the classic WebDriver HTTP commands.
+ * <p>
+ * When the {@link #BIDI_ID} parameter is set (default is false), Chrome, Edge and Firefox
+ * browsers are started with the <code>webSocketUrl</code> capability, and drivers created
+ * through a Selenium Grid are augmented to give access to the session.
+ * </p><p>
+ * The session is then used:
+ * <ul>
+ * <li>by the features listening to browser events when DevTools is not available, e.g. on
+ * a Selenium Grid (see {@link RequestBlocker}, {@link ConsoleRecorder}, {@link AlertWatcher}),</li>
+ * <li>to follow the navigations of the current window top-level browsing context, so that
+ * readiness waits are notified of the <code>load</code> event instead of polling the document
+ * state (see {@link Browser#waitForNavigationsEnd(int)}). Navigations of frames, other windows
+ * and downloads are ignored, and the notification is not waited for more than
+ * {@link #BIDI_NAVIGATION_TIMEOUT_ID} seconds (default is 10).</li>
+ * </ul>
+ * </p>
+ */
+public class BiDiTransport {
+
+	// Parameters
+	final static String BIDI_ID = "bidi";
+	final static boolean BIDI = getParameterBooleanValue(BIDI_ID, false);
+	final static String BIDI_NAVIGATION_TIMEOUT_ID = "bidiNavigationTimeout";
+	private final static int BIDI_NAVIGATION_TIMEOUT = getParameterIntValue(BIDI_NAVIGATION_TIMEOUT_ID, 10);
+
+	// Browser
+	private final Browser browser;
+
+	// Followed top-level browsing context, i.e. the current window handle
+	private String context;
+	private boolean navigating = false;
+	private boolean started = false;
+
+BiDiTransport(final Browser browser) {
+	this.browser = browser;
+}
+
+/**
+ * Return the given driver augmented to give access to the WebDriver BiDi
+ * session when the transport is requested.
+ * <p>
+ * Only drivers created through a Selenium Grid need to be augmented, local
+ * drivers give access to the session by themselves.
+ * </p>
+ * @param driver The driver
+ * @return The augmented driver or the given one if no augmentation is needed
+ */
+static WebDriver augment(final WebDriver driver) {
+	if (BIDI && driver instanceof RemoteWebDriver && !(driver instanceof HasBiDi)) {
+		return new Augmenter().augment(driver);
+	}
+	return driver;
+}
+
+/**
+ * Ask the browser to open a WebDriver BiDi session if the transport is requested.
+ *
+ * @param options The browser options
+ */
+static void enable(final MutableCapabilities options) {
+	if (BIDI) {
+		options.setCapability("webSocketUrl", true);
+	}
+}
+
+private synchronized void onNavigationEnd(final Map<String, Object> params) {
+	if (this.navigating && params.get("context").equals(this.context)) {
+		this.navigating = false;
+		notifyAll();
+	}
+}
+
+private synchronized void onNavigationStarted(final Map<String, Object> params) {
+	if (params.get("context").equals(this.context)) {
+		this.navigating = true;
+	}
+}
+
+/**
+ * Start following the navigations of the browsing contexts.
+ * <p>
+ * A warning is printed if the browser does not support WebDriver BiDi,
+ * readiness waits being then done by polling as usual.
+ * </p>
+ */
+synchronized void start() {
+	if (this.started) return;
+	BiDi bidi = this.browser.getBiDi();
+	if (bidi == null) {
+		println("WARNING: Browser " + this.browser.getName() + " does not support WebDriver BiDi, classic WebDriver commands will be used.");
+		return;
+	}
+	try {
+		this.context = this.browser.getDriver().getWindowHandle();
+		bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>("browsingContext.navigationStarted", params -> params), params -> onNavigationStarted(params));
+		for (String event: new String[] { "browsingContext.load", "browsingContext.navigationFailed", "browsingContext.navigationAborted", "browsingContext.contextDestroyed" }) {
+			bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>(event, params -> params), params -> onNavigationEnd(params));
+		}
+		this.started = true;
+		if (DEBUG) debugPrintln("		+ WebDriver BiDi session opened for " + this.browser.getName() + " browser.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot follow browser navigations through WebDriver BiDi: " + wde.getMessage());
+	}
+}
+
+/**
+ * Wait until the given top-level browsing context has ended its navigation.
+ * <p>
+ * The wait is bounded by {@link #BIDI_NAVIGATION_TIMEOUT_ID} seconds, whatever the
+ * given timeout is.
+ * </p>
+ * @param windowHandle The window handle, i.e. the top-level browsing context
+ * @param timeout The time to wait in seconds
+ * @return <code>true</code> if no navigation is in progress, <code>false</code>
+ * if navigations are not followed or if the timeout has been reached
+ */
+synchronized boolean waitForNavigationsEnd(final String windowHandle, final int timeout) {
+	if (!this.started || windowHandle == null) return false;
+	if (!windowHandle.equals(this.context)) {
+		// Navigations of the new current window were not followed so far
+		this.context = windowHandle;
+		this.navigating = false;
+		return false;
+	}
+	int navigationTimeout = Math.min(timeout, BIDI_NAVIGATION_TIMEOUT);
+	long timeoutMillis = navigationTimeout * 1000 + System.currentTimeMillis();
+	while (this.navigating) {
+		long remaining = timeoutMillis - System.currentTimeMillis();
+		if (remaining <= 0) {
+			if (DEBUG) debugPrintln("		+ Navigation of " + this.context + " still in progress after " + navigationTimeout + "s.");
+			// Forget the navigation as its end event may have been missed
+			this.navigating = false;
+			return false;
+		}
+		try {
+			wait(remaining);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	return true;
+}
+}
@@ -25,6 +25,7 @@ import static org.openqa.selenium.Keys.TAB;
 
 import java.io.*;
 import java.net.*;
+import java.nio.CharBuffer;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -32,8 +33,13 @@ import java.util.regex.Pattern;
 
 import org.openqa.selenium.*;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.*;
 import org.openqa.selenium.WebDriver.*;
 import org.openqa.selenium.interactions.*;
+import org.openqa.selenium.json.Json;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 
@@ -46,6 +52,7 @@ import itest.cloud.page.element.BrowserElement;
 import itest.cloud.page.frame.BrowserFrame;
 import itest.cloud.page.frame.ElementFrame;
 import itest.cloud.performance.PerfManager;
+import itest.cloud.scenario.ScenarioStartup;
 import itest.cloud.scenario.ScenarioUtil;
 import itest.cloud.scenario.error.*;
 import itest.cloud.util.FileUtil;
@@ -227,8 +234,18 @@ public abstract class Browser implements SearchContext {
 	private static final int INFO_SNAPSHOT = 0;
 	private static final int WARNING_SNAPSHOT = 1;
 	private static final int FAILURE_SNAPSHOT = 2;
+	private static final String[] SNAPSHOT_CATEGORIES = { SnapshotPolicy.INFOS, SnapshotPolicy.WARNINGS, SnapshotPolicy.FAILURES };
 	// Browser sessions
 	private static final String NEW_BROWSER_SESSION_PER_USER = "newBrowserSessionPerUser";
+	// Session soft reset
+	private static final boolean BROWSER_SOFT_RESET = getParameterBooleanValue("browserSoftReset", true);
+	private static final String BLANK_PAGE = "about:blank";
+	private static final String[] EMULATION_RESET_COMMANDS = {
+		"Emulation.clearDeviceMetricsOverride",
+		"Emulation.clearGeolocationOverride",
+	};
+	// Profiles used by the living browsers
+	private static final Set<String> PROFILES_IN_USE = new HashSet<String>();
 	// Window size
 	private static final int MIN_HEIGHT = 900;
 	private static final int MAX_HEIGHT = 1200;
@@ -277,6 +294,8 @@ public abstract class Browser implements SearchContext {
 	String path;
 	String driverPath;
 	String profile;
+	// Whether the profile is a new directory of the profiles container
+	private boolean newProfile;
 	String locale;
 	URL remoteAddress;
 	File downloadDir;
@@ -301,6 +320,8 @@ public abstract class Browser implements SearchContext {
 	private String location; // TODO Check the location is necessary for browser
 	String url; // TODO Check the url is necessary for browser
 	protected String mainWindowHandle;
+	// Origins of the pages opened in the browser
+	private final Set<String> openedOrigins = Collections.synchronizedSet(new LinkedHashSet<String>());
 
 	// Frames
 	BrowserFrame frame;
@@ -313,6 +334,31 @@ public abstract class Browser implements SearchContext {
 	// Performances
 	final PerfManager perfManager = PerfManager.createInstance(this); // Warning: Can be null!
 
+	// Events sessions, created on demand
+	private DevTools devTools;
+	private BiDi bidi;
+
+	// Third-party requests blocking
+	final RequestBlocker requestBlocker = new RequestBlocker(this);
+
+	// Static assets cache
+	final AssetCache assetCache = new AssetCache(this);
+
+	// Network activity recording
+	final HarRecorder harRecorder = new HarRecorder(this);
+
+	// Failed server requests detection
+	final ServerErrorDetector serverErrorDetector = new ServerErrorDetector(this);
+
+	// Console messages recording
+	final ConsoleRecorder consoleRecorder = new ConsoleRecorder(this);
+
+	// JavaScript dialogs handling
+	final AlertWatcher alertWatcher = new AlertWatcher(this);
+
+	// WebDriver BiDi session
+	final BiDiTransport bidiTransport = new BiDiTransport(this);
+
 Browser(final BrowserType browserType) {
 	// Init info
 	this.browserType = browserType;
@@ -326,7 +372,22 @@ Browser(final BrowserType browserType) {
     if((this.profile == null) && (profileContainer != null)) {
     	this.profile =
     		new File(profileContainer, Long.toString(System.currentTimeMillis())).getAbsolutePath();
+    	this.newProfile = true;
+    	BrowserProfileTemplate.cleanContainer(profileContainer);
+    }
+    String reservedProfile = reserveProfile(this.profile);
+    if (reservedProfile != null && !reservedProfile.equals(this.profile) && !this.newProfile) {
+    	// Do not lose the settings, certificates and logins of the configured profile
+    	println("WARNING: Browser profile '" + this.profile + "' is already used by another browser, it's copied to '" + reservedProfile + "' for this browser.");
+    	try {
+    		BrowserProfileTemplate.copyProfile(this.profile, reservedProfile);
+    	}
+    	catch (IOException ioe) {
+    		releaseProfile(reservedProfile);
+    		throw new ScenarioFailedError("Cannot copy browser profile '" + this.profile + "' to '" + reservedProfile + "': " + ioe.getMessage());
+    	}
     }
+    this.profile = reservedProfile;
 
 	this.locale = getParameterValue(BROWSER_LOCALE_ID, "en");
 
@@ -346,7 +407,12 @@ Browser(final BrowserType browserType) {
 		Level.parse(getParameterValue("seleniumLogLevel", Level.SEVERE.getName())));
 
 	// Initialize the profile
+	long start = System.nanoTime();
+	if (this.newProfile) {
+		BrowserProfileTemplate.copyTo(this.profile);
+	}
 	initProfile();
+	ScenarioStartup.record("Browser profile", start);
 
 	// Init driver.
 	// Important: A WebDriverException can occur during the initialization of the driver
@@ -354,10 +420,13 @@ Browser(final BrowserType browserType) {
 	// if many test scenarios (more than 8) are started simultaneously. In such a situation,
 	// the initialization of the driver should be retried after a small delay.
 	int attempts = 0;
+	start = System.nanoTime();
 	while(true) {
 		try {
 			initDriver();
+			this.driver = BiDiTransport.augment(this.driver);
 			// Driver has been successfully initialized. Therefore, break the loop.
+			ScenarioStartup.record("Browser driver", start);
 			break;
 		}
 		catch (WebDriverException e) {
@@ -374,6 +443,46 @@ Browser(final BrowserType browserType) {
 
 	this.actions = new Actions(this.driver);
 
+	// Follow the origins of the loaded documents to clear their storage on soft reset
+	if (BROWSER_SOFT_RESET && isCdpSupported()) {
+		followOrigins();
+	}
+
+	// Open the WebDriver BiDi session if requested
+	if (BiDiTransport.BIDI) {
+		this.bidiTransport.start();
+	}
+
+	// Block third-party requests if requested
+	if (RequestBlocker.BLOCK_REQUESTS) {
+		this.requestBlocker.setEnabled(true);
+	}
+
+	// Replay static assets from the local cache if requested
+	if (AssetCache.ASSET_CACHE) {
+		this.assetCache.start();
+	}
+
+	// Record the network activity of each test if requested
+	if (HarRecorder.HAR) {
+		this.harRecorder.start();
+	}
+
+	// Detect the requests failing on server side if requested
+	if (ServerErrorDetector.FAIL_ON_SERVER_ERRORS) {
+		this.serverErrorDetector.start();
+	}
+
+	// Record the console messages of each test if requested
+	if (ConsoleRecorder.CONSOLE_CAPTURE) {
+		this.consoleRecorder.start();
+	}
+
+	// Handle the alerts when they open instead of polling them if requested
+	if (AlertWatcher.WATCH_ALERTS) {
+		this.alertWatcher.start();
+	}
+
 	// Init snapshots directories
 	this.snapshotsRootDir = getParameterValue(SELENIUM_SCREENSHOT_DIR_ID);
 	if (this.snapshotsRootDir == null) {
@@ -484,7 +593,7 @@ public void back() {
 	sleep(2);
 	purgeAlerts("While going back to previous page...");
 	this.location = getCurrentUrl();
-	debugPrintln("		  -> location after back: "+this.location);
+	debugPrintln(() -> "		  -> location after back: "+this.location);
 
 	// Set current page
 //	this.page = this.history.pop();
@@ -504,21 +613,21 @@ public void catchWebDriverException(final WebDriverException wde, final String t
 
 	// Give up right now if the exception is too serious
 	if (!(wde instanceof StaleElementReferenceException)) {
-		debugPrintln("Fatal exception occured when "+title+"'... give up");
+		debugPrintln(() -> "Fatal exception occured when "+title+"'... give up");
     	debugPrintException(wde);
 		throw wde;
 	}
 
 	// If max retry has been reached, then really throw the WDE exception
 	if (count > MAX_RECOVERY_ATTEMPTS) {
-		debugPrintln("More than 10 exceptions occured when "+title+"'... give up");
+		debugPrintln(() -> "More than 10 exceptions occured when "+title+"'... give up");
     	debugPrintException(wde);
 		throw wde;
 	}
 
 	// ScenarioWorkaround the WDE exception
 	// Workaround
-	debugPrint("Workaround exception when "+title+"': ");
+	debugPrint(() -> "Workaround exception when "+title+"': ");
 	debugPrintException(wde);
 }
 
@@ -588,6 +697,19 @@ public boolean check(final BrowserElement element, final int toggle, final boole
 	return true;
 }
 
+/**
+ * Fail if a request of the current page has failed on the server side.
+ * <p>
+ * This check is only done when requested (see {@link ServerErrorDetector}).
+ * </p>
+ * @throws ServerRequestError If a failed request has been detected.
+ */
+public void checkServerErrors() throws ServerRequestError {
+	if (ServerErrorDetector.FAIL_ON_SERVER_ERRORS) {
+		this.serverErrorDetector.check();
+	}
+}
+
 /**
  * Click on the given element at an offset from the top-left corner of the element.
  *
@@ -685,8 +807,18 @@ public void close() {
 		this.perfManager.close();
 	}
 
+	// Print the blocked requests, cached assets and handled alerts summaries
+	this.requestBlocker.close();
+	this.assetCache.close();
+	this.alertWatcher.close();
+
 	// Shutdown current Selenium session
-	this.driver.quit();
+	try {
+		this.driver.quit();
+	}
+	finally {
+		releaseProfile(this.profile);
+	}
 //	// Workaround for Firefox issue https://bugzilla.mozilla.org/show_bug.cgi?id=1027222
 //	// See also https://code.google.com/p/selenium/issues/detail?id=7506
 //
@@ -856,7 +988,7 @@ public File downloadFile(final Action triggerAction, final int timeout) {
  * @see Actions#dragAndDrop(WebElement, WebElement)
  */
 public void dragAndDrop(final BrowserElement sourceElement, final BrowserElement targetElement) {
-	debugPrintln("		+ Drag " + sourceElement + " to " + targetElement);
+	debugPrintln(() -> "		+ Drag " + sourceElement + " to " + targetElement);
 	this.actions.moveToElement(sourceElement.getWebElement());
 	this.actions.dragAndDrop(sourceElement.getWebElement(), targetElement.getWebElement());
 	this.actions.build().perform();
@@ -870,7 +1002,7 @@ public void dragAndDrop(final BrowserElement sourceElement, final BrowserElement
  * @param yOffset The vertical offset for the drag
  */
 public void dragAndDropBy(final BrowserElement element, final int xOffset, final int yOffset) {
-	debugPrintln("		+ Drag " + element + " to (" + xOffset+", "+yOffset+")");
+	debugPrintln(() -> "		+ Drag " + element + " to (" + xOffset+", "+yOffset+")");
 	this.actions.moveToElement(element.getWebElement());
 	this.actions.dragAndDropBy(element.getWebElement(), xOffset, yOffset);
 	this.actions.build().perform();
@@ -884,7 +1016,7 @@ public void dragAndDropBy(final BrowserElement element, final int xOffset, final
  * @see Actions#dragAndDrop(WebElement, WebElement)
  */
 public void dragAndDropViaJavaScript(final BrowserElement sourceElement, final BrowserElement targetElement) {
-	debugPrintln("		+ Drag " + sourceElement + " to " + targetElement);
+	debugPrintln(() -> "		+ Drag " + sourceElement + " to " + targetElement);
 	dragAndDropViaJavaScript(sourceElement, targetElement, Position.TOP_LEFT, Position.TOP_LEFT);
 }
 
@@ -904,6 +1036,44 @@ private void dragAndDropViaJavaScript(final BrowserElement dragFrom, final Brows
 	getJavascriptExecutor().executeScript(DrapAndDropSimulator.JAVASCRIPT_SIMULATE_EVENHTML5_DRAGANDDROP, dragFrom.getWebElement(), dragTo.getWebElement(), dragFromX, dragFromY, dragToX, dragToY);
 }
 
+/**
+ * Notify the browser that a test has ended.
+ * <p>
+ * The network activity recorded during the test is written in a HAR file
+ * if requested (see {@link HarRecorder}).
+ * </p>
+ * @param testName The qualified test name
+ * @param passed Tells whether the test passed
+ * @param duration The test duration in milliseconds
+ */
+public void endTest(final String testName, final boolean passed, final long duration) {
+	if (HarRecorder.HAR) {
+		this.harRecorder.finish(testName, passed, duration);
+	}
+	if (ServerErrorDetector.FAIL_ON_SERVER_ERRORS) {
+		this.serverErrorDetector.clear();
+	}
+	if (ConsoleRecorder.CONSOLE_CAPTURE) {
+		this.consoleRecorder.clear();
+	}
+}
+
+/**
+ * Execute the given Chrome DevTools Protocol command.
+ *
+ * @param command The command name, e.g. <code>Network.clearBrowserCookies</code>
+ * @param parameters The command parameters. May be empty.
+ * @return The command result as a {@link Map}.
+ * @throws ScenarioFailedError If the browser does not support the DevTools Protocol
+ * (see {@link #isCdpSupported()}).
+ */
+public Map<String, Object> executeCdpCommand(final String command, final Map<String, Object> parameters) {
+	if (!isCdpSupported()) {
+		throw new ScenarioFailedError("Browser " + this.browserType + " does not support DevTools command " + command + ".");
+	}
+	return ((HasCdp) this.driver).executeCdpCommand(command, parameters);
+}
+
 /**
  * Execute the given script on the WebBrowser Element
  *
@@ -991,7 +1161,7 @@ public BrowserElement findElement(final By locator, final BrowserFrame webFrame,
 			return null;
 		}
 		catch (UnhandledAlertException uae) {
-			purgeAlerts("Finding element '"+fixedLocator+"'");
+			purgeAlerts("Finding element '"+fixedLocator+"'", true /*alertOpen*/);
 			if (!recovery) {
 				return null;
 			}
@@ -1146,6 +1316,21 @@ public List<WebElement> findElements(final By locator, final boolean displayed,
 	}
 }
 
+/**
+ * Return the console messages and uncaught exceptions recorded since the test
+ * started or since the last flush, and forget them.
+ * <p>
+ * Messages are only recorded when requested (see {@link ConsoleRecorder}).
+ * </p>
+ * @return The messages list, empty if none was recorded
+ */
+public List<String> flushConsoleMessages() {
+	if (ConsoleRecorder.CONSOLE_CAPTURE) {
+		return this.consoleRecorder.flush();
+	}
+	return Collections.emptyList();
+}
+
 /**
  * Get the web page content at the given URL.
  * <p>
@@ -1175,15 +1360,23 @@ public final void get(final String pageLocation) {
 			debugPrintln("		  -> stored location: "+this.location);
 		}
 
+		// Build the profile template from the first page of the scenario if necessary
+		if (this.newProfile) {
+			BrowserProfileTemplate.buildInBackground(pageLocation);
+		}
+
 		// Get current location
+		this.requestBlocker.resetPageCount();
+		this.serverErrorDetector.clear();
 		this.driver.get(pageLocation);
+		storeOrigin(pageLocation);
 
 		// Hack to bypass the Navigation Error page
 		if (isInternetExplorer()) {
 			acceptInternetExplorerCertificate();
 		}
 
-		// Purge alerts if necessary
+		// Purge alerts if necessary (no-op when alerts are watched and none is open)
 		purgeAlerts("Alerts observed when getting page "+pageLocation);
 
 		// Wait 2 seconds that browser URL changes (only if not in login operation)
@@ -1235,6 +1428,31 @@ public Actions getActions() {
 //	get(newPage.location);
 //}
 
+/**
+ * Return the WebDriver BiDi session of the browser.
+ * <p>
+ * The session is only available when the driver was started with BiDi enabled
+ * (i.e. with the <code>webSocketUrl</code> capability).
+ * </p>
+ * @return The session as a {@link BiDi} or <code>null</code> if the browser does not support it.
+ */
+public synchronized BiDi getBiDi() {
+	if (this.bidi == null && this.driver instanceof HasBiDi) {
+		this.bidi = ((HasBiDi) this.driver).maybeGetBiDi().orElse(null);
+	}
+	return this.bidi;
+}
+
+/**
+ * Return the number of requests blocked since the last page get.
+ *
+ * @return The number of blocked requests, 0 if requests are not blocked
+ * @see #setRequestBlocking(boolean)
+ */
+public int getBlockedRequestsCount() {
+	return this.requestBlocker.getPageCount();
+}
+
 /**
  * Returns the element that currently has focus within the document currently "switched to"
  * or the body element if no element with focus can be detected. This matches the semantics of calling
@@ -1286,6 +1504,25 @@ public String getCurrentUrl() {
 	return this.url = this.driver.getCurrentUrl();
 }
 
+/**
+ * Return the DevTools session of the browser.
+ * <p>
+ * Contrary to {@link #executeCdpCommand(String, Map)}, this session allows to listen
+ * to DevTools events. It's only available for local Chromium based browsers.
+ * </p>
+ * @return The session as a {@link DevTools} or <code>null</code> if the browser does not support it.
+ */
+public synchronized DevTools getDevTools() {
+	if (this.devTools == null && this.driver instanceof HasDevTools) {
+		DevTools driverDevTools = ((HasDevTools) this.driver).maybeGetDevTools().orElse(null);
+		if (driverDevTools != null) {
+			driverDevTools.createSessionIfThereIsNotOne();
+			this.devTools = driverDevTools;
+		}
+	}
+	return this.devTools;
+}
+
 /**
  * Get the path of the default download directory.
  *
@@ -1342,6 +1579,17 @@ public BrowserFrame getFrame() {
 	return this.frame;
 }
 
+/**
+ * Return the number of uncaught JavaScript exceptions which occurred since the
+ * test started or since the last flush of the console messages.
+ *
+ * @return The number of exceptions, 0 if console messages are not recorded
+ * @see #flushConsoleMessages()
+ */
+public int getJavaScriptExceptionsCount() {
+	return this.consoleRecorder.getExceptionsCount();
+}
+
 private JavascriptExecutor getJavascriptExecutor() {
 	return (JavascriptExecutor) this.driver;
 }
@@ -1424,7 +1672,7 @@ private BrowserElement getVisibleFrame(final int retries) throws ScenarioFailedE
 				throw new ScenarioFailedError("There are several visible frame!!!");
 			}
 			visibleFrameElement = frameElement;
-			debugPrintln("		  -> visible frame: "+frameElement);
+			debugPrintln(() -> "		  -> visible frame: "+frameElement);
 		}
 		lastFrameElement = frameElement;
 	}
@@ -1435,7 +1683,7 @@ private BrowserElement getVisibleFrame(final int retries) throws ScenarioFailedE
 		if (retries > 10) {
 			throw new ScenarioFailedError("No visible frame found.");
 		}
-		debugPrintln("		  -> retry after having waited 1 seconds ("+retries+")");
+		debugPrintln(() -> "		  -> retry after having waited 1 seconds ("+retries+")");
 		sleep(1);
 		return getVisibleFrame(retries+1);
 	}
@@ -1444,7 +1692,7 @@ private BrowserElement getVisibleFrame(final int retries) throws ScenarioFailedE
 	if (visibleFrameElement != lastFrameElement) {
 		debugPrintln("		  -> last frame was not visible.");
 		if (retries < 2) {
-			debugPrintln("		  -> retry after having waited 1 seconds ("+retries+")");
+			debugPrintln(() -> "		  -> retry after having waited 1 seconds ("+retries+")");
 			sleep(1);
 			return getVisibleFrame(retries+1);
 		}
@@ -1580,6 +1828,18 @@ public boolean isBrowser(final BrowserType type) {
 	return this.browserType.equals(type);
 }
 
+/**
+ * Specifies whether the current browser supports the Chrome DevTools Protocol.
+ * <p>
+ * That's the case for local Chromium based browsers.
+ * </p>
+ * @return <code>true</code> if DevTools commands can be executed or <code>false</code> otherwise.
+ * @see #executeCdpCommand(String, Map)
+ */
+public boolean isCdpSupported() {
+	return this.driver instanceof HasCdp;
+}
+
 /**
  * Specifies whether the current browser is Chrome or not.
  *
@@ -1704,15 +1964,41 @@ public boolean newSessionPerUser() {
 
 /**
  * Purge the given alert by accepting them before executing the given action.
- *
+ * <p>
+ * When alerts are watched (see {@link AlertWatcher}), the driver is only asked
+ * for the alert if one is currently open.
+ * </p>
  * @return <code>true</code> if an alert was actually purged, <code>false</code>
  * if no alert was present.
  */
 public boolean purgeAlert(final String action, final int count) {
+	return purgeAlert(action, count, false /*alertOpen*/);
+}
+
+/**
+ * Purge the given alert by accepting them before executing the given action.
+ * <p>
+ * When alerts are watched (see {@link AlertWatcher}), the driver is only asked
+ * for the alert if one is currently open or if the caller knows there's one,
+ * e.g. when handling an {@link UnhandledAlertException}. Dialogs opened in other
+ * windows than the initial one are not watched.
+ * </p>
+ * @param action The action message
+ * @param count The number of alerts already purged for the action
+ * @param alertOpen Tells whether an alert is known to be open
+ * @return <code>true</code> if an alert was actually purged, <code>false</code>
+ * if no alert was present.
+ */
+public boolean purgeAlert(final String action, final int count, final boolean alertOpen) {
 	if (count > 10) {
 		throw new ScenarioFailedError("Too many unexpected alerts, give up!");
 	}
 
+	// No need to ask the driver when alerts are watched and none is open
+	if (!alertOpen && this.alertWatcher.isWatching() && this.alertWatcher.getOpenAlertsCount() == 0) {
+		return false;
+	}
+
 	// Get a handle to the open alert, prompt or confirmation
 	Alert alert;
 	try {
@@ -1760,8 +2046,19 @@ public boolean purgeAlert(final String action, final int count) {
  * @param action The action message
  */
 public int purgeAlerts(final String action) {
+	return purgeAlerts(action, false /*alertOpen*/);
+}
+
+/**
+ * Purge alerts by accepting them before executing the given action.
+ *
+ * @param action The action message
+ * @param alertOpen Tells whether an alert is known to be open, the driver is then
+ * asked for alerts even if none was notified (see {@link #purgeAlert(String, int, boolean)})
+ */
+public int purgeAlerts(final String action, final boolean alertOpen) {
 	int n=1;
-	while (purgeAlert(action, n)) {
+	while (purgeAlert(action, n, alertOpen)) {
 		if (++n > 10) {
 			throw new ScenarioFailedError("Too many unexpected alerts, give up!");
 		}
@@ -2057,6 +2354,18 @@ void setCurrentFrame(final BrowserFrame newFrame) {
 	}
 }
 
+/**
+ * Switch the third-party requests blocking on or off.
+ * <p>
+ * Blocked requests are defined by the <code>blockedUrls</code> parameter,
+ * see {@link RequestBlocker}.
+ * </p>
+ * @param block <code>true</code> to block requests, <code>false</code> to let them go
+ */
+public void setRequestBlocking(final boolean block) {
+	this.requestBlocker.setEnabled(block);
+}
+
 /**
  * Set the browser window size.
  *
@@ -2107,6 +2416,126 @@ public void shiftClick(final BrowserElement destination) {
 		.perform();
 }
 
+/**
+ * Reset the browser session in place to get back to a clean state.
+ * <p>
+ * That's much faster than closing the browser and opening a new one as it only
+ * uses DevTools commands to:
+ * <ul>
+ * <li>close all windows except the main one,</li>
+ * <li>clear cookies and cache,</li>
+ * <li>clear storage (local storage, indexed DB, cache storage, service workers...)
+ * of all origins opened in the browser, i.e. the origins of all documents loaded since
+ * the previous reset and of all windows, frames and workers still alive,</li>
+ * <li>reset the device metrics and geolocation emulation.</li>
+ * </ul>
+ * </p><p>
+ * The browser is then left on a blank page and checked to be responsive.
+ * </p><p>
+ * The soft reset can be disabled with the <code>browserSoftReset</code> parameter.
+ * </p>
+ * @return <code>true</code> if the session has been successfully reset, <code>false</code>
+ * if it's not supported by the browser or if it failed. In the latter case, the browser
+ * needs to be restarted to get a clean state.
+ */
+@SuppressWarnings("unchecked")
+public boolean softReset() {
+	if (!BROWSER_SOFT_RESET || !isCdpSupported()) return false;
+	if (DEBUG) debugPrintln("		+ Soft reset of browser session.");
+	try {
+		// Store the origins of the windows, frames and workers still alive
+		for (Map<String, Object> targetInfo: (List<Map<String, Object>>) executeCdpCommand("Target.getTargets", Collections.emptyMap()).get("targetInfos")) {
+			storeOrigin((String) targetInfo.get("url"));
+		}
+
+		// Close all windows but the main one
+		for (String handle: this.driver.getWindowHandles()) {
+			if (!handle.equals(this.mainWindowHandle)) {
+				if (DEBUG) debugPrintln("		  -> close window handle "+handle);
+				this.driver.switchTo().window(handle);
+				this.driver.close();
+			}
+		}
+		this.driver.switchTo().window(this.mainWindowHandle);
+
+		// Session storage is only available from the page itself
+		try {
+			executeScript("window.sessionStorage.clear();");
+		}
+		catch (WebDriverException wde) {
+			// The current page might have no storage access, skip
+		}
+		this.driver.get(BLANK_PAGE);
+		this.location = BLANK_PAGE;
+
+		// Clear browser data
+		Map<String, Object> noParameters = Collections.emptyMap();
+		executeCdpCommand("Network.clearBrowserCookies", noParameters);
+		executeCdpCommand("Network.clearBrowserCache", noParameters);
+		List<String> origins;
+		synchronized (this.openedOrigins) {
+			origins = new ArrayList<String>(this.openedOrigins);
+			this.openedOrigins.clear();
+		}
+		for (String origin: origins) {
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put("origin", origin);
+			parameters.put("storageTypes", "all");
+			executeCdpCommand("Storage.clearDataForOrigin", parameters);
+		}
+		for (String command: EMULATION_RESET_COMMANDS) {
+			executeCdpCommand(command, noParameters);
+		}
+
+		// Health probe
+		if (this.driver.getWindowHandles().size() != 1 || !"complete".equals(executeScript("return document.readyState;"))) {
+			println("WARNING: Browser is not in expected state after soft reset.");
+			return false;
+		}
+		initWindow();
+		return true;
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot soft reset browser session: " + wde.getMessage());
+		return false;
+	}
+}
+
+/*
+ * Store the origin of each document loaded in the browser, including the ones reached
+ * through links, redirects or frames, as only the origins opened through get() would
+ * be known otherwise.
+ */
+@SuppressWarnings("unchecked")
+private void followOrigins() {
+	try {
+		DevTools devTools = getDevTools();
+		if (devTools == null) return;
+		devTools.addListener(new Event<Map<String, Object>>("Network.requestWillBeSent", input -> input.read(Json.MAP_TYPE)), params -> {
+			if ("Document".equals(params.get("type"))) {
+				storeOrigin((String) ((Map<String, Object>) params.get("request")).get("url"));
+			}
+		});
+		devTools.send(new Command<Void>("Network.enable", Collections.emptyMap()));
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot follow the origins opened in the browser, only the storage of the got pages will be cleared on soft reset: " + wde.getMessage());
+	}
+}
+
+private void storeOrigin(final String pageLocation) {
+	if (pageLocation == null) return;
+	try {
+		URI uri = new URI(pageLocation);
+		if (uri.getScheme() != null && uri.getScheme().startsWith("http") && uri.getHost() != null) {
+			this.openedOrigins.add(uri.getScheme() + "://" + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort()));
+		}
+	}
+	catch (URISyntaxException use) {
+		// Not a valid URI, no storage to clear for it
+	}
+}
+
 /**
  * Switch the focus to a given element by repeatedly sending the Tab key.
  *
@@ -2283,9 +2712,53 @@ public void switchToWindow(final String handle, final boolean close) throws NoSu
 	initWindow();
 }
 
+private static void releaseProfile(final String profile) {
+	if (profile != null) {
+		synchronized (PROFILES_IN_USE) {
+			PROFILES_IN_USE.remove(profile);
+			BrowserProfileTemplate.unlockProfile(profile);
+		}
+	}
+}
+
+/**
+ * Reserve the given profile for a new browser.
+ * <p>
+ * As a browser profile cannot be shared by several browser processes, a suffix
+ * is added to the profile path when it's already used by another living browser
+ * (e.g. a spare browser of the {@link BrowserPool} or a browser of a parallel execution)
+ * or locked by another execution (see {@link BrowserProfileTemplate#lockProfile(String)}).
+ * The caller is responsible for initializing the suffixed profile directory.
+ * </p>
+ */
+private static String reserveProfile(final String profile) {
+	if (profile == null) return null;
+	synchronized (PROFILES_IN_USE) {
+		String reservedProfile = profile;
+		for (int i = 1; PROFILES_IN_USE.contains(reservedProfile) || !BrowserProfileTemplate.lockProfile(reservedProfile); i++) {
+			reservedProfile = profile + "_" + i;
+		}
+		PROFILES_IN_USE.add(reservedProfile);
+		if (DEBUG && !reservedProfile.equals(profile)) debugPrintln("		+ Profile '" + profile + "' already in use, use '" + reservedProfile + "' instead.");
+		return reservedProfile;
+	}
+}
+
+/*
+ * Return the directory where the files of the given category are stored next
+ * to the snapshots, the snapshots directory itself in flat mode.
+ */
+File getSnapshotsDir(final String category) {
+	if (this.snapshotsRootDir == null) return null;
+	if (this.flatSnapshotsDir != null) return this.flatSnapshotsDir;
+	return FileUtil.createDir(this.snapshotsRootDir, category);
+}
+
 /**
  * Takes a snapshot of the given kind.
- *
+ * <p>
+ * The snapshot is stored according to the {@link SnapshotPolicy}.
+ * </p>
  * @param fileName The name of the snapshot.
  * @param kind Snapshot kind, can be:
  * <ul>
@@ -2293,8 +2766,10 @@ public void switchToWindow(final String handle, final boolean close) throws NoSu
  * <li>1: Snapshot for warnings</li>
  * <li>2: Snapshot for failures</li>
  * <ul>
+ * @param element The element to clip the snapshot to or <code>null</code>
+ * to take a snapshot of the whole window.
  */
-private void takeSnapshot(final String fileName, final int kind) {
+private void takeSnapshot(final String fileName, final int kind, final WebElement element) {
 
 	// Get snapshot dir
 	if (this.snapshotsRootDir == null) return;
@@ -2325,28 +2800,15 @@ private void takeSnapshot(final String fileName, final int kind) {
 		}
 	}
 
-	// Get destination file name
-	String destFileName = destFilePrefix + COMPACT_DATE_STRING + "_" + fileName + ".png";
-	File file = new File(currentSnapshotsDir, destFileName);
-	if (file.exists()) {
-		int idx = 1;
-		while (file.exists()) {
-			destFileName = COMPACT_DATE_STRING + "_" + fileName + (idx < 10 ? "_0" : "_") + idx + ".png";
-			file = new File(currentSnapshotsDir, destFileName);
-			idx++;
-		}
-	}
-
 	try {
 		// Take snapshot
-   	    File snapshotFile = ((TakesScreenshot)this.driver).getScreenshotAs(OutputType.FILE);
-	    try {
-	        File destFile = FileUtil.copyFile(snapshotFile, currentSnapshotsDir, destFileName);
-		    println("		  -> screenshot available at " + destFile.getAbsolutePath());
-        } catch (IOException e) {
-	        printException(e);
-		    println("		  -> cannot copy "+snapshotFile.getAbsolutePath()+" to "+currentSnapshotsDir+File.separator+destFileName+"!!!");
-        }
+		byte[] snapshot = element == null ? takeSnapshotBytes() : element.getScreenshotAs(OutputType.BYTES);
+
+		// Write it in background.
+		// The file name is made unique in memory as several browsers may take snapshots at the same time
+		File destFile = SnapshotWriter.getUniqueFile(currentSnapshotsDir, destFilePrefix + COMPACT_DATE_STRING + "_" + fileName, SnapshotPolicy.getExtension());
+		SnapshotWriter.write(snapshot, destFile, SNAPSHOT_CATEGORIES[kind]);
+		println("		  -> screenshot available at " + destFile.getAbsolutePath());
 	} catch (WebDriverException wde) {
 		// Catch if any Selenium exception occurs but which should not prevent
 		// BVT test to succeed at this stage...
@@ -2369,7 +2831,17 @@ public byte[] takeSnapshotBytes() {
  * @param fileName The name of the snapshot file.
  */
 public void takeSnapshotFailure(final String fileName) {
-	takeSnapshot(fileName, FAILURE_SNAPSHOT);
+	takeSnapshot(fileName, FAILURE_SNAPSHOT, null);
+}
+
+/**
+ * Takes a failure snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotFailure(final String fileName, final WebElement element) {
+	takeSnapshot(fileName, FAILURE_SNAPSHOT, element);
 }
 
 /**
@@ -2378,7 +2850,17 @@ public void takeSnapshotFailure(final String fileName) {
  * @param fileName The name of the snapshot file.
  */
 public void takeSnapshotInfo(final String fileName) {
-	takeSnapshot(fileName, INFO_SNAPSHOT);
+	takeSnapshot(fileName, INFO_SNAPSHOT, null);
+}
+
+/**
+ * Takes an information snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotInfo(final String fileName, final WebElement element) {
+	takeSnapshot(fileName, INFO_SNAPSHOT, element);
 }
 
 /**
@@ -2387,7 +2869,17 @@ public void takeSnapshotInfo(final String fileName) {
  * @param fileName The name of the snapshot file.
  */
 public void takeSnapshotWarning(final String fileName) {
-	takeSnapshot(fileName, WARNING_SNAPSHOT);
+	takeSnapshot(fileName, WARNING_SNAPSHOT, null);
+}
+
+/**
+ * Takes a warning snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotWarning(final String fileName, final WebElement element) {
+	takeSnapshot(fileName, WARNING_SNAPSHOT, element);
 }
 
 @Override
@@ -2459,9 +2951,11 @@ public void typeText(final BrowserElement element, final String text, final Keys
 }
 
 private void typeText(final BrowserElement element, final String text, final Keys key, final int keyDelay, final boolean clear, final int timeout, final IUser user) {
-	final String desiredText; String printedText;
+	final CharSequence desiredText; String printedText;
+	char[] password = null;
 	if (user != null) {
-		desiredText = user.getPassword();
+		password = user.getPasswordChars();
+		desiredText = password == null ? null : CharBuffer.wrap(password);
 		printedText = "password '******'";
 	}
 	else {
@@ -2480,7 +2974,11 @@ private void typeText(final BrowserElement element, final String text, final Key
 		currentText = element.getAttribute("value");
 	}
 
-	if(desiredText.equals(currentText)) {
+	boolean alreadyPresent = currentText != null && currentText.contentEquals(desiredText);
+	if (password != null) {
+		Arrays.fill(password, '\0');
+	}
+	if(alreadyPresent) {
 		if (DEBUG) debugPrintln("		+ The desired " + printedText + " was already present in the element and therefore, reused for this scenario");
 		return;
 	}
@@ -2882,6 +3380,9 @@ public List<BrowserElement> waitForElements(final BrowserElement parentElement,
 
 	// Timeout Loop until timeout is reached
 	while (System.currentTimeMillis() <= timeoutMillis) {
+		// Stop waiting if a request has failed on server side
+		if (fail) checkServerErrors();
+
 		// Find web driver elements or parent web element children elements
 		final List<WebElement> foundElements;
 		try {
@@ -3065,6 +3566,9 @@ public BrowserElement[] waitForMultipleElements(final BrowserElement parentEleme
 	while (System.currentTimeMillis() <= timeoutMillis) {
 		boolean found = false;
 
+		// Stop waiting if a request has failed on server side
+		if (fail) checkServerErrors();
+
 		// For each specified find locator
 		for (int i=0; i<length; i++) {
 
@@ -3253,6 +3757,24 @@ public BrowserElement[] waitForMultipleElements(final int timeout, final By... l
 	return waitForMultipleElements(null /*parentElement*/, locators, timeout, true /*fail*/, null /*displayFlags*/);
 }
 
+/**
+ * Wait until the browser has ended its navigations, as notified by the
+ * WebDriver BiDi events.
+ * <p>
+ * This is a no-op returning <code>false</code> when the BiDi transport is not
+ * used (see {@link BiDiTransport}).
+ * </p><p>
+ * Only the navigations of the current window are followed, the wait being bounded
+ * by the <code>bidiNavigationTimeout</code> parameter.
+ * </p>
+ * @param timeout The maximum time to wait in seconds
+ * @return <code>true</code> if no navigation is in progress, <code>false</code>
+ * if navigations are not followed or if the timeout has been reached
+ */
+public boolean waitForNavigationsEnd(final int timeout) {
+	return this.bidiTransport.waitForNavigationsEnd(this.driver.getWindowHandle(), timeout);
+}
+
 /**
  * Wait for a popup window to be opened and/or closed.
  * <p>
@@ -3367,6 +3889,9 @@ public String waitForText(final BrowserElement element, final boolean fail, fina
 
 	while (System.currentTimeMillis() <= timeoutMillis) {
 
+		// Stop waiting if a request has failed on server side
+		if (fail) checkServerErrors();
+
 		// Get element text
 		final String elementText = element.getText();
 
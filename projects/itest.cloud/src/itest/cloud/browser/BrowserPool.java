@@ -0,0 +1,176 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import itest.cloud.config.Config;
+import itest.cloud.scenario.ScenarioStartup;
+
+/**
+ * Manage a pool of warm browsers.
+ * <p>
+ * When the {@link #BROWSER_POOL_SIZE_ID} parameter is set, the pool keeps the given
+ * number of spare browsers started in background (driver service and browser process
+ * included). Then, each time a new browser is needed, e.g. when restarting the browser
+ * session to recover from a failure (see {@link Config#openNewBrowser()}), an already
+ * initialized browser is handed over instead of paying the full cold start cost.
+ * The pool is immediately refilled in background.
+ * </p><p>
+ * Spare browsers are checked before being handed over and replaced if they do not respond
+ * anymore. They are all closed when the scenario ends (see {@link #shutdown()}) or
+ * when the JVM exits.
+ * </p><p>
+ * When the parameter is not set, {@link #acquire()} simply creates a new browser.
+ * </p>
+ */
+public class BrowserPool {
+
+	// Parameters
+	final static String BROWSER_POOL_SIZE_ID = "browserPoolSize";
+	private final static int BROWSER_POOL_SIZE = getParameterIntValue(BROWSER_POOL_SIZE_ID, 0);
+	private final static int WARM_UP_TIMEOUT = getParameterIntValue("browserPoolWarmUpTimeout", 120);
+
+	// Delay between two checks of the pending browsers while waiting for a spare one
+	private final static long WAIT_SLICE = 500;
+
+	// Pool
+	private final static LinkedBlockingQueue<Browser> SPARE_BROWSERS = new LinkedBlockingQueue<Browser>();
+	private final static AtomicInteger PENDING_BROWSERS = new AtomicInteger();
+	private static ExecutorService WARMER;
+
+	static {
+		if (BROWSER_POOL_SIZE > 0) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(), "browser-pool-shutdown"));
+		}
+	}
+
+/**
+ * Acquire a browser.
+ * <p>
+ * If the pool is enabled, a spare browser is returned if one is available or is being
+ * started. Otherwise a new browser is created.
+ * </p>
+ * @return The browser as a {@link Browser}
+ */
+public static Browser acquire() {
+	if (BROWSER_POOL_SIZE <= 0) {
+		return Browser.createInstance();
+	}
+	Browser browser = SPARE_BROWSERS.poll();
+	if (browser == null && PENDING_BROWSERS.get() > 0) {
+		// A browser is being started, it would be ready before a new one.
+		// Stop waiting as soon as no browser is pending anymore, e.g. when the warm-up
+		// failed or when the spare browser was taken by another caller.
+		if (DEBUG) debugPrintln("		+ Wait for a spare browser being started...");
+		long timeoutMillis = WARM_UP_TIMEOUT * 1000 + System.currentTimeMillis();
+		try {
+			while (browser == null && PENDING_BROWSERS.get() > 0 && System.currentTimeMillis() < timeoutMillis) {
+				browser = SPARE_BROWSERS.poll(WAIT_SLICE, TimeUnit.MILLISECONDS);
+			}
+			if (browser == null) {
+				// The browser may have been added right before the pending count dropped
+				browser = SPARE_BROWSERS.poll();
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	if (browser != null && !isAlive(browser)) {
+		println("WARNING: Spare browser does not respond anymore, a new one is created instead.");
+		closeQuietly(browser);
+		browser = null;
+	}
+	if (browser == null) {
+		browser = Browser.createInstance();
+	} else if (DEBUG) {
+		debugPrintln("		+ Use spare browser from the pool.");
+	}
+	refill();
+	return browser;
+}
+
+private static void closeQuietly(final Browser browser) {
+	try {
+		browser.close();
+	}
+	catch (Exception ex) {
+		if (DEBUG) debugPrintln("		+ Exception '" + ex.getMessage() + "' skipped while closing spare browser.");
+	}
+}
+
+private static boolean isAlive(final Browser browser) {
+	try {
+		browser.getDriver().getWindowHandle();
+		return true;
+	}
+	catch (Exception ex) {
+		return false;
+	}
+}
+
+private static synchronized void refill() {
+	if (WARMER == null) {
+		WARMER = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "browser-pool-warmer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	while (SPARE_BROWSERS.size() + PENDING_BROWSERS.get() < BROWSER_POOL_SIZE) {
+		PENDING_BROWSERS.incrementAndGet();
+		WARMER.submit(() -> {
+			try {
+				ScenarioStartup.ignoreCurrentThread();
+				long start = System.currentTimeMillis();
+				SPARE_BROWSERS.add(Browser.createInstance());
+				if (DEBUG) debugPrintln("		+ Spare browser started in " + elapsedTimeString(start));
+			}
+			catch (Throwable t) {
+				println("WARNING: Cannot start a spare browser: " + t.getMessage());
+			}
+			finally {
+				PENDING_BROWSERS.decrementAndGet();
+			}
+		});
+	}
+}
+
+/**
+ * Close all the spare browsers and stop the pool.
+ */
+public static synchronized void shutdown() {
+	if (WARMER != null) {
+		WARMER.shutdownNow();
+		try {
+			WARMER.awaitTermination(WARM_UP_TIMEOUT, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		WARMER = null;
+	}
+	List<Browser> browsers = new ArrayList<Browser>();
+	SPARE_BROWSERS.drainTo(browsers);
+	for (Browser browser: browsers) {
+		closeQuietly(browser);
+	}
+}
+}
@@ -0,0 +1,377 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import itest.cloud.scenario.ScenarioStartup;
+
+/**
+ * Manage the browser profiles created in the profiles container.
+ * <p>
+ * When the <code>browserProfileContainer</code> parameter is set, each browser gets a new
+ * profile directory which the browser has to populate on its first start (caches, components,
+ * first run state, etc.). To avoid this cost on each run, a template profile can be set using
+ * the {@link #TEMPLATE_ID} parameter:
+ * <ul>
+ * <li>if the template does not exist yet, it's built once in background from the profile
+ * of a dedicated browser which loads the first page of the scenario and is closed,</li>
+ * <li>if it exists, it's copied into each new profile directory before the browser starts.</li>
+ * </ul>
+ * </p><p>
+ * Cookies, storages, sessions and saved credentials are never copied, neither when building
+ * the template nor when copying it, so that each profile starts without any user state.
+ * </p><p>
+ * Each profile used by a browser is locked with a <code>.lock</code> file next to it
+ * (see {@link #lockProfile(String)}), hence executions sharing the same container never
+ * use nor delete the profile of another one. Profile directories which are not locked and
+ * older than the {@link #MAX_AGE_ID} parameter (in hours, default is 24) are deleted from
+ * the container in background.
+ * </p>
+ */
+public class BrowserProfileTemplate {
+
+	// Parameters
+	final static String TEMPLATE_ID = "browserProfileTemplate";
+	final static String MAX_AGE_ID = "browserProfileMaxAge";
+	private final static String TEMPLATE = getParameterValue(TEMPLATE_ID);
+	private final static int MAX_AGE = getParameterIntValue(MAX_AGE_ID, 24);
+
+	// File telling that the template has been fully built
+	private final static String TEMPLATE_MARKER = ".itest-template";
+
+	// Files which are only valid for a running browser process
+	private final static Set<String> LOCK_FILES = new HashSet<String>(Arrays.asList(
+		"SingletonLock", "SingletonCookie", "SingletonSocket", "lockfile", "lock", "parent.lock", ".parentlock"));
+
+	// Files and directories holding the user state (cookies, storages, sessions, credentials)
+	private final static Set<String> STATE_FILES = new HashSet<String>(Arrays.asList(
+		"Cookies", "Cookies-journal", "Local Storage", "Session Storage", "IndexedDB", "Service Worker",
+		"Sessions", "Current Session", "Current Tabs", "Last Session", "Last Tabs", "Login Data",
+		"Login Data-journal", "Web Data", "Web Data-journal", "History", "History-journal", "Shared Dictionary",
+		"cookies.sqlite", "cookies.sqlite-wal", "webappsstore.sqlite", "storage", "sessionstore.jsonlz4",
+		"sessionstore-backups", "logins.json", "key4.db", "places.sqlite", "formhistory.sqlite"));
+
+	// Profile directories names, see Browser constructor
+	private final static Pattern PROFILE_NAME = Pattern.compile("\\d+(_\\d+)?");
+
+	// Extension of the profiles lock files
+	private final static String LOCK_EXTENSION = ".lock";
+
+	// Containers already cleaned
+	private final static Set<String> CLEANED_CONTAINERS = new HashSet<String>();
+
+	// Locks of the profiles used by this execution
+	private final static Map<String, FileLock> PROFILE_LOCKS = new HashMap<String, FileLock>();
+
+	// Thread building the template
+	private static Thread BUILDER;
+
+/*
+ * Build the template from the given profile if it does not exist yet.
+ * The profile has to be no longer used by a browser process. The template is
+ * built in a temporary directory first, hence parallel executions never see
+ * a partial template.
+ */
+private static void buildFrom(final String profile) {
+	Path template = Paths.get(TEMPLATE).toAbsolutePath();
+	Path source = Paths.get(profile);
+	if (isBuilt(template) || !Files.isDirectory(source)) return;
+	Path tempDir = template.resolveSibling(template.getFileName() + "." + System.currentTimeMillis() + ".tmp");
+	try {
+		copyDir(source, tempDir, false /*keepState*/);
+		Files.createFile(tempDir.resolve(TEMPLATE_MARKER));
+		if (Files.exists(template)) {
+			deleteDir(template);
+		}
+		Files.move(tempDir, template, StandardCopyOption.ATOMIC_MOVE);
+		println("Browser profile template built at " + template);
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot build browser profile template " + template + ": " + ioe.getMessage());
+		try {
+			if (Files.exists(tempDir)) deleteDir(tempDir);
+		}
+		catch (IOException ex) {
+			// Give up, the directory will be overwritten by a next build
+		}
+	}
+}
+
+/**
+ * Build the template in background if it does not exist yet.
+ * <p>
+ * A dedicated browser is started, loads the given page and is closed, so that the
+ * template holds what the browser initializes on its first start and the caches filled
+ * by the first page of the scenario. The template is built once per execution at most.
+ * </p>
+ * @param location The first page location loaded by the scenario
+ */
+static synchronized void buildInBackground(final String location) {
+	if (TEMPLATE == null || BUILDER != null || isBuilt(Paths.get(TEMPLATE).toAbsolutePath())) return;
+	BUILDER = new Thread(() -> {
+		try {
+			ScenarioStartup.ignoreCurrentThread();
+			Browser browser = Browser.createInstance();
+			String profile = browser.profile;
+			try {
+				browser.getDriver().get(location);
+			}
+			finally {
+				browser.close();
+			}
+			if (profile != null) {
+				buildFrom(profile);
+				deleteDir(Paths.get(profile));
+			}
+		}
+		catch (Throwable t) {
+			println("WARNING: Cannot build browser profile template: " + t.getMessage());
+		}
+	}, "browser-profile-template");
+	BUILDER.setDaemon(true);
+	BUILDER.start();
+}
+
+/*
+ * Copy the given directory recursively.
+ * The user state files are skipped unless they have to be kept.
+ */
+private static void copyDir(final Path source, final Path target, final boolean keepState) throws IOException {
+	Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+		@Override
+		public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException {
+			if (!keepState && !dir.equals(source) && STATE_FILES.contains(dir.getFileName().toString())) {
+				return FileVisitResult.SKIP_SUBTREE;
+			}
+			Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+			return FileVisitResult.CONTINUE;
+		}
+		@Override
+		public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+			String name = file.getFileName().toString();
+			if (LOCK_FILES.contains(name) || (!keepState && STATE_FILES.contains(name)) || name.equals(TEMPLATE_MARKER) || attrs.isSymbolicLink()) {
+				return FileVisitResult.CONTINUE;
+			}
+			Path targetFile = target.resolve(source.relativize(file).toString());
+			Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+			return FileVisitResult.CONTINUE;
+		}
+		@Override
+		public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+			// Files locked or removed by a running browser are not necessary
+			if (DEBUG) debugPrintln("		+ Cannot copy profile file " + file + ": " + exc.getMessage());
+			return FileVisitResult.CONTINUE;
+		}
+	});
+}
+
+/**
+ * Copy the given profile into the given directory, including the user state.
+ * <p>
+ * This is used when a configured profile is already used by another browser, the
+ * target directory is then replaced by a full copy of the profile, only the lock
+ * files being skipped.
+ * </p>
+ * @param profile The profile directory path
+ * @param target The directory path to copy the profile to
+ * @throws IOException If the profile cannot be copied
+ */
+static void copyProfile(final String profile, final String target) throws IOException {
+	Path targetDir = Paths.get(target);
+	if (Files.exists(targetDir)) {
+		deleteDir(targetDir);
+	}
+	if (!Files.isDirectory(Paths.get(profile))) return;
+	long start = System.nanoTime();
+	copyDir(Paths.get(profile), targetDir, true /*keepState*/);
+	if (DEBUG) debugPrintln("		+ Browser profile " + profile + " copied to " + target + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+}
+
+/**
+ * Delete old profile directories from the given container in background.
+ * <p>
+ * Only directories named as the browser creates them, i.e. with a time stamp,
+ * are deleted, provided that they are not locked by a browser of any execution
+ * (see {@link #lockProfile(String)}). Each container is cleaned once per execution.
+ * </p>
+ * @param container The profiles container
+ */
+static void cleanContainer(final String container) {
+	if (MAX_AGE <= 0) return;
+	File containerDir = new File(container).getAbsoluteFile();
+	synchronized (CLEANED_CONTAINERS) {
+		if (!CLEANED_CONTAINERS.add(containerDir.getPath())) return;
+	}
+	Thread cleaner = new Thread(() -> {
+		File[] dirs = containerDir.listFiles(file -> file.isDirectory() && PROFILE_NAME.matcher(file.getName()).matches());
+		if (dirs == null) return;
+		long limit = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(MAX_AGE);
+		for (File dir: dirs) {
+			String profile = dir.getPath();
+			if (dir.lastModified() >= limit || !lockProfile(profile)) continue;
+			// Without lock file, the profile might be used by another execution
+			if (!isLocked(profile)) continue;
+			try {
+				deleteDir(dir.toPath());
+				if (DEBUG) debugPrintln("		+ Old browser profile " + dir + " deleted.");
+			}
+			catch (IOException ioe) {
+				println("WARNING: Cannot delete old browser profile " + dir + ": " + ioe.getMessage());
+			}
+			finally {
+				unlockProfile(profile);
+			}
+			try {
+				Files.deleteIfExists(Paths.get(profile + LOCK_EXTENSION));
+			}
+			catch (IOException ioe) {
+				// Give up, an orphan lock file is harmless
+			}
+		}
+	}, "browser-profile-cleaner");
+	cleaner.setDaemon(true);
+	cleaner.start();
+}
+
+private static void deleteDir(final Path dir) throws IOException {
+	Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+		@Override
+		public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+			Files.deleteIfExists(file);
+			return FileVisitResult.CONTINUE;
+		}
+		@Override
+		public FileVisitResult postVisitDirectory(final Path subDir, final IOException exc) throws IOException {
+			Files.deleteIfExists(subDir);
+			return FileVisitResult.CONTINUE;
+		}
+	});
+}
+
+/**
+ * Tells whether a template profile has been set.
+ *
+ * @return <code>true</code> if the {@link #TEMPLATE_ID} parameter is set, <code>false</code> otherwise.
+ */
+static boolean isDefined() {
+	return TEMPLATE != null;
+}
+
+private static boolean isLocked(final String profile) {
+	synchronized (PROFILE_LOCKS) {
+		return PROFILE_LOCKS.containsKey(profile);
+	}
+}
+
+private static boolean isBuilt(final Path template) {
+	return Files.exists(template.resolve(TEMPLATE_MARKER));
+}
+
+/**
+ * Lock the given profile for the current execution.
+ * <p>
+ * The lock is taken on a <code>.lock</code> file next to the profile directory, hence it's
+ * seen by all the executions sharing the profile, and it's released by the system if the
+ * execution dies. When the lock file cannot be created, the profile is considered as free.
+ * </p>
+ * @param profile The profile directory path
+ * @return <code>true</code> if the profile has been locked, <code>false</code> if it's
+ * already locked by this execution or by another one.
+ */
+static boolean lockProfile(final String profile) {
+	synchronized (PROFILE_LOCKS) {
+		if (PROFILE_LOCKS.containsKey(profile)) return false;
+		Path lockFile = Paths.get(profile + LOCK_EXTENSION);
+		FileChannel channel = null;
+		try {
+			Path parentDir = lockFile.toAbsolutePath().getParent();
+			if (parentDir != null) Files.createDirectories(parentDir);
+			channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock lock = channel.tryLock();
+			if (lock == null) {
+				channel.close();
+				if (DEBUG) debugPrintln("		+ Browser profile " + profile + " is locked by another execution.");
+				return false;
+			}
+			PROFILE_LOCKS.put(profile, lock);
+			return true;
+		}
+		catch (IOException | OverlappingFileLockException ex) {
+			if (channel != null) {
+				try {
+					channel.close();
+				}
+				catch (IOException ioe) {
+					// Ignore, the channel is not used
+				}
+			}
+			if (ex instanceof OverlappingFileLockException) return false;
+			if (DEBUG) debugPrintln("		+ Cannot lock browser profile " + profile + ": " + ex.getMessage());
+			return true;
+		}
+	}
+}
+
+/**
+ * Unlock the given profile.
+ * <p>
+ * Nothing happens if the profile has not been locked by this execution.
+ * </p>
+ * @param profile The profile directory path
+ */
+static void unlockProfile(final String profile) {
+	synchronized (PROFILE_LOCKS) {
+		FileLock lock = PROFILE_LOCKS.remove(profile);
+		if (lock == null) return;
+		try {
+			// Lock file is kept as another execution might have already opened it
+			lock.channel().close();
+		}
+		catch (IOException ioe) {
+			if (DEBUG) debugPrintln("		+ Cannot unlock browser profile " + profile + ": " + ioe.getMessage());
+		}
+	}
+}
+
+/**
+ * Initialize the given new profile directory from the template.
+ * <p>
+ * Nothing happens if there's no template or if it has not been built yet.
+ * </p>
+ * @param profile The profile directory path
+ */
+static void copyTo(final String profile) {
+	if (TEMPLATE == null) return;
+	Path template = Paths.get(TEMPLATE).toAbsolutePath();
+	if (!isBuilt(template)) return;
+	long start = System.nanoTime();
+	try {
+		copyDir(template, Paths.get(profile), false /*keepState*/);
+		if (DEBUG) debugPrintln("		+ Browser profile " + profile + " copied from template " + template + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot copy browser profile template " + template + " to " + profile + ": " + ioe.getMessage());
+	}
+}
+}
@@ -0,0 +1,311 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import itest.cloud.config.User;
+import itest.cloud.topology.Application;
+import itest.cloud.util.EncryptionUtil;
+
+/**
+ * Manage the cache of authenticated browser sessions.
+ * <p>
+ * After a successful login, the cookies and the local storage of the browser are
+ * captured (see {@link #capture(Browser, User, Application)}) and stored for the
+ * user and the application server. Then, when the same user needs to login again
+ * to the same server in a new browser session, the captured session is restored
+ * (see {@link #restore(Browser, User, Application, String)}) instead of going through the
+ * whole login flow. The caller is responsible to check that the restored session
+ * is still valid and to call {@link #invalidate(User, Application)} otherwise.
+ * </p><p>
+ * On Chromium based browsers, cookies of all domains are captured and restored
+ * (e.g. single sign-on cookies set by the identity provider), otherwise only the
+ * cookies of the application domain are.
+ * </p><p>
+ * The cache is kept in memory and, if the <code>sessionCacheFile</code> parameter is set,
+ * in the given file encrypted with the {@link EncryptionUtil} key, so that it can be
+ * shared with following runs.
+ * </p><p>
+ * Following parameters are available:
+ * <ul>
+ * <li><code>sessionCache</code>: whether sessions are cached (default is <code>false</code>).</li>
+ * <li><code>sessionCacheFile</code>: the file where sessions are stored (default is none).</li>
+ * <li><code>sessionCacheMaxAge</code>: the maximum age in minutes of a cached session
+ * (default is 60 minutes).</li>
+ * </ul>
+ * </p>
+ */
+public class BrowserSessionCache {
+
+	// Parameters
+	private final static boolean SESSION_CACHE = getParameterBooleanValue("sessionCache", false);
+	private final static String SESSION_CACHE_FILE = getParameterValue("sessionCacheFile");
+	private final static long SESSION_CACHE_MAX_AGE = getParameterIntValue("sessionCacheMaxAge", 60) * 60000L;
+
+	// JSON keys
+	private final static String TIME_KEY = "time";
+	private final static String COOKIES_KEY = "cookies";
+	private final static String LOCAL_STORAGE_KEY = "localStorage";
+	private final static String[] COOKIE_PROPERTIES = { "name", "value", "domain", "path", "secure", "httpOnly", "sameSite", "expires" };
+
+	// Scripts
+	private final static String GET_LOCAL_STORAGE_SCRIPT =
+		"var items = {}; for (var i = 0; i < window.localStorage.length; i++) { var key = window.localStorage.key(i); items[key] = window.localStorage.getItem(key); } return items;";
+	private final static String SET_LOCAL_STORAGE_SCRIPT =
+		"var items = arguments[0]; for (var key in items) { window.localStorage.setItem(key, items[key]); }";
+
+	// Cached sessions
+	private final static Map<String, Map<String, Object>> SESSIONS = new HashMap<String, Map<String, Object>>();
+	private static boolean FILE_READ = false;
+
+/**
+ * Capture the current browser session of the given user logged in the given application.
+ *
+ * @param browser The browser where the user has just logged in
+ * @param user The logged user
+ * @param application The application where the user is logged in
+ */
+@SuppressWarnings("unchecked")
+public static void capture(final Browser browser, final User user, final Application application) {
+	if (!SESSION_CACHE) return;
+	try {
+		// Get cookies
+		List<Object> cookies;
+		if (browser.isCdpSupported()) {
+			cookies = new ArrayList<Object>();
+			for (Object cookie: (List<Object>) browser.executeCdpCommand("Network.getAllCookies", Collections.emptyMap()).get(COOKIES_KEY)) {
+				cookies.add(toCookieParameter((Map<String, Object>) cookie));
+			}
+		} else {
+			cookies = new ArrayList<Object>();
+			for (Cookie cookie: browser.getDriver().manage().getCookies()) {
+				cookies.add(toCdpCookie(cookie));
+			}
+		}
+
+		// Get local storage when the browser is on the application
+		Object localStorage = null;
+		if (isOnApplication(browser, application)) {
+			localStorage = browser.executeScript(GET_LOCAL_STORAGE_SCRIPT);
+		}
+
+		Map<String, Object> session = new LinkedHashMap<String, Object>();
+		session.put(TIME_KEY, Long.valueOf(System.currentTimeMillis()));
+		session.put(COOKIES_KEY, cookies);
+		session.put(LOCAL_STORAGE_KEY, localStorage == null ? Collections.emptyMap() : localStorage);
+		synchronized (SESSIONS) {
+			readFile();
+			SESSIONS.put(getKey(user, application), session);
+			writeFile();
+		}
+		if (DEBUG) debugPrintln("		+ Captured session of user '" + user.getId() + "' for " + application + " (" + cookies.size() + " cookies)");
+	}
+	catch (WebDriverException | ClassCastException ex) {
+		println("WARNING: Cannot capture browser session of user '" + user.getId() + "': " + ex.getMessage());
+	}
+}
+
+private static Map<String, Object> getCachedSession(final User user, final Application application) {
+	synchronized (SESSIONS) {
+		readFile();
+		Map<String, Object> session = SESSIONS.get(getKey(user, application));
+		if (session == null) return null;
+		if (System.currentTimeMillis() - ((Number) session.get(TIME_KEY)).longValue() > SESSION_CACHE_MAX_AGE) {
+			if (DEBUG) debugPrintln("		+ Cached session of user '" + user.getId() + "' for " + application + " is too old.");
+			SESSIONS.remove(getKey(user, application));
+			return null;
+		}
+		return session;
+	}
+}
+
+private static String getKey(final User user, final Application application) {
+	return user.getId() + "@" + application.getServer();
+}
+
+private static boolean isOnApplication(final Browser browser, final Application application) {
+	return browser.getCurrentUrl().toLowerCase().startsWith(application.getLocation().toLowerCase());
+}
+
+/**
+ * Remove the cached session of the given user for the given application.
+ * <p>
+ * That has to be called when a restored session turns out to be expired.
+ * </p>
+ * @param user The user
+ * @param application The application
+ */
+public static void invalidate(final User user, final Application application) {
+	synchronized (SESSIONS) {
+		if (SESSIONS.remove(getKey(user, application)) != null) {
+			if (DEBUG) debugPrintln("		+ Invalidated cached session of user '" + user.getId() + "' for " + application);
+			writeFile();
+		}
+	}
+}
+
+@SuppressWarnings("unchecked")
+private static void readFile() {
+	if (FILE_READ || SESSION_CACHE_FILE == null) return;
+	FILE_READ = true;
+	File file = new File(SESSION_CACHE_FILE);
+	if (!file.exists()) return;
+	if (!EncryptionUtil.isKeyDefined()) {
+		println("WARNING: Cannot read sessions cache file '" + file.getAbsolutePath() + "' as no encryption key is defined.");
+		return;
+	}
+	try {
+		String content = EncryptionUtil.decrypt(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		Map<String, Object> sessions = new Json().toType(content, Json.MAP_TYPE);
+		for (Map.Entry<String, Object> entry: sessions.entrySet()) {
+			SESSIONS.put(entry.getKey(), (Map<String, Object>) entry.getValue());
+		}
+		if (DEBUG) debugPrintln("		+ Read " + sessions.size() + " cached sessions from '" + file.getAbsolutePath() + "'");
+	}
+	catch (Exception ex) {
+		println("WARNING: Cannot read sessions cache file '" + file.getAbsolutePath() + "': " + ex.getMessage());
+	}
+}
+
+/**
+ * Restore the cached session of the given user for the given application.
+ * <p>
+ * Cookies and local storage are restored and the given location is then reloaded
+ * in the browser.
+ * </p>
+ * @param browser The browser where to restore the session
+ * @param user The user to restore the session
+ * @param application The application where the user has to be logged in
+ * @param location The location to load once the session is restored
+ * @return <code>true</code> if a session was cached and has been restored,
+ * <code>false</code> otherwise.
+ */
+@SuppressWarnings("unchecked")
+public static boolean restore(final Browser browser, final User user, final Application application, final String location) {
+	if (!SESSION_CACHE) return false;
+	Map<String, Object> session = getCachedSession(user, application);
+	if (session == null) return false;
+	if (DEBUG) debugPrintln("		+ Restore cached session of user '" + user.getId() + "' for " + application);
+	WebDriver driver = browser.getDriver();
+	try {
+		// Restore cookies
+		List<Object> cookies = (List<Object>) session.get(COOKIES_KEY);
+		if (browser.isCdpSupported()) {
+			browser.executeCdpCommand("Network.setCookies", Collections.singletonMap(COOKIES_KEY, cookies));
+		} else {
+			for (Object cookie: cookies) {
+				try {
+					driver.manage().addCookie(toSeleniumCookie((Map<String, Object>) cookie));
+				}
+				catch (WebDriverException wde) {
+					// Cookie of another domain, it cannot be restored
+				}
+			}
+		}
+		driver.get(location);
+
+		// Restore local storage
+		Map<String, Object> localStorage = (Map<String, Object>) session.get(LOCAL_STORAGE_KEY);
+		if (!localStorage.isEmpty() && isOnApplication(browser, application)) {
+			browser.executeScript(SET_LOCAL_STORAGE_SCRIPT, localStorage);
+			driver.navigate().refresh();
+		}
+		return true;
+	}
+	catch (WebDriverException | ClassCastException ex) {
+		println("WARNING: Cannot restore browser session of user '" + user.getId() + "': " + ex.getMessage());
+		invalidate(user, application);
+		return false;
+	}
+}
+
+/*
+ * Only keep the cookie properties which can be set back, other ones
+ * (e.g. size or partition key) depend on the browser version.
+ */
+private static Map<String, Object> toCookieParameter(final Map<String, Object> cdpCookie) {
+	Map<String, Object> cookie = new HashMap<String, Object>();
+	for (String property: COOKIE_PROPERTIES) {
+		if (cdpCookie.get(property) != null) {
+			cookie.put(property, cdpCookie.get(property));
+		}
+	}
+	if (Boolean.TRUE.equals(cdpCookie.get("session"))) {
+		cookie.remove("expires");
+	}
+	return cookie;
+}
+
+private static Map<String, Object> toCdpCookie(final Cookie cookie) {
+	Map<String, Object> cdpCookie = new HashMap<String, Object>();
+	cdpCookie.put("name", cookie.getName());
+	cdpCookie.put("value", cookie.getValue());
+	cdpCookie.put("domain", cookie.getDomain());
+	cdpCookie.put("path", cookie.getPath());
+	cdpCookie.put("secure", Boolean.valueOf(cookie.isSecure()));
+	cdpCookie.put("httpOnly", Boolean.valueOf(cookie.isHttpOnly()));
+	if (cookie.getSameSite() != null) {
+		cdpCookie.put("sameSite", cookie.getSameSite());
+	}
+	if (cookie.getExpiry() != null) {
+		cdpCookie.put("expires", Long.valueOf(cookie.getExpiry().getTime() / 1000));
+	}
+	return cdpCookie;
+}
+
+private static Cookie toSeleniumCookie(final Map<String, Object> cdpCookie) {
+	Cookie.Builder builder = new Cookie.Builder((String) cdpCookie.get("name"), (String) cdpCookie.get("value"))
+		.domain((String) cdpCookie.get("domain"))
+		.path((String) cdpCookie.get("path"))
+		.isSecure(Boolean.TRUE.equals(cdpCookie.get("secure")))
+		.isHttpOnly(Boolean.TRUE.equals(cdpCookie.get("httpOnly")));
+	if (cdpCookie.get("sameSite") != null) {
+		builder.sameSite((String) cdpCookie.get("sameSite"));
+	}
+	Object expires = cdpCookie.get("expires");
+	if (expires instanceof Number && ((Number) expires).longValue() > 0) {
+		builder.expiresOn(new Date(((Number) expires).longValue() * 1000));
+	}
+	return builder.build();
+}
+
+private static void writeFile() {
+	if (SESSION_CACHE_FILE == null || !EncryptionUtil.isKeyDefined()) return;
+	File file = new File(SESSION_CACHE_FILE);
+	try {
+		// Write a temporary file first to never leave a truncated cache
+		File parentDir = file.getAbsoluteFile().getParentFile();
+		if (parentDir != null) parentDir.mkdirs();
+		Path tempFile = Files.createTempFile(parentDir == null ? null : parentDir.toPath(), "sessions", ".tmp");
+		Files.write(tempFile, EncryptionUtil.encrypt(new Json().toJson(SESSIONS)).getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	catch (IOException | JsonException ex) {
+		println("WARNING: Cannot write sessions cache file '" + file.getAbsolutePath() + "': " + ex.getMessage());
+	}
+}
+}
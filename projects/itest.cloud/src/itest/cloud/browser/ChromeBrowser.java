@@ -145,5 +145,8 @@ void initProfile() {
 
     // Init experimental options.
 	initExperimentalOptions();
+
+	// Open a WebDriver BiDi session if requested.
+	BiDiTransport.enable(this.options);
 }
 }
\ No newline at end of file
@@ -55,6 +55,8 @@ void initDriver() {
 	ChromeOptions options = new ChromeOptions();
 	// Specify the parth to the Chromium or Electron application.
 	options.setBinary(getParameterValue("applicationPath"));
+	// Open a WebDriver BiDi session if requested.
+	BiDiTransport.enable(options);
 
     // Create driver
 	if(this.remoteAddress != null) {
@@ -0,0 +1,263 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Record the console messages and the uncaught exceptions of the browser pages
+ * while the current test is running.
+ * <p>
+ * Messages are pushed by the browser as they occur, using the DevTools <code>Runtime</code>
+ * events on Chromium based browsers and the WebDriver BiDi <code>log.entryAdded</code> event
+ * on Firefox, hence nothing is polled. Only the last messages are kept, they are printed
+ * when the test fails (see {@link Browser#flushConsoleMessages()}).
+ * </p><p>
+ * Messages of all the browser windows are recorded: the BiDi event covers every browsing
+ * context, and the windows opened after the DevTools session was created are attached to
+ * it as child sessions.
+ * </p><p>
+ * The recording is set using the following parameters:
+ * <ul>
+ * <li>{@link #CONSOLE_CAPTURE_ID}: whether the messages are recorded (default is false),</li>
+ * <li>{@link #CONSOLE_BUFFER_SIZE_ID}: the maximum number of kept messages (default is 100),</li>
+ * <li>{@link #CONSOLE_LEVELS_ID}: the comma separated list of recorded console levels
+ * (default is <code>error,warning</code>). Uncaught exceptions are always recorded.</li>
+ * </ul>
+ * </p>
+ */
+public class ConsoleRecorder {
+
+	// Parameters
+	final static String CONSOLE_CAPTURE_ID = "consoleCapture";
+	final static String CONSOLE_BUFFER_SIZE_ID = "consoleBufferSize";
+	final static String CONSOLE_LEVELS_ID = "consoleLevels";
+	final static boolean CONSOLE_CAPTURE = getParameterBooleanValue(CONSOLE_CAPTURE_ID, false);
+	private final static int BUFFER_SIZE = getParameterIntValue(CONSOLE_BUFFER_SIZE_ID, 100);
+
+	// Maximum length of a recorded message
+	private final static int MAX_MESSAGE_LENGTH = 1000;
+
+	// Browser
+	private final Browser browser;
+
+	// Recorded levels, using the DevTools names
+	private final Set<String> levels = new HashSet<String>();
+
+	// Messages of the current test
+	private final ArrayDeque<String> messages = new ArrayDeque<String>();
+	private final AtomicInteger exceptionsCount = new AtomicInteger();
+	private int droppedCount = 0;
+	private boolean started = false;
+
+	// Other windows attached to the DevTools session
+	private final Set<String> attachedTargets = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger targetMessageId = new AtomicInteger();
+
+	// Messages time format
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+
+ConsoleRecorder(final Browser browser) {
+	this.browser = browser;
+	for (String level: getParameterValue(CONSOLE_LEVELS_ID, "error,warning").split(",")) {
+		if (level.trim().length() > 0) {
+			this.levels.add(level.trim().toLowerCase());
+		}
+	}
+}
+
+/*
+ * Record the messages of the other windows, the DevTools session being attached to
+ * the first window only. Existing and new page targets are discovered and attached
+ * in non-flat mode, hence their events are received through the current session.
+ */
+@SuppressWarnings("unchecked")
+private void attachOtherTargets(final DevTools devTools) {
+	Map<String, Object> targetInfo = devTools.send(new Command<Map<String, Object>>("Target.getTargetInfo", Collections.emptyMap(), input -> input.read(Json.MAP_TYPE)));
+	String ownTargetId = (String) ((Map<String, Object>) targetInfo.get("targetInfo")).get("targetId");
+	devTools.addListener(new Event<Map<String, Object>>("Target.targetCreated", input -> input.read(Json.MAP_TYPE)), params -> onTargetCreated(devTools, ownTargetId, params));
+	devTools.addListener(new Event<Map<String, Object>>("Target.targetDestroyed", input -> input.read(Json.MAP_TYPE)), params -> this.attachedTargets.remove(params.get("targetId")));
+	devTools.addListener(new Event<Map<String, Object>>("Target.receivedMessageFromTarget", input -> input.read(Json.MAP_TYPE)), params -> onMessageFromTarget(params));
+	devTools.send(new Command<Void>("Target.setDiscoverTargets", Collections.singletonMap("discover", Boolean.TRUE)));
+}
+
+private synchronized void add(final String kind, final String text) {
+	if (this.messages.size() >= BUFFER_SIZE) {
+		this.messages.removeFirst();
+		this.droppedCount++;
+	}
+	String message = text.length() > MAX_MESSAGE_LENGTH ? text.substring(0, MAX_MESSAGE_LENGTH) + "..." : text;
+	this.messages.addLast("[" + this.timeFormat.format(new Date()) + "] " + kind + ": " + message);
+}
+
+/**
+ * Forget the messages and exceptions recorded so far.
+ */
+synchronized void clear() {
+	this.messages.clear();
+	this.droppedCount = 0;
+	this.exceptionsCount.set(0);
+}
+
+/**
+ * Return the messages recorded since the last flush and forget them.
+ *
+ * @return The messages list, empty if none was recorded
+ */
+synchronized List<String> flush() {
+	List<String> flushedMessages = new ArrayList<String>();
+	if (this.droppedCount > 0) {
+		flushedMessages.add("(" + this.droppedCount + " previous messages dropped)");
+	}
+	flushedMessages.addAll(this.messages);
+	clear();
+	return flushedMessages;
+}
+
+/**
+ * Return the number of uncaught exceptions recorded since the last flush.
+ *
+ * @return The number of exceptions
+ */
+int getExceptionsCount() {
+	return this.exceptionsCount.get();
+}
+
+@SuppressWarnings("unchecked")
+private void onConsoleApiCalled(final Map<String, Object> params) {
+	String type = (String) params.get("type");
+	if (!this.levels.contains(type)) return;
+	StringBuilder text = new StringBuilder();
+	List<Map<String, Object>> args = (List<Map<String, Object>>) params.get("args");
+	if (args != null) {
+		for (Map<String, Object> arg: args) {
+			Object value = arg.containsKey("value") ? arg.get("value") : arg.get("description");
+			if (text.length() > 0) text.append(' ');
+			text.append(value);
+		}
+	}
+	add("console." + type, text.toString());
+}
+
+@SuppressWarnings("unchecked")
+private void onExceptionThrown(final Map<String, Object> params) {
+	Map<String, Object> details = (Map<String, Object>) params.get("exceptionDetails");
+	Map<String, Object> exception = (Map<String, Object>) details.get("exception");
+	String text = exception != null && exception.get("description") != null
+		? (String) exception.get("description")
+		: details.get("text") + " (" + details.get("url") + ":" + details.get("lineNumber") + ")";
+	this.exceptionsCount.incrementAndGet();
+	add("Uncaught exception", text);
+	if (DEBUG) debugPrintln("		+ Uncaught JavaScript exception: " + text);
+}
+
+@SuppressWarnings("unchecked")
+private void onMessageFromTarget(final Map<String, Object> params) {
+	Map<String, Object> message = new Json().toType((String) params.get("message"), Json.MAP_TYPE);
+	Object method = message.get("method");
+	if ("Runtime.consoleAPICalled".equals(method)) {
+		onConsoleApiCalled((Map<String, Object>) message.get("params"));
+	}
+	else if ("Runtime.exceptionThrown".equals(method)) {
+		onExceptionThrown((Map<String, Object>) message.get("params"));
+	}
+}
+
+private void onLogEntryAdded(final Map<String, Object> params) {
+	String text = String.valueOf(params.get("text"));
+	if ("javascript".equals(params.get("type"))) {
+		this.exceptionsCount.incrementAndGet();
+		add("Uncaught exception", text);
+		if (DEBUG) debugPrintln("		+ Uncaught JavaScript exception: " + text);
+	}
+	else {
+		// BiDi uses "warn" where DevTools uses "warning"
+		String level = "warn".equals(params.get("level")) ? "warning" : (String) params.get("level");
+		if (this.levels.contains(level)) {
+			add("console." + level, text);
+		}
+	}
+}
+
+@SuppressWarnings("unchecked")
+private void onTargetCreated(final DevTools devTools, final String ownTargetId, final Map<String, Object> params) {
+	Map<String, Object> targetInfo = (Map<String, Object>) params.get("targetInfo");
+	String targetId = (String) targetInfo.get("targetId");
+	if (!"page".equals(targetInfo.get("type")) || targetId.equals(ownTargetId) || !this.attachedTargets.add(targetId)) return;
+	try {
+		Map<String, Object> attachParams = new HashMap<String, Object>();
+		attachParams.put("targetId", targetId);
+		attachParams.put("flatten", Boolean.FALSE);
+		Map<String, Object> session = devTools.send(new Command<Map<String, Object>>("Target.attachToTarget", attachParams, input -> input.read(Json.MAP_TYPE)));
+		Map<String, Object> message = new HashMap<String, Object>();
+		message.put("id", Integer.valueOf(this.targetMessageId.incrementAndGet()));
+		message.put("method", "Runtime.enable");
+		Map<String, Object> sendParams = new HashMap<String, Object>();
+		sendParams.put("sessionId", session.get("sessionId"));
+		sendParams.put("message", new Json().toJson(message));
+		devTools.send(new Command<Void>("Target.sendMessageToTarget", sendParams));
+		if (DEBUG) debugPrintln("		+ Console messages recording started for window target " + targetId + ".");
+	}
+	catch (WebDriverException wde) {
+		this.attachedTargets.remove(targetId);
+		if (DEBUG) debugPrintln("		+ Cannot record console messages of window target " + targetId + ": " + wde.getMessage());
+	}
+}
+
+/**
+ * Start recording the console messages.
+ * <p>
+ * A warning is printed if the browser supports neither DevTools nor WebDriver BiDi.
+ * </p>
+ */
+synchronized void start() {
+	if (this.started) return;
+	try {
+		DevTools devTools = this.browser.getDevTools();
+		if (devTools != null) {
+			devTools.addListener(new Event<Map<String, Object>>("Runtime.consoleAPICalled", input -> input.read(Json.MAP_TYPE)), params -> onConsoleApiCalled(params));
+			devTools.addListener(new Event<Map<String, Object>>("Runtime.exceptionThrown", input -> input.read(Json.MAP_TYPE)), params -> onExceptionThrown(params));
+			devTools.send(new Command<Void>("Runtime.enable", Collections.emptyMap()));
+			try {
+				attachOtherTargets(devTools);
+			}
+			catch (WebDriverException wde) {
+				println("WARNING: Cannot record console messages of other windows: " + wde.getMessage());
+			}
+		} else {
+			BiDi bidi = this.browser.getBiDi();
+			if (bidi == null) {
+				println("WARNING: Browser " + this.browser.getName() + " supports neither DevTools nor WebDriver BiDi, console messages cannot be recorded.");
+				return;
+			}
+			bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>("log.entryAdded", params -> params), params -> onLogEntryAdded(params));
+		}
+		this.started = true;
+		if (DEBUG) debugPrintln("		+ Console messages recording started for " + this.browser.getName() + " browser.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot start console messages recording: " + wde.getMessage());
+	}
+}
+}
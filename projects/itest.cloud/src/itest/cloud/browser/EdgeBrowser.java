@@ -55,5 +55,7 @@ protected void initDriver() {
 protected void initProfile() {
 	// Created Edge options
 	this.options = new EdgeOptions();
+	// Open a WebDriver BiDi session if requested
+	BiDiTransport.enable(this.options);
 }
 }
\ No newline at end of file
@@ -74,6 +74,10 @@ private void initDownloadDir() {
 @Override
 void initDriver() {
 	final FirefoxOptions firefoxOptions = new FirefoxOptions();
+	// Enable WebDriver BiDi which is used to block requests, record console messages and watch alerts
+	if (BiDiTransport.BIDI || RequestBlocker.BLOCK_REQUESTS || ConsoleRecorder.CONSOLE_CAPTURE || AlertWatcher.WATCH_ALERTS) {
+		firefoxOptions.setCapability("webSocketUrl", true);
+	}
 //	firefoxCapabilities.setCapability("unexpectedAlertBehaviour", UnexpectedAlertBehaviour.IGNORE);
 //	firefoxCapabilities.setCapability(ELEMENT_SCROLL_BEHAVIOR_ID, ELEMENT_SCROLL_BEHAVIOR_VALUE);
 
@@ -0,0 +1,451 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Record the network activity of each test as a HAR 1.2 file.
+ * <p>
+ * Entries are built from the DevTools <code>Network</code> events, hence the capture
+ * is only available for local Chromium based browsers. Each entry has the request and
+ * response headers, the timings (blocked, DNS, connect, SSL, send, wait and receive),
+ * the transferred and decoded sizes and the request initiator. Bodies are not recorded.
+ * </p><p>
+ * The values of the headers and URL parameters which may hold credentials (cookies,
+ * authorization, tokens, API keys, ...) are replaced with {@link #REDACTED}, hence
+ * HAR files can be published with the tests results.
+ * </p><p>
+ * The capture is set using the following parameters:
+ * <ul>
+ * <li>{@link #HAR_ID}: whether the network activity is recorded (default is false),</li>
+ * <li>{@link #HAR_KEEP_ID}: <code>always</code> to keep the HAR file of each test or
+ * <code>failure</code> (default) to keep it only when the test failed or was slow,</li>
+ * <li>{@link #HAR_SLOW_TEST_ID}: the duration in seconds from which a test is slow
+ * (default is 60),</li>
+ * <li>{@link #HAR_MAX_ENTRIES_ID}: the maximum number of entries of a HAR file, next
+ * requests being ignored (default is 2000),</li>
+ * <li>{@link #HAR_MAX_FILES_ID}: the maximum number of HAR files kept, older ones
+ * being deleted (default is 0, i.e. no limit).</li>
+ * </ul>
+ * </p><p>
+ * HAR files are written in background in the <code>har</code> directory next to the
+ * snapshots ones. Slow requests found in a HAR file can be matched with the server
+ * times measured by the {@link itest.cloud.performance.PerfManager}.
+ * </p>
+ */
+public class HarRecorder {
+
+	// Parameters
+	final static String HAR_ID = "har";
+	final static String HAR_KEEP_ID = "harKeep";
+	final static String HAR_SLOW_TEST_ID = "harSlowTest";
+	final static String HAR_MAX_ENTRIES_ID = "harMaxEntries";
+	final static String HAR_MAX_FILES_ID = "harMaxFiles";
+	final static boolean HAR = getParameterBooleanValue(HAR_ID, false);
+	private final static boolean KEEP_ALWAYS = getParameterValue(HAR_KEEP_ID, "failure").equalsIgnoreCase("always");
+	private final static long SLOW_TEST = TimeUnit.SECONDS.toMillis(getParameterIntValue(HAR_SLOW_TEST_ID, 60));
+	private final static int MAX_ENTRIES = getParameterIntValue(HAR_MAX_ENTRIES_ID, 2000);
+	private final static int MAX_FILES = getParameterIntValue(HAR_MAX_FILES_ID, 0);
+
+	// HAR files directory name
+	private final static String HAR_DIR = "har";
+
+	// Redaction of the headers and URL parameters which may hold credentials
+	final static String REDACTED = "<redacted>";
+	private final static Pattern SENSITIVE_NAME = Pattern.compile(
+		"(?i)(set-)?cookie2?|(proxy-)?authorization|.*(token|secret|password|passwd|api-?key|session|csrf|xsrf|auth|signature|credential).*|code");
+	private final static Pattern URL_HEADER = Pattern.compile("(?i)(content-)?location|referr?er");
+	private final static Pattern URL_PARAMETER = Pattern.compile("([?&;#])([^=&#;]+)=([^&#;]*)");
+
+	// Decoded size of the response, summed from the data received events
+	private final static String DATA_LENGTH = "dataLength";
+
+	// Writer
+	private final static int SHUTDOWN_TIMEOUT = 60;
+	private static ExecutorService WRITER;
+
+	// Written files, oldest first, only used by the writer thread
+	private final static Deque<File> FILES = new ArrayDeque<File>();
+
+	// Browser
+	private final Browser browser;
+
+	// Requests waiting for their end and recorded entries
+	private final Map<String, Map<String, Object>> pendingRequests = new HashMap<String, Map<String, Object>>();
+	private final List<Map<String, Object>> entries = new ArrayList<Map<String, Object>>();
+	private int ignoredEntries = 0;
+
+HarRecorder(final Browser browser) {
+	this.browser = browser;
+}
+
+private static void applyRetention(final File file) {
+	if (MAX_FILES <= 0) return;
+	FILES.add(file);
+	while (FILES.size() > MAX_FILES) {
+		File oldest = FILES.poll();
+		if (!oldest.delete() && oldest.exists()) {
+			println("WARNING: Cannot delete HAR file " + oldest);
+		}
+	}
+}
+
+@SuppressWarnings("unchecked")
+private Map<String, Object> createEntry(final Map<String, Object> requestEvent, final Map<String, Object> response, final double endTimestamp, final Number encodedDataLength, final String errorText) {
+	Map<String, Object> request = (Map<String, Object>) requestEvent.get("request");
+	double startTimestamp = getDouble(requestEvent.get("timestamp"));
+
+	// Request
+	Map<String, Object> harRequest = new LinkedHashMap<String, Object>();
+	harRequest.put("method", request.get("method"));
+	harRequest.put("url", redactUrl((String) request.get("url")));
+	harRequest.put("httpVersion", response == null ? "" : String.valueOf(response.getOrDefault("protocol", "")));
+	harRequest.put("cookies", Collections.emptyList());
+	harRequest.put("headers", toHeaders((Map<String, Object>) request.get("headers")));
+	harRequest.put("queryString", Collections.emptyList());
+	String postData = (String) request.get("postData");
+	if (postData != null) {
+		Map<String, Object> harPostData = new LinkedHashMap<String, Object>();
+		harPostData.put("mimeType", "");
+		harPostData.put("text", "");
+		harRequest.put("postData", harPostData);
+	}
+	harRequest.put("headersSize", Integer.valueOf(-1));
+	harRequest.put("bodySize", Integer.valueOf(postData == null ? 0 : postData.getBytes(UTF_8).length));
+
+	// Response
+	Map<String, Object> harResponse = new LinkedHashMap<String, Object>();
+	Map<String, Object> content = new LinkedHashMap<String, Object>();
+	if (response == null) {
+		harResponse.put("status", Integer.valueOf(0));
+		harResponse.put("statusText", errorText == null ? "" : errorText);
+		harResponse.put("httpVersion", "");
+		harResponse.put("headers", Collections.emptyList());
+		content.put("size", Integer.valueOf(0));
+		content.put("mimeType", "");
+	} else {
+		harResponse.put("status", response.get("status"));
+		harResponse.put("statusText", response.get("statusText"));
+		harResponse.put("httpVersion", response.getOrDefault("protocol", ""));
+		harResponse.put("headers", toHeaders((Map<String, Object>) response.get("headers")));
+		content.put("size", requestEvent.getOrDefault(DATA_LENGTH, Integer.valueOf(0)));
+		content.put("mimeType", response.get("mimeType"));
+	}
+	harResponse.put("cookies", Collections.emptyList());
+	harResponse.put("content", content);
+	harResponse.put("redirectURL", "");
+	harResponse.put("headersSize", Integer.valueOf(-1));
+	harResponse.put("bodySize", encodedDataLength == null ? Integer.valueOf(-1) : encodedDataLength);
+	if (errorText != null) {
+		harResponse.put("_error", errorText);
+	}
+
+	// Timings
+	Map<String, Object> timings = getTimings(response == null ? null : (Map<String, Object>) response.get("timing"), startTimestamp, endTimestamp);
+	double time = 0;
+	for (String phase: new String[] { "blocked", "dns", "connect", "send", "wait", "receive" }) {
+		time += Math.max(0, ((Double) timings.get(phase)).doubleValue());
+	}
+
+	// Entry
+	Map<String, Object> entry = new LinkedHashMap<String, Object>();
+	entry.put("startedDateTime", Instant.ofEpochMilli((long) (getDouble(requestEvent.get("wallTime")) * 1000)).toString());
+	entry.put("time", Double.valueOf(time));
+	entry.put("request", harRequest);
+	entry.put("response", harResponse);
+	entry.put("cache", Collections.emptyMap());
+	entry.put("timings", timings);
+	if (response != null && response.get("remoteIPAddress") != null) {
+		entry.put("serverIPAddress", response.get("remoteIPAddress"));
+	}
+	entry.put("_resourceType", requestEvent.get("type"));
+	entry.put("_initiator", redactUrls(requestEvent.get("initiator")));
+	return entry;
+}
+
+/**
+ * Record the HAR file of the given test if it has to be kept and start
+ * recording the next test.
+ *
+ * @param testName The qualified test name
+ * @param passed Tells whether the test passed
+ * @param duration The test duration in milliseconds
+ */
+void finish(final String testName, final boolean passed, final long duration) {
+	List<Map<String, Object>> testEntries;
+	int testIgnoredEntries;
+	synchronized (this) {
+		testEntries = new ArrayList<Map<String, Object>>(this.entries);
+		testIgnoredEntries = this.ignoredEntries;
+		this.entries.clear();
+		this.ignoredEntries = 0;
+		// Forget requests which never ended (e.g. aborted or streaming requests)
+		this.pendingRequests.clear();
+	}
+	if (testEntries.isEmpty() || !(KEEP_ALWAYS || !passed || duration >= SLOW_TEST)) {
+		return;
+	}
+	File dir = this.browser.getSnapshotsDir(HAR_DIR);
+	if (dir == null) return;
+	String shortTestName = testName.substring(testName.lastIndexOf('.', testName.lastIndexOf('.') - 1) + 1);
+	String prefix = (dir.getName().equals(HAR_DIR) ? "" : HAR_DIR + "_") + COMPACT_DATE_STRING + "_" + shortTestName;
+	File file = SnapshotWriter.getUniqueFile(dir, prefix, ".har");
+
+	// Build the HAR
+	Map<String, Object> creator = new LinkedHashMap<String, Object>();
+	creator.put("name", "iTestCloud");
+	creator.put("version", "1.0");
+	Map<String, Object> harBrowser = new LinkedHashMap<String, Object>();
+	harBrowser.put("name", this.browser.getName());
+	harBrowser.put("version", this.browser.getVersion());
+	Map<String, Object> log = new LinkedHashMap<String, Object>();
+	log.put("version", "1.2");
+	log.put("creator", creator);
+	log.put("browser", harBrowser);
+	log.put("pages", Collections.emptyList());
+	log.put("entries", testEntries);
+	log.put("comment", testName + (passed ? " passed" : " failed") + " in " + timeString(duration) +
+		(testIgnoredEntries > 0 ? ", " + testIgnoredEntries + " requests ignored after " + MAX_ENTRIES + " entries" : ""));
+	Map<String, Object> har = Collections.singletonMap("log", log);
+
+	// Write it in background
+	getWriter().submit(() -> {
+		try {
+			Files.write(file.toPath(), new Json().toJson(har).getBytes(UTF_8));
+			applyRetention(file);
+		}
+		catch (IOException ioe) {
+			println("WARNING: Cannot write HAR file " + file + ": " + ioe.getMessage());
+		}
+	});
+	println("		  -> HAR file available at " + file.getAbsolutePath());
+}
+
+private static double getDouble(final Object value) {
+	return value == null ? 0 : ((Number) value).doubleValue();
+}
+
+/*
+ * Compute the HAR timings from the DevTools ones, which are in milliseconds
+ * relative to the request time in seconds.
+ */
+private static Map<String, Object> getTimings(final Map<String, Object> timing, final double startTimestamp, final double endTimestamp) {
+	Map<String, Object> timings = new LinkedHashMap<String, Object>();
+	double total = Math.max(0, (endTimestamp - startTimestamp) * 1000);
+	if (timing == null) {
+		// Cached or failed request
+		timings.put("blocked", Double.valueOf(-1));
+		timings.put("dns", Double.valueOf(-1));
+		timings.put("connect", Double.valueOf(-1));
+		timings.put("send", Double.valueOf(0));
+		timings.put("wait", Double.valueOf(total));
+		timings.put("receive", Double.valueOf(0));
+		timings.put("ssl", Double.valueOf(-1));
+		return timings;
+	}
+	double dnsStart = getDouble(timing.get("dnsStart"));
+	double connectStart = getDouble(timing.get("connectStart"));
+	double sslStart = getDouble(timing.get("sslStart"));
+	double sendStart = getDouble(timing.get("sendStart"));
+	double sendEnd = getDouble(timing.get("sendEnd"));
+	double receiveHeadersEnd = getDouble(timing.get("receiveHeadersEnd"));
+	double queued = Math.max(0, (getDouble(timing.get("requestTime")) - startTimestamp) * 1000);
+	double blocked = dnsStart >= 0 ? dnsStart : (connectStart >= 0 ? connectStart : sendStart);
+	timings.put("blocked", Double.valueOf(queued + Math.max(0, blocked)));
+	timings.put("dns", Double.valueOf(dnsStart >= 0 ? getDouble(timing.get("dnsEnd")) - dnsStart : -1));
+	timings.put("connect", Double.valueOf(connectStart >= 0 ? getDouble(timing.get("connectEnd")) - connectStart : -1));
+	timings.put("send", Double.valueOf(Math.max(0, sendEnd - sendStart)));
+	timings.put("wait", Double.valueOf(Math.max(0, receiveHeadersEnd - sendEnd)));
+	timings.put("receive", Double.valueOf(Math.max(0, total - queued - receiveHeadersEnd)));
+	timings.put("ssl", Double.valueOf(sslStart >= 0 ? getDouble(timing.get("sslEnd")) - sslStart : -1));
+	return timings;
+}
+
+private static synchronized ExecutorService getWriter() {
+	if (WRITER == null) {
+		WRITER = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "har-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	return WRITER;
+}
+
+private synchronized void onDataReceived(final Map<String, Object> params) {
+	Map<String, Object> requestEvent = this.pendingRequests.get(params.get("requestId"));
+	if (requestEvent != null) {
+		long dataLength = (long) getDouble(requestEvent.get(DATA_LENGTH)) + (long) getDouble(params.get("dataLength"));
+		requestEvent.put(DATA_LENGTH, Long.valueOf(dataLength));
+	}
+}
+
+@SuppressWarnings("unchecked")
+private synchronized void onRequestEnd(final Map<String, Object> params, final boolean failed) {
+	Map<String, Object> requestEvent = this.pendingRequests.remove(params.get("requestId"));
+	if (requestEvent == null) return;
+	Map<String, Object> response = (Map<String, Object>) requestEvent.get("response");
+	recordEntry(createEntry(requestEvent, response, getDouble(params.get("timestamp")),
+		failed ? null : (Number) params.get("encodedDataLength"), failed ? (String) params.get("errorText") : null));
+}
+
+@SuppressWarnings("unchecked")
+private synchronized void onRequestWillBeSent(final Map<String, Object> params) {
+	String requestId = (String) params.get("requestId");
+	Map<String, Object> redirectResponse = (Map<String, Object>) params.get("redirectResponse");
+	if (redirectResponse != null) {
+		// The previous request of the same id ends with the redirection
+		Map<String, Object> requestEvent = this.pendingRequests.remove(requestId);
+		if (requestEvent != null) {
+			Map<String, Object> entry = createEntry(requestEvent, redirectResponse, getDouble(params.get("timestamp")), (Number) redirectResponse.get("encodedDataLength"), null);
+			((Map<String, Object>) entry.get("response")).put("redirectURL", redactUrl((String) ((Map<String, Object>) params.get("request")).get("url")));
+			recordEntry(entry);
+		}
+	}
+	this.pendingRequests.put(requestId, new HashMap<String, Object>(params));
+}
+
+private synchronized void onResponseReceived(final Map<String, Object> params) {
+	Map<String, Object> requestEvent = this.pendingRequests.get(params.get("requestId"));
+	if (requestEvent != null) {
+		requestEvent.put("response", params.get("response"));
+	}
+}
+
+private void recordEntry(final Map<String, Object> entry) {
+	if (this.entries.size() < MAX_ENTRIES) {
+		this.entries.add(entry);
+	} else {
+		this.ignoredEntries++;
+	}
+}
+
+/*
+ * Replace the values of the URL parameters which may hold credentials,
+ * including the ones of the fragment (e.g. <code>#access_token=...</code>).
+ */
+private static String redactUrl(final String url) {
+	if (url == null || (url.indexOf('?') < 0 && url.indexOf('#') < 0)) return url;
+	Matcher matcher = URL_PARAMETER.matcher(url);
+	StringBuffer redactedUrl = new StringBuffer();
+	while (matcher.find()) {
+		String value = SENSITIVE_NAME.matcher(matcher.group(2)).matches() ? REDACTED : matcher.group(3);
+		matcher.appendReplacement(redactedUrl, Matcher.quoteReplacement(matcher.group(1) + matcher.group(2) + "=" + value));
+	}
+	matcher.appendTail(redactedUrl);
+	return redactedUrl.toString();
+}
+
+/*
+ * Copy the given initiator replacing the values of the URL parameters which may
+ * hold credentials in its URLs, including the ones of its stack call frames.
+ */
+@SuppressWarnings("unchecked")
+private static Object redactUrls(final Object initiator) {
+	if (initiator instanceof Map) {
+		Map<String, Object> redactedMap = new LinkedHashMap<String, Object>();
+		for (Map.Entry<String, Object> item: ((Map<String, Object>) initiator).entrySet()) {
+			Object value = item.getValue();
+			redactedMap.put(item.getKey(), item.getKey().equals("url") && value instanceof String ? redactUrl((String) value) : redactUrls(value));
+		}
+		return redactedMap;
+	}
+	if (initiator instanceof List) {
+		List<Object> redactedList = new ArrayList<Object>();
+		for (Object item: (List<Object>) initiator) {
+			redactedList.add(redactUrls(item));
+		}
+		return redactedList;
+	}
+	return initiator;
+}
+
+/**
+ * Wait for all pending HAR files to be written and stop the writer.
+ */
+public static synchronized void shutdown() {
+	if (WRITER != null) {
+		WRITER.shutdown();
+		try {
+			if (!WRITER.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				println("WARNING: Some HAR files were not written after " + SHUTDOWN_TIMEOUT + " seconds.");
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		WRITER = null;
+	}
+}
+
+/**
+ * Start recording the network activity.
+ * <p>
+ * A warning is printed if the browser does not support DevTools.
+ * </p>
+ */
+void start() {
+	DevTools devTools = this.browser.getDevTools();
+	if (devTools == null) {
+		println("WARNING: Browser " + this.browser.getName() + " does not support DevTools, HAR files cannot be recorded.");
+		return;
+	}
+	try {
+		devTools.addListener(new Event<Map<String, Object>>("Network.requestWillBeSent", input -> input.read(Json.MAP_TYPE)), params -> onRequestWillBeSent(params));
+		devTools.addListener(new Event<Map<String, Object>>("Network.responseReceived", input -> input.read(Json.MAP_TYPE)), params -> onResponseReceived(params));
+		devTools.addListener(new Event<Map<String, Object>>("Network.dataReceived", input -> input.read(Json.MAP_TYPE)), params -> onDataReceived(params));
+		devTools.addListener(new Event<Map<String, Object>>("Network.loadingFinished", input -> input.read(Json.MAP_TYPE)), params -> onRequestEnd(params, false /*failed*/));
+		devTools.addListener(new Event<Map<String, Object>>("Network.loadingFailed", input -> input.read(Json.MAP_TYPE)), params -> onRequestEnd(params, true /*failed*/));
+		devTools.send(new Command<Void>("Network.enable", Collections.emptyMap()));
+		if (DEBUG) debugPrintln("		+ HAR recording started for " + this.browser.getName() + " browser.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot start HAR recording: " + wde.getMessage());
+	}
+}
+
+private static List<Map<String, Object>> toHeaders(final Map<String, Object> headers) {
+	List<Map<String, Object>> harHeaders = new ArrayList<Map<String, Object>>();
+	if (headers != null) {
+		for (Map.Entry<String, Object> header: headers.entrySet()) {
+			Map<String, Object> harHeader = new LinkedHashMap<String, Object>();
+			harHeader.put("name", header.getKey());
+			String value = String.valueOf(header.getValue());
+			if (SENSITIVE_NAME.matcher(header.getKey()).matches()) {
+				value = REDACTED;
+			} else if (URL_HEADER.matcher(header.getKey()).matches()) {
+				value = redactUrl(value);
+			}
+			harHeader.put("value", value);
+			harHeaders.add(harHeader);
+		}
+	}
+	return harHeaders;
+}
+}
@@ -0,0 +1,331 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.BiDi;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+/**
+ * Block the browser requests to third-party services (analytics, telemetry, surveys,
+ * marketing, ...) which slow pages down and sometimes open overlays.
+ * <p>
+ * The blocking is set using the following parameters:
+ * <ul>
+ * <li>{@link #BLOCK_REQUESTS_ID}: whether requests are blocked (default is false),</li>
+ * <li>{@link #BLOCKED_URLS_ID}: the comma separated list of blocked URL patterns where
+ * <code>*</code> matches any sequence of characters (default is {@link #DEFAULT_BLOCKED_URLS}).</li>
+ * </ul>
+ * </p><p>
+ * On Chromium based browsers, the DevTools <code>Network.setBlockedURLs</code> command is used,
+ * hence requests are blocked by the browser itself. On Firefox, requests are intercepted using
+ * WebDriver BiDi and the matching ones are failed, the others being continued. Only requests
+ * to the hosts of the blocked URL patterns are intercepted. As BiDi cannot express wildcards
+ * in host names (e.g. <code>*.segment.com</code>), the matching hosts are learnt from the
+ * requests sent by the browser: the first request to such a host is not blocked, but the
+ * next ones are.
+ * </p><p>
+ * Blocking can be switched on and off during the execution (see {@link Browser#setRequestBlocking(boolean)}),
+ * e.g. to measure the third-party cost in performance mode.
+ * </p>
+ */
+public class RequestBlocker {
+
+	// Parameters
+	final static String BLOCK_REQUESTS_ID = "blockRequests";
+	final static String BLOCKED_URLS_ID = "blockedUrls";
+	final static String DEFAULT_BLOCKED_URLS =
+		"*.trustarc.com/*,*.truste.com/*,*.segment.com/*,*.segment.io/*,*.google-analytics.com/*," +
+		"*.googletagmanager.com/*,*.doubleclick.net/*,*.demdex.net/*,*.omtrdc.net/*,*.hotjar.com/*," +
+		"*.qualtrics.com/*,*.medallia.com/*";
+	final static boolean BLOCK_REQUESTS = getParameterBooleanValue(BLOCK_REQUESTS_ID, false);
+
+	// Browser
+	private final Browser browser;
+
+	// Blocked URLs
+	private final List<String> urlPatterns = new ArrayList<String>();
+	private final List<Pattern> urlRegexps = new ArrayList<Pattern>();
+
+	// BiDi URL patterns of the blocked URLs, when their host name has no wildcard
+	private final List<Map<String, Object>> bidiUrlPatterns = new ArrayList<Map<String, Object>>();
+	// Blocked URLs whose host name has a wildcard, and their hosts already intercepted
+	private final List<Pattern> wildcardHostRegexps = new ArrayList<Pattern>();
+	private final Set<String> interceptedHosts = Collections.synchronizedSet(new HashSet<String>());
+
+	// State
+	private volatile boolean enabled = false;
+	private boolean listening = false;
+	private final List<String> interceptIds = new ArrayList<String>();
+
+	// Blocked requests counts
+	private final AtomicInteger pageCount = new AtomicInteger();
+	private final AtomicInteger totalCount = new AtomicInteger();
+
+RequestBlocker(final Browser browser) {
+	this.browser = browser;
+	for (String urlPattern: getParameterValue(BLOCKED_URLS_ID, DEFAULT_BLOCKED_URLS).split(",")) {
+		String trimmedPattern = urlPattern.trim();
+		if (trimmedPattern.length() > 0) {
+			this.urlPatterns.add(trimmedPattern);
+			Pattern urlRegexp = Pattern.compile(toRegex(trimmedPattern));
+			this.urlRegexps.add(urlRegexp);
+			Map<String, Object> bidiUrlPattern = toBiDiUrlPattern(trimmedPattern);
+			if (bidiUrlPattern == null) {
+				this.wildcardHostRegexps.add(urlRegexp);
+			} else {
+				this.bidiUrlPatterns.add(bidiUrlPattern);
+			}
+		}
+	}
+}
+
+private synchronized void addIntercept(final BiDi bidi, final List<Map<String, Object>> bidiPatterns) {
+	if (bidiPatterns.isEmpty()) return;
+	Map<String, Object> params = new HashMap<String, Object>();
+	params.put("phases", Collections.singletonList("beforeRequestSent"));
+	params.put("urlPatterns", bidiPatterns);
+	Map<String, Object> result = bidi.send(new org.openqa.selenium.bidi.Command<Map<String, Object>>("network.addIntercept", params, Json.MAP_TYPE));
+	this.interceptIds.add((String) result.get("intercept"));
+}
+
+private void blockRequestsWithBiDi(final BiDi bidi, final boolean block) {
+	if (!this.listening) {
+		bidi.addListener(new org.openqa.selenium.bidi.Event<Map<String, Object>>("network.beforeRequestSent", params -> params), params -> {
+			if (Boolean.TRUE.equals(params.get("isBlocked"))) {
+				interceptRequest(bidi, params);
+			} else if (this.enabled) {
+				interceptHost(bidi, params);
+			}
+		});
+		this.listening = true;
+	}
+	if (block && this.interceptIds.isEmpty()) {
+		addIntercept(bidi, this.bidiUrlPatterns);
+	}
+	else if (!block) {
+		for (String interceptId: this.interceptIds) {
+			bidi.send(new org.openqa.selenium.bidi.Command<Void>("network.removeIntercept", Collections.singletonMap("intercept", interceptId)));
+		}
+		this.interceptIds.clear();
+		this.interceptedHosts.clear();
+	}
+}
+
+private void blockRequestsWithDevTools(final DevTools devTools, final boolean block) {
+	if (!this.listening) {
+		devTools.send(new Command<Void>("Network.enable", Collections.emptyMap()));
+		devTools.addListener(new Event<Map<String, Object>>("Network.loadingFailed", input -> input.read(Json.MAP_TYPE)), params -> {
+			if ("inspector".equals(params.get("blockedReason"))) {
+				countBlockedRequest(null);
+			}
+		});
+		this.listening = true;
+	}
+	List<String> blockedUrls = block ? this.urlPatterns : Collections.emptyList();
+	devTools.send(new Command<Void>("Network.setBlockedURLs", Collections.singletonMap("urls", blockedUrls)));
+}
+
+/**
+ * Print the total number of blocked requests.
+ */
+void close() {
+	if (this.totalCount.get() > 0) {
+		println("Info: " + this.totalCount.get() + " third-party requests were blocked during the browser session.");
+	}
+}
+
+private void countBlockedRequest(final String url) {
+	this.pageCount.incrementAndGet();
+	this.totalCount.incrementAndGet();
+	if (DEBUG && url != null) debugPrintln("		+ Request blocked: " + url);
+}
+
+/**
+ * Return the number of requests blocked since the last page get.
+ *
+ * @return The number of requests
+ */
+int getPageCount() {
+	return this.pageCount.get();
+}
+
+@SuppressWarnings("unchecked")
+private void interceptRequest(final BiDi bidi, final Map<String, Object> params) {
+	Map<String, Object> request = (Map<String, Object>) params.get("request");
+	String url = (String) request.get("url");
+	boolean blocked = false;
+	for (Pattern urlRegexp: this.urlRegexps) {
+		if (urlRegexp.matcher(url).matches()) {
+			blocked = true;
+			break;
+		}
+	}
+	// Do not wait for the responses as this runs in the BiDi events thread
+	String command = blocked ? "network.failRequest" : "network.continueRequest";
+	bidi.send(new org.openqa.selenium.bidi.Command<Void>(command, Collections.singletonMap("request", request.get("request")), input -> null, false));
+	if (blocked) {
+		countBlockedRequest(url);
+	}
+}
+
+/*
+ * Intercept the next requests to the host of the given request if it matches a blocked
+ * URL pattern with a wildcard in its host name.
+ */
+@SuppressWarnings("unchecked")
+private void interceptHost(final BiDi bidi, final Map<String, Object> params) {
+	if (this.wildcardHostRegexps.isEmpty()) return;
+	String url = (String) ((Map<String, Object>) params.get("request")).get("url");
+	for (Pattern urlRegexp: this.wildcardHostRegexps) {
+		if (urlRegexp.matcher(url).matches()) {
+			String host;
+			try {
+				host = URI.create(url).getHost();
+			}
+			catch (IllegalArgumentException iae) {
+				return;
+			}
+			if (host != null && this.interceptedHosts.add(host)) {
+				if (DEBUG) debugPrintln("		+ Request not blocked as its host was not intercepted yet: " + url);
+				Map<String, Object> bidiUrlPattern = new HashMap<String, Object>();
+				bidiUrlPattern.put("type", "pattern");
+				bidiUrlPattern.put("hostname", host);
+				// Do not wait for the response in the BiDi events thread
+				CompletableFuture.runAsync(() -> {
+					try {
+						synchronized (this) {
+							if (this.enabled) addIntercept(bidi, Collections.singletonList(bidiUrlPattern));
+						}
+					}
+					catch (WebDriverException wde) {
+						if (DEBUG) debugPrintln("		+ Cannot intercept requests to " + host + ": " + wde.getMessage());
+					}
+				});
+			}
+			return;
+		}
+	}
+}
+
+/**
+ * Tells whether requests are currently blocked.
+ *
+ * @return <code>true</code> if requests are blocked, <code>false</code> otherwise
+ */
+boolean isEnabled() {
+	return this.enabled;
+}
+
+/**
+ * Reset the number of requests blocked for the current page.
+ */
+void resetPageCount() {
+	this.pageCount.set(0);
+}
+
+/**
+ * Switch the requests blocking on or off.
+ * <p>
+ * A warning is printed if the browser supports neither DevTools nor WebDriver BiDi.
+ * </p>
+ * @param block <code>true</code> to block requests, <code>false</code> to let them go
+ */
+synchronized void setEnabled(final boolean block) {
+	if (this.enabled == block || this.urlPatterns.isEmpty()) return;
+	try {
+		DevTools devTools = this.browser.getDevTools();
+		if (devTools != null) {
+			blockRequestsWithDevTools(devTools, block);
+		} else {
+			BiDi bidi = this.browser.getBiDi();
+			if (bidi == null) {
+				println("WARNING: Browser " + this.browser.getName() + " supports neither DevTools nor WebDriver BiDi, requests cannot be blocked.");
+				return;
+			}
+			blockRequestsWithBiDi(bidi, block);
+		}
+		this.enabled = block;
+		if (DEBUG) debugPrintln("		+ Requests blocking " + (block ? "enabled for " + this.urlPatterns : "disabled"));
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot " + (block ? "enable" : "disable") + " requests blocking: " + wde.getMessage());
+	}
+}
+
+/**
+ * Return the WebDriver BiDi URL pattern matching at least the URLs of the given URL pattern.
+ * <p>
+ * Path wildcards are not supported by BiDi, hence the path is omitted in such a case and
+ * the intercepted requests still have to be checked against the URL pattern.
+ * </p>
+ * @return The BiDi URL pattern as a {@link Map} or <code>null</code> if the host name
+ * or the scheme of the given URL pattern has a wildcard.
+ */
+static Map<String, Object> toBiDiUrlPattern(final String urlPattern) {
+	String pattern = urlPattern;
+	String protocol = null;
+	int schemeEnd = pattern.indexOf("://");
+	if (schemeEnd >= 0) {
+		protocol = pattern.substring(0, schemeEnd);
+		pattern = pattern.substring(schemeEnd + 3);
+	}
+	int pathStart = pattern.indexOf('/');
+	String host = pathStart < 0 ? pattern : pattern.substring(0, pathStart);
+	if (host.isEmpty() || host.indexOf('*') >= 0 || (protocol != null && protocol.indexOf('*') >= 0)) {
+		return null;
+	}
+	Map<String, Object> bidiUrlPattern = new HashMap<String, Object>();
+	bidiUrlPattern.put("type", "pattern");
+	if (protocol != null) {
+		bidiUrlPattern.put("protocol", protocol);
+	}
+	int portStart = host.indexOf(':');
+	if (portStart > 0 && portStart == host.lastIndexOf(':')) {
+		bidiUrlPattern.put("hostname", host.substring(0, portStart));
+		bidiUrlPattern.put("port", host.substring(portStart + 1));
+	} else {
+		bidiUrlPattern.put("hostname", host);
+	}
+	if (pathStart >= 0 && pattern.indexOf('*', pathStart) < 0) {
+		bidiUrlPattern.put("pathname", pattern.substring(pathStart));
+	}
+	return bidiUrlPattern;
+}
+
+/**
+ * Return the regular expression matching the given URL pattern where <code>*</code>
+ * matches any sequence of characters.
+ */
+static String toRegex(final String urlPattern) {
+	StringBuilder regex = new StringBuilder();
+	int start = 0;
+	for (int idx = urlPattern.indexOf('*'); idx >= 0; idx = urlPattern.indexOf('*', start)) {
+		if (idx > start) regex.append(Pattern.quote(urlPattern.substring(start, idx)));
+		regex.append(".*");
+		start = idx + 1;
+	}
+	if (start < urlPattern.length()) regex.append(Pattern.quote(urlPattern.substring(start)));
+	return regex.toString();
+}
+}
@@ -0,0 +1,216 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.*;
+import org.openqa.selenium.json.Json;
+
+import itest.cloud.scenario.error.ServerRequestError;
+
+/**
+ * Detect the XHR and fetch requests of the current page which fail on the server side.
+ * <p>
+ * Responses are checked as they arrive using the DevTools <code>Network</code> events,
+ * hence the detection is only available for local Chromium based browsers. When a failed
+ * request is detected, the test fails with a {@link ServerRequestError} describing the
+ * request at the next page load or element wait (see {@link #check()}), instead of waiting
+ * for an error message to be displayed or for a timeout.
+ * </p><p>
+ * The detection is set using the following parameters:
+ * <ul>
+ * <li>{@link #FAIL_ON_SERVER_ERRORS_ID}: whether the detection is done (default is false),</li>
+ * <li>{@link #SERVER_ERROR_MIN_STATUS_ID}: the lowest HTTP status considered as an error
+ * (default is 500, use 400 to also detect client errors),</li>
+ * <li>{@link #SERVER_ERROR_IGNORED_URLS_ID}: the comma separated list of ignored URL patterns
+ * where <code>*</code> matches any sequence of characters (default is none).</li>
+ * </ul>
+ * </p>
+ */
+public class ServerErrorDetector {
+
+	// Parameters
+	final static String FAIL_ON_SERVER_ERRORS_ID = "failOnServerErrors";
+	final static String SERVER_ERROR_MIN_STATUS_ID = "serverErrorMinStatus";
+	final static String SERVER_ERROR_IGNORED_URLS_ID = "serverErrorIgnoredUrls";
+	final static boolean FAIL_ON_SERVER_ERRORS = getParameterBooleanValue(FAIL_ON_SERVER_ERRORS_ID, false);
+	private final static int MIN_STATUS = getParameterIntValue(SERVER_ERROR_MIN_STATUS_ID, 500);
+
+	// Checked resource types
+	private final static Set<String> CHECKED_TYPES = new HashSet<String>(Arrays.asList("XHR", "Fetch"));
+
+	// Maximum length of the response body attached to the error
+	private final static int MAX_BODY_LENGTH = 2000;
+
+	// Maximum number of requests waiting for their response
+	private final static int MAX_PENDING_REQUESTS = 1000;
+
+	// Browser
+	private final Browser browser;
+
+	// Ignored URLs
+	private final List<Pattern> ignoredUrls = new ArrayList<Pattern>();
+
+	// Requests sent by the current page and detected errors
+	private final Map<String, Map<String, Object>> requests = new HashMap<String, Map<String, Object>>();
+	private final List<Map<String, Object>> errors = new ArrayList<Map<String, Object>>();
+	private volatile boolean hasErrors = false;
+	private boolean started = false;
+
+ServerErrorDetector(final Browser browser) {
+	this.browser = browser;
+	String ignoredUrlsValue = getParameterValue(SERVER_ERROR_IGNORED_URLS_ID);
+	if (ignoredUrlsValue != null) {
+		for (String urlPattern: ignoredUrlsValue.split(",")) {
+			if (urlPattern.trim().length() > 0) {
+				this.ignoredUrls.add(Pattern.compile(RequestBlocker.toRegex(urlPattern.trim())));
+			}
+		}
+	}
+}
+
+/**
+ * Fail if a request of the current page has failed on the server side.
+ * <p>
+ * Detected errors are forgotten once reported, hence a test re-run does not fail
+ * because of the errors of the previous run.
+ * </p>
+ * @throws ServerRequestError If a failed request has been detected.
+ */
+@SuppressWarnings("unchecked")
+void check() throws ServerRequestError {
+	if (!this.hasErrors) return;
+	List<Map<String, Object>> detectedErrors;
+	synchronized (this) {
+		detectedErrors = new ArrayList<Map<String, Object>>(this.errors);
+		this.errors.clear();
+		this.hasErrors = false;
+	}
+	if (detectedErrors.isEmpty()) return;
+
+	// Describe the first failed request, the other ones are listed
+	Map<String, Object> error = detectedErrors.get(0);
+	Map<String, Object> response = (Map<String, Object>) error.get("response");
+	String summary = error.get("method") + " " + response.get("url") + " returned " + response.get("status") + " " + response.get("statusText");
+	StringBuilder details = new StringBuilder(summary);
+	String body = getResponseBody((String) error.get("requestId"));
+	if (body != null) {
+		details.append(LINE_SEPARATOR).append("Response body: ").append(truncate(body));
+	}
+	for (int i = 1; i < detectedErrors.size(); i++) {
+		Map<String, Object> otherResponse = (Map<String, Object>) detectedErrors.get(i).get("response");
+		details.append(LINE_SEPARATOR).append("Other failed request: ").append(detectedErrors.get(i).get("method")).append(" ")
+			.append(otherResponse.get("url")).append(" returned ").append(otherResponse.get("status"));
+	}
+	throw new ServerRequestError(summary, details.toString());
+}
+
+/**
+ * Forget the requests and errors of the previous page.
+ */
+synchronized void clear() {
+	this.requests.clear();
+	this.errors.clear();
+	this.hasErrors = false;
+}
+
+private String getResponseBody(final String requestId) {
+	DevTools devTools = this.browser.getDevTools();
+	if (devTools == null) return null;
+	try {
+		Map<String, Object> result = devTools.send(new Command<Map<String, Object>>("Network.getResponseBody", Collections.singletonMap("requestId", requestId), Json.MAP_TYPE));
+		if (Boolean.TRUE.equals(result.get("base64Encoded"))) {
+			return "<binary content>";
+		}
+		return (String) result.get("body");
+	}
+	catch (WebDriverException wde) {
+		// The body is no longer available, e.g. the page has been unloaded
+		return null;
+	}
+}
+
+private boolean isIgnored(final String url) {
+	for (Pattern ignoredUrl: this.ignoredUrls) {
+		if (ignoredUrl.matcher(url).matches()) {
+			return true;
+		}
+	}
+	return false;
+}
+
+@SuppressWarnings("unchecked")
+private synchronized void onRequestWillBeSent(final Map<String, Object> params) {
+	if (CHECKED_TYPES.contains(params.get("type"))) {
+		Map<String, Object> request = (Map<String, Object>) params.get("request");
+		Map<String, Object> requestInfo = new HashMap<String, Object>();
+		requestInfo.put("method", request.get("method"));
+		// Forget requests which never got a response when too many are pending
+		if (this.requests.size() >= MAX_PENDING_REQUESTS) {
+			this.requests.clear();
+		}
+		this.requests.put((String) params.get("requestId"), requestInfo);
+	}
+}
+
+@SuppressWarnings("unchecked")
+private synchronized void onResponseReceived(final Map<String, Object> params) {
+	Map<String, Object> requestInfo = this.requests.remove(params.get("requestId"));
+	if (requestInfo == null) return;
+	Map<String, Object> response = (Map<String, Object>) params.get("response");
+	int status = ((Number) response.get("status")).intValue();
+	String url = (String) response.get("url");
+	if (status >= MIN_STATUS && !isIgnored(url)) {
+		requestInfo.put("requestId", params.get("requestId"));
+		requestInfo.put("response", response);
+		this.errors.add(requestInfo);
+		this.hasErrors = true;
+		if (DEBUG) debugPrintln("		+ Server error detected: " + requestInfo.get("method") + " " + url + " returned " + status);
+	}
+}
+
+/**
+ * Start detecting server errors.
+ * <p>
+ * A warning is printed if the browser does not support DevTools.
+ * </p>
+ */
+synchronized void start() {
+	if (this.started) return;
+	DevTools devTools = this.browser.getDevTools();
+	if (devTools == null) {
+		println("WARNING: Browser " + this.browser.getName() + " does not support DevTools, server errors cannot be detected.");
+		return;
+	}
+	try {
+		devTools.addListener(new Event<Map<String, Object>>("Network.requestWillBeSent", input -> input.read(Json.MAP_TYPE)), params -> onRequestWillBeSent(params));
+		devTools.addListener(new Event<Map<String, Object>>("Network.responseReceived", input -> input.read(Json.MAP_TYPE)), params -> onResponseReceived(params));
+		devTools.send(new Command<Void>("Network.enable", Collections.emptyMap()));
+		this.started = true;
+		if (DEBUG) debugPrintln("		+ Server errors detection started for " + this.browser.getName() + " browser.");
+	}
+	catch (WebDriverException wde) {
+		println("WARNING: Cannot start server errors detection: " + wde.getMessage());
+	}
+}
+
+private static String truncate(final String text) {
+	return text.length() > MAX_BODY_LENGTH ? text.substring(0, MAX_BODY_LENGTH) + "..." : text;
+}
+}
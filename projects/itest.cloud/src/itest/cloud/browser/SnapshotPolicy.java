@@ -0,0 +1,175 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.util.Iterator;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Define how snapshots are stored.
+ * <p>
+ * The policy is set using the following parameters:
+ * <ul>
+ * <li>{@link #MAX_WIDTH_ID} and {@link #MAX_HEIGHT_ID}: the maximum dimensions of
+ * snapshots, larger ones being downscaled keeping their ratio (default is 0, i.e.
+ * no limit),</li>
+ * <li>{@link #FORMAT_ID}: the image format, <code>png</code> (default), <code>jpg</code>
+ * or any other format supported by an installed {@link ImageIO} writer
+ * (e.g. <code>webp</code>),</li>
+ * <li>{@link #QUALITY_ID}: the compression quality between 0 and 1 for lossy
+ * formats (default is 0.8),</li>
+ * <li><code>snapshotMaxFailures</code>, <code>snapshotMaxWarnings</code> and
+ * <code>snapshotMaxInfos</code>: the maximum number of snapshots kept for each
+ * category, older ones being deleted (default is 0, i.e. no limit).</li>
+ * </ul>
+ * </p><p>
+ * Snapshots are encoded by the snapshots writer thread (see {@link SnapshotWriter}),
+ * hence the policy does not slow tests down.
+ * </p>
+ */
+public class SnapshotPolicy {
+
+	// Parameters
+	final static String MAX_WIDTH_ID = "snapshotMaxWidth";
+	final static String MAX_HEIGHT_ID = "snapshotMaxHeight";
+	final static String FORMAT_ID = "snapshotFormat";
+	final static String QUALITY_ID = "snapshotQuality";
+	private final static int MAX_WIDTH = getParameterIntValue(MAX_WIDTH_ID, 0);
+	private final static int MAX_HEIGHT = getParameterIntValue(MAX_HEIGHT_ID, 0);
+	private final static float QUALITY = (float) getParameterDoubleValue(QUALITY_ID, 0.8);
+	private final static String FORMAT = getFormat(getParameterValue(FORMAT_ID, "png"));
+	private final static int MAX_FAILURES = getParameterIntValue("snapshotMaxFailures", 0);
+	private final static int MAX_WARNINGS = getParameterIntValue("snapshotMaxWarnings", 0);
+	private final static int MAX_INFOS = getParameterIntValue("snapshotMaxInfos", 0);
+
+	// Formats
+	private final static String PNG_FORMAT = "png";
+	private final static String JPEG_FORMAT = "jpg";
+
+	// Categories
+	final static String FAILURES = "failures";
+	final static String WARNINGS = "warnings";
+	final static String INFOS = "infos";
+
+/**
+ * Encode the given PNG snapshot according to the policy.
+ *
+ * @param png The snapshot as taken by the browser
+ * @return The encoded snapshot, the given one if there's nothing to change
+ * @throws IOException If the snapshot cannot be decoded or encoded
+ */
+static byte[] encode(final byte[] png) throws IOException {
+	if (MAX_WIDTH <= 0 && MAX_HEIGHT <= 0 && FORMAT.equals(PNG_FORMAT)) {
+		return png;
+	}
+	BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+	if (image == null) {
+		throw new IOException("Cannot decode snapshot.");
+	}
+
+	// Downscale the image if necessary
+	double ratio = 1;
+	if (MAX_WIDTH > 0 && image.getWidth() > MAX_WIDTH) {
+		ratio = (double) MAX_WIDTH / image.getWidth();
+	}
+	if (MAX_HEIGHT > 0 && image.getHeight() * ratio > MAX_HEIGHT) {
+		ratio = (double) MAX_HEIGHT / image.getHeight();
+	}
+	boolean opaque = !FORMAT.equals(PNG_FORMAT);
+	if (ratio < 1 || opaque) {
+		int width = Math.max(1, (int) (image.getWidth() * ratio));
+		int height = Math.max(1, (int) (image.getHeight() * ratio));
+		BufferedImage scaledImage = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = scaledImage.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		image = scaledImage;
+	}
+
+	// Write the image in the expected format
+	ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT).next();
+	ByteArrayOutputStream output = new ByteArrayOutputStream();
+	try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+		writer.setOutput(stream);
+		ImageWriteParam param = writer.getDefaultWriteParam();
+		if (!FORMAT.equals(PNG_FORMAT) && param.canWriteCompressed()) {
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			if (param.getCompressionType() == null) {
+				param.setCompressionType(param.getCompressionTypes()[0]);
+			}
+			param.setCompressionQuality(QUALITY);
+		}
+		writer.write(null, new IIOImage(image, null, null), param);
+	}
+	finally {
+		writer.dispose();
+	}
+	return output.toByteArray();
+}
+
+/**
+ * Return the file extension for the snapshots format.
+ *
+ * @return The extension including the dot, e.g. <code>.png</code>
+ */
+static String getExtension() {
+	return "." + FORMAT;
+}
+
+private static String getFormat(final String format) {
+	String imageFormat = format.toLowerCase();
+	if (imageFormat.equals("jpeg")) {
+		imageFormat = JPEG_FORMAT;
+	}
+	Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(imageFormat);
+	if (!writers.hasNext()) {
+		println("WARNING: No image writer available for snapshot format '" + format + "', " + PNG_FORMAT + " will be used instead.");
+		return PNG_FORMAT;
+	}
+	return imageFormat;
+}
+
+/**
+ * Return the maximum number of snapshots kept for the given category.
+ *
+ * @param category The snapshots category: {@link #FAILURES}, {@link #WARNINGS} or {@link #INFOS}
+ * @return The maximum number of snapshots or 0 if there's no limit
+ */
+static int getMaxSnapshots(final String category) {
+	switch (category) {
+		case FAILURES:
+			return MAX_FAILURES;
+		case WARNINGS:
+			return MAX_WARNINGS;
+		case INFOS:
+			return MAX_INFOS;
+		default:
+			throw new IllegalArgumentException("Unexpected snapshot category: " + category);
+	}
+}
+}
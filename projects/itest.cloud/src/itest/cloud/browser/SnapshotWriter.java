@@ -0,0 +1,198 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.browser;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write snapshots files in background.
+ * <p>
+ * Snapshots are taken as bytes by the test thread and handed over to a single writer
+ * thread, hence tests do not wait for the file system. Files are reserved by creating
+ * them empty, hence runs sharing the same snapshots directory never overwrite each
+ * other's snapshots.
+ * </p><p>
+ * Snapshots having the same content (e.g. the same page captured as a failure, then as
+ * a warning) are written only once: next files are hard links to the first one.
+ * When hard links are not supported by the file system, the content is written again.
+ * </p><p>
+ * Snapshots are encoded and the oldest ones deleted according to the {@link SnapshotPolicy}.
+ * </p>
+ */
+public class SnapshotWriter {
+
+	// Maximum time to wait for pending snapshots to be written
+	private final static int SHUTDOWN_TIMEOUT = 60;
+
+	// Number of snapshots already using each file name
+	private final static Map<String, AtomicInteger> FILE_NAMES = new ConcurrentHashMap<String, AtomicInteger>();
+
+	// First file written for each snapshot content, only used by the writer thread
+	private final static Map<String, Path> CONTENTS = new ConcurrentHashMap<String, Path>();
+
+	// Files written for each snapshot category, oldest first, only used by the writer thread
+	private final static Map<String, Deque<Path>> CATEGORY_FILES = new HashMap<String, Deque<Path>>();
+
+	// Writer
+	private static ExecutorService WRITER;
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(), "snapshot-writer-shutdown"));
+	}
+
+private static String getContentHash(final byte[] bytes) {
+	try {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+		StringBuilder builder = new StringBuilder(bytes.length + "_");
+		for (byte b: digest) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+	catch (NoSuchAlgorithmException nsae) {
+		// Should not happen as all JVMs support SHA-256, never dedupe in such a case
+		return null;
+	}
+}
+
+/**
+ * Return a unique file for the given snapshot name.
+ * <p>
+ * The first snapshot gets the given name, next ones get a numeric suffix.
+ * The file is created empty to reserve it. When it already exists (e.g. written
+ * by another run sharing the same directory), the next suffix is tried.
+ * </p>
+ * @param dir The snapshots directory
+ * @param prefix The snapshot file name prefix
+ * @param extension The snapshot file name extension, including the dot
+ * @return The file as a {@link File}
+ */
+static File getUniqueFile(final File dir, final String prefix, final String extension) {
+	AtomicInteger counter = FILE_NAMES.computeIfAbsent(dir.getAbsolutePath() + File.separator + prefix, name -> new AtomicInteger());
+	while (true) {
+		int idx = counter.getAndIncrement();
+		File file = idx == 0
+			? new File(dir, prefix + extension)
+			: new File(dir, prefix + (idx < 10 ? "_0" : "_") + idx + extension);
+		try {
+			Files.write(file.toPath(), new byte[0], StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+			return file;
+		}
+		catch (FileAlreadyExistsException faee) {
+			if (DEBUG) debugPrintln("		+ Snapshot file " + file + " already exists, try next one.");
+		}
+		catch (IOException ioe) {
+			// Let the writer report the error
+			println("WARNING: Cannot create snapshot file " + file + ": " + ioe.getMessage());
+			return file;
+		}
+	}
+}
+
+private static synchronized ExecutorService getWriter() {
+	if (WRITER == null) {
+		WRITER = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "snapshot-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	return WRITER;
+}
+
+/**
+ * Wait for all pending snapshots to be written and stop the writer.
+ */
+public static synchronized void shutdown() {
+	if (WRITER != null) {
+		WRITER.shutdown();
+		try {
+			if (!WRITER.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+				println("WARNING: Some snapshots were not written after " + SHUTDOWN_TIMEOUT + " seconds.");
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		WRITER = null;
+	}
+}
+
+private static void applyRetention(final String category, final Path path) {
+	int maxSnapshots = SnapshotPolicy.getMaxSnapshots(category);
+	if (maxSnapshots <= 0) return;
+	Deque<Path> files = CATEGORY_FILES.computeIfAbsent(category, name -> new ArrayDeque<Path>());
+	files.add(path);
+	while (files.size() > maxSnapshots) {
+		Path oldest = files.poll();
+		try {
+			Files.deleteIfExists(oldest);
+			CONTENTS.values().remove(oldest);
+			if (DEBUG) debugPrintln("		+ Snapshot " + oldest + " deleted to keep only " + maxSnapshots + " " + category + " snapshots.");
+		}
+		catch (IOException ioe) {
+			println("WARNING: Cannot delete snapshot " + oldest + ": " + ioe.getMessage());
+		}
+	}
+}
+
+/**
+ * Write the given snapshot to the given file in background.
+ *
+ * @param bytes The snapshot content as taken by the browser
+ * @param file The file to write, typically got from {@link #getUniqueFile(File, String, String)}
+ * @param category The snapshot category, see {@link SnapshotPolicy#getMaxSnapshots(String)}
+ */
+static void write(final byte[] bytes, final File file, final String category) {
+	getWriter().submit(() -> {
+		Path path = file.toPath();
+		try {
+			String hash = getContentHash(bytes);
+			Path existing = hash == null ? null : CONTENTS.putIfAbsent(hash, path);
+			boolean linked = false;
+			if (existing != null) {
+				try {
+					// Replace the empty reserved file by the link
+					Files.deleteIfExists(path);
+					Files.createLink(path, existing);
+					linked = true;
+					if (DEBUG) debugPrintln("		+ Snapshot " + path + " is identical to " + existing + ", hard link created.");
+				}
+				catch (IOException | UnsupportedOperationException ex) {
+					// Hard link not possible, write the content again and use it for next duplicates
+					CONTENTS.put(hash, path);
+				}
+			}
+			if (!linked) {
+				// Overwrite the empty file reserved by getUniqueFile()
+				Files.write(path, SnapshotPolicy.encode(bytes), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			}
+			applyRetention(category, path);
+		}
+		catch (IOException ioe) {
+			printException(ioe);
+			println("		  -> cannot write snapshot " + path + "!!!");
+		}
+	});
+}
+}
@@ -16,7 +16,9 @@ package itest.cloud.config;
 import static itest.cloud.config.Timeouts.*;
 
 import itest.cloud.browser.Browser;
+import itest.cloud.browser.BrowserPool;
 import itest.cloud.page.Page;
+import itest.cloud.scenario.ScenarioStartup;
 import itest.cloud.topology.Topology;
 
 /**
@@ -46,11 +48,13 @@ abstract public class Config implements IConfig {
 
 public Config() {
 	// Init topology
+	long start = System.nanoTime();
 	initTopology();
+	ScenarioStartup.record("Topology", start);
 	// Init timeouts
 	initTimeouts();
 	// Init browser
-	this.browser = Browser.createInstance();
+	this.browser = BrowserPool.acquire();
 }
 
 public Config(final Config config) {
@@ -173,6 +177,6 @@ abstract protected void initTopology();
  */
 public Browser openNewBrowser() {
 	this.browser.close();
-	return this.browser = Browser.createInstance();
+	return this.browser = BrowserPool.acquire();
 }
 }
\ No newline at end of file
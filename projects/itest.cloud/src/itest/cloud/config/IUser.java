@@ -45,6 +45,19 @@ public String getName();
  */
 public String getPassword();
 
+/**
+ * Return the user password.
+ * <p>
+ * This method should be preferred to {@link #getPassword()} as the returned
+ * array can be overwritten once used.
+ * </p>
+ * @return A copy of the password as a <code>char[]</code>
+ */
+default char[] getPasswordChars() {
+	String password = getPassword();
+	return password == null ? null : password.toCharArray();
+}
+
 /**
  * Return whether the user matches the given one.
  *
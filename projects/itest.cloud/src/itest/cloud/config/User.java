@@ -16,9 +16,12 @@ package itest.cloud.config;
 import static itest.cloud.scenario.ScenarioUtil.*;
 import static itest.cloud.util.EncryptionUtil.decrypt;
 
+import java.util.Arrays;
+
 import org.openqa.selenium.InvalidArgumentException;
 
 import itest.cloud.scenario.error.ScenarioFailedError;
+import itest.cloud.util.CredentialVault;
 
 /**
  * User connected to an application while going to a web page.
@@ -167,15 +170,31 @@ final public String getName() {
  * Return the user password.
  *
  * @return The password as {@link String}
+ * @see #getPasswordChars()
  */
 @Override
 final public String getPassword() {
 	if (this.encrypted) {
-		return decrypt(this.password);
+		char[] password = getPasswordChars();
+		try {
+			return new String(password);
+		}
+		finally {
+			Arrays.fill(password, '\0');
+		}
 	}
 	return this.password;
 }
 
+@Override
+final public char[] getPasswordChars() {
+	if (this.encrypted) {
+		// Decrypt the password only once
+		return CredentialVault.getChars(this.password);
+	}
+	return this.password == null ? null : this.password.toCharArray();
+}
+
 @Override
 public int hashCode() {
     return this.id.hashCode();
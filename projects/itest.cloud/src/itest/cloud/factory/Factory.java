@@ -15,9 +15,13 @@ package itest.cloud.factory;
 
 import static itest.cloud.scenario.ScenarioUtil.*;
 
+import java.io.*;
 import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
+import itest.cloud.scenario.ScenarioStartup;
 import itest.cloud.scenario.error.ScenarioFailedError;
 import itest.cloud.util.CustomClassLoader;
 
@@ -37,44 +41,17 @@ public abstract class Factory {
 
 	private final static List<Package> KNOWN_PACKAGES = new ArrayList<Package>();
 	private final static Map<String, Class<?>> KNOWN_CLASSES = new HashMap<String, Class<?>>();
-	private final static String[] FACTORY_CLASSES = {
-		"com.ibm.team.cspf.jazz.internal.factories.JazzApplicationFactory",
-		"com.ibm.team.cspf.clm.internal.factories.ClmWebPageFactory",
-		"com.ibm.team.cspf.report.internal.factories.ReportWebPageFactory",
-	};
-	private final static Factory[] FACTORIES;
-	static {
-		int length = FACTORY_CLASSES.length;
-		FACTORIES = new Factory[length];
-		for (int i=0; i<length; i++) {
-			try {
-	            @SuppressWarnings("unchecked")
-                Class<Factory> factoryClass = (Class<Factory>) CustomClassLoader.forName(FACTORY_CLASSES[i]);
-	            Field instance = factoryClass.getField("INSTANCE");
-	            FACTORIES[i] = (Factory) instance.get(null);
-	            if (FACTORIES[i] != null) {
-		            Map<String, Class<?>> mismatches = FACTORIES[i].mismatches;
-		            if (mismatches.size() > 0) {
-		            	String message = "Some classes does not match for factory "+getClassSimpleName(FACTORY_CLASSES[i]);
-						println("WARNING: "+message);
-		            	for (String className: mismatches.keySet()) {
-		            		Class<?> mismatchClass = mismatches.get(className);
-		            		println("	- class name: "+className+", class: "+mismatchClass.getSimpleName());
-		            	}
-		            	println("=> A refactoring surely occurred, hence class name(s) must be changed accordingly.");
-		            	if (getParameterBooleanValue("checkFactory")) {
-		            		throw new ScenarioFailedError(message);
-		            	}
-		            }
-	            }
-            } catch (Exception e) {
-            	debugPrintln("		+ INFO: Factory '"+FACTORY_CLASSES[i]+"' has not been found.");
-            }
-		}
-	}
+	/*
+	 * Registered factories, loaded lazily (see #getFactories()).
+	 */
+	private final static String FACTORIES_RESOURCE = "META-INF/services/itest.cloud.factory.Factory";
+	private final static List<Factory> FACTORIES = new ArrayList<Factory>();
+	private static boolean FACTORIES_LOADED = false;
 	final Map<String, Class<?>> mismatches = new HashMap<String, Class<?>>();
 
 protected Factory(final Map<String, Class<?>> classes) {
+	// Factories only providing static creation methods (e.g. WindowFactory) do not declare any class
+	if (classes == null) return;
 	for (String className: classes.keySet()) {
 		Class<?> newClass = classes.get(className);
 		Package classPackage = newClass.getPackage();
@@ -94,12 +71,21 @@ protected Factory(final Map<String, Class<?>> classes) {
 	}
 }
 
-protected static Class<?> getClassForName(final String className) throws ScenarioFailedError {
+protected static synchronized Class<?> getClassForName(final String className) throws ScenarioFailedError {
+	// Known classes are declared by factories, hence they need to be loaded first
+	getFactories();
 	Class<?> knownClass = KNOWN_CLASSES.get(className);
 	if (knownClass == null) {
 		for (Package javaPackage: KNOWN_PACKAGES) {
+			// Check the class file exists first to avoid probing with exceptions
+			String qualifiedName = javaPackage.getName()+"."+className;
+			if (CustomClassLoader.getResource(qualifiedName.replace('.', '/')+".class") == null) {
+				continue;
+			}
 			try {
-				return CustomClassLoader.forName(javaPackage.getName()+"."+className);
+				knownClass = CustomClassLoader.forName(qualifiedName);
+				KNOWN_CLASSES.put(className, knownClass);
+				return knownClass;
 			}
 			catch (ClassNotFoundException cnfe) {
 				// skip
@@ -111,6 +97,71 @@ protected static Class<?> getClassForName(final String className) throws Scenari
 	return knownClass;
 }
 
+/**
+ * Return the registered factories.
+ * <p>
+ * Factories are looked up the first time this method is called. To be found, a factory
+ * class must be listed in a <code>META-INF/services/itest.cloud.factory.Factory</code>
+ * resource (same format as {@link ServiceLoader} files). Its instance is read from its
+ * public static <code>INSTANCE</code> field when it has one, otherwise it is created
+ * using its public no-argument constructor. Factories can also be registered explicitly
+ * (see {@link #register(Factory)}).
+ * </p>
+ * @return The factories as a {@link List}
+ */
+protected static synchronized List<Factory> getFactories() {
+	if (!FACTORIES_LOADED) {
+		FACTORIES_LOADED = true;
+		long start = System.nanoTime();
+		for (String factoryClassName: getFactoryClassNames()) {
+			try {
+				Class<?> factoryClass = CustomClassLoader.forName(factoryClassName);
+				Factory factory;
+				try {
+					Field instance = factoryClass.getField("INSTANCE");
+					factory = (Factory) instance.get(null);
+				}
+				catch (NoSuchFieldException nsfe) {
+					factory = (Factory) factoryClass.getConstructor().newInstance();
+				}
+				if (factory != null) {
+					register(factory);
+				}
+			}
+			catch (Exception | LinkageError ex) {
+				println("WARNING: Cannot load factory '"+factoryClassName+"': " + ex);
+			}
+		}
+		ScenarioStartup.record("Factories", start);
+		if (DEBUG) debugPrintln("		+ " + FACTORIES.size() + " factories registered.");
+	}
+	return Collections.unmodifiableList(new ArrayList<Factory>(FACTORIES));
+}
+
+private static Set<String> getFactoryClassNames() {
+	Set<String> classNames = new LinkedHashSet<String>();
+	try {
+		Enumeration<URL> resources = CustomClassLoader.getResources(FACTORIES_RESOURCE);
+		while (resources.hasMoreElements()) {
+			URL resource = resources.nextElement();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					int comment = line.indexOf('#');
+					String className = (comment < 0 ? line : line.substring(0, comment)).trim();
+					if (!className.isEmpty()) {
+						classNames.add(className);
+					}
+				}
+			}
+		}
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot read factories declarations: " + ioe.getMessage());
+	}
+	return classNames;
+}
+
 private static List<Package> getPackages() {
 	List<Package> cpsfPackages = new ArrayList<Package>();
 	for (Package javaPackage: Package.getPackages()) {
@@ -120,4 +171,32 @@ private static List<Package> getPackages() {
 	}
 	return cpsfPackages;
 }
+
+/**
+ * Register the given factory.
+ * <p>
+ * Warn if some of the factory class names do not match the name of the class
+ * they're associated with, which typically happens after a refactoring.
+ * </p>
+ * @param factory The factory to register
+ * @throws ScenarioFailedError If some class names do not match and the
+ * <code>checkFactory</code> parameter is set.
+ */
+public static synchronized void register(final Factory factory) throws ScenarioFailedError {
+	if (FACTORIES.contains(factory)) return;
+	FACTORIES.add(factory);
+	Map<String, Class<?>> mismatches = factory.mismatches;
+	if (mismatches.size() > 0) {
+		String message = "Some classes does not match for factory "+getClassSimpleName(factory.getClass());
+		println("WARNING: "+message);
+		for (String className: mismatches.keySet()) {
+			Class<?> mismatchClass = mismatches.get(className);
+			println("	- class name: "+className+", class: "+mismatchClass.getSimpleName());
+		}
+		println("=> A refactoring surely occurred, hence class name(s) must be changed accordingly.");
+		if (getParameterBooleanValue("checkFactory")) {
+			throw new ScenarioFailedError(message);
+		}
+	}
+}
 }
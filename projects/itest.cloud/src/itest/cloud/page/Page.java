@@ -22,6 +22,7 @@ import static itest.cloud.scenario.ScenarioUtil.*;
 import static itest.cloud.util.ObjectUtil.matches;
 import static org.openqa.selenium.Keys.TAB;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.*;
@@ -34,14 +35,17 @@ import org.openqa.selenium.interactions.Action;
 
 import itest.cloud.PageWorkaround;
 import itest.cloud.browser.Browser;
+import itest.cloud.browser.BrowserSessionCache;
 import itest.cloud.config.*;
 import itest.cloud.nls.NlsMessages;
 import itest.cloud.page.element.*;
 import itest.cloud.performance.PerfManager;
 import itest.cloud.performance.PerfManager.RegressionType;
+import itest.cloud.scenario.ScenarioStartup;
 import itest.cloud.scenario.error.*;
 import itest.cloud.topology.Application;
 import itest.cloud.topology.Topology;
+import itest.cloud.util.ConstructorUtil;
 
 /**
  * The abstract class for any web page connected to a {@link Browser}.
@@ -60,6 +64,8 @@ import itest.cloud.topology.Topology;
  * This class provides the following basic functionalities:
  * <ul>
  * <li>{@link #get()}: get page content.</li>
+ * <li>{@link #resetBrowserSession()}: Reset the current browser session to get
+ * back to a clean state.</li>
  * <li>{@link #startNewBrowserSession()}: Close the current browser session and
  * open a new one.</li>
  * </ul>
@@ -78,12 +84,8 @@ public abstract class Page implements IPage {
 	public final static String[] NO_DATA = null;
 
 	private final static String VERIFY_PAGE_USER_ARGUMENT = "verifyPageUser";
-	// Pages cache
-	private final static ThreadLocal<List<Page>> PAGES_HISTORY = new ThreadLocal<List<Page>>();
-
-	static {
-		PAGES_HISTORY.set(new ArrayList<Page>());
-	}
+	// Pages cache (one history per thread as steps may run in parallel)
+	private final static ThreadLocal<List<Page>> PAGES_HISTORY = ThreadLocal.withInitial(() -> new ArrayList<Page>());
 
 	private static void addPageToHistory(final Page e) {
 		getPagesHistory().add(e);
@@ -120,38 +122,35 @@ public abstract class Page implements IPage {
 	// TODO Move page creation and cache to WebBrowser
 	@SuppressWarnings("unchecked")
 	protected static <P> P createPageInstance(final String location, final Config config, final User user, final Class<P> pageClass, final String... data) {
-		Exception exception = null;
 		Class<? extends User> userClass = user == null ? User.class : user.getClass();
 		while (userClass.getSuperclass() != null) {
 			Class<? extends Config> configClass = config.getClass();
 			while (configClass.getSuperclass() != null) {
 				try {
+					// Constructors are cached, hence the lookup is only done once per classes combination
 					if (data == null || data.length == 0) {
-						Constructor<P> constructor = pageClass.getConstructor(String.class, configClass, userClass);
-						return constructor.newInstance(location, config, user);
-					}
-					Constructor<P> constructor = pageClass.getConstructor(String.class, configClass, userClass, String[].class);
-					return constructor.newInstance(location, config, user, data);
-				}
-				catch (NoSuchMethodException ex) {
-					if (exception == null) {
-						exception = ex;
+						MethodHandle constructor = ConstructorUtil.getConstructor(pageClass, String.class, configClass, userClass);
+						if (constructor != null) {
+							return ConstructorUtil.newInstance(constructor, location, config, user);
+						}
+					} else {
+						MethodHandle constructor = ConstructorUtil.getConstructor(pageClass, String.class, configClass, userClass, String[].class);
+						if (constructor != null) {
+							return ConstructorUtil.newInstance(constructor, location, config, user, data);
+						}
 					}
 				}
 				catch (InvocationTargetException ex) {
 					// Application can crash by returning error 500.
 					// This type of error is typically associated with an InvocationTargetException.
 					println("InvocationTargetException cause: " + ex.getCause());
-					throw new BrowserError(ex);
-				}
-				catch (Exception ex) {
-					throw new ScenarioFailedError(ex);
+					throw new BrowserError(ex.getCause());
 				}
 				configClass = (Class< ? extends Config>) configClass.getSuperclass();
 			}
 			userClass = (Class< ? extends User>) userClass.getSuperclass();
 		}
-		throw new ScenarioFailedError(exception);
+		throw new ScenarioFailedError("Cannot find a constructor of "+pageClass.getName()+" for location, config, user"+(data == null || data.length == 0 ? "" : " and data")+" parameters.");
 	}
 	/**
 	 * Return the current page displayed on the browser.
@@ -1531,18 +1530,28 @@ private boolean isValidUrl(final String url) {
 protected void load() {
 	debugPrintln("		+ Load the current page: "+this.location);
 
+	boolean profileStartup = ScenarioStartup.isRunning();
 	if (!matchBrowserUrl() || (this.loginUser != null)) {
 		// Load the page if the browser does not match the current page location.
+		long start = System.nanoTime();
 		this.browser.get(this.location);
+		if (profileStartup) ScenarioStartup.record("First page get", start);
 
 		// Login if necessary
+		User loggedUser = null;
 		if (this.loginUser != null) {
-			if (DEBUG) debugPrintln("		  -> should login");
-			performLogin(this.loginUser);
+			start = System.nanoTime();
+			if (!restoreCachedSession(this.loginUser)) {
+				if (DEBUG) debugPrintln("		  -> should login");
+				performLogin(this.loginUser);
+				loggedUser = this.loginUser;
+			}
 			this.loginUser = null;
+			if (profileStartup) ScenarioStartup.record("Login", start);
 		}
 
 		// Wait for the initial page loading
+		start = System.nanoTime();
 		waitInitialPageLoading();
 
 		// Add page to history
@@ -1551,8 +1560,21 @@ protected void load() {
 	   	// Wait for the end of the page loading
 		waitForLoadingPageEnd();
 
+		// Fail immediately if a request has failed on server side while loading the page
+		this.browser.checkServerErrors();
+
+		// Cache the session of the user who has just logged in
+		if (loggedUser != null) {
+			BrowserSessionCache.capture(this.browser, loggedUser, this.application);
+		}
+
 		// Prepare the page by disabling or suppressing unwanted elements such as notifications, tours, ...etc.
 		prepare();
+		if (profileStartup) ScenarioStartup.record("First page loading", start);
+
+		// Report the third-party requests blocked while loading the page
+		int blockedRequests = this.browser.getBlockedRequestsCount();
+		if (DEBUG && blockedRequests > 0) debugPrintln("		  -> " + blockedRequests + " third-party requests blocked while loading page " + this.location);
 	}
 	else {
 		// Add page to history
@@ -1569,6 +1591,9 @@ protected void load() {
 
 	// Wait for the title if one is expected.
 	if (isTitleExpected()) waitForTitle();
+
+	// The scenario startup ends with the first page load
+	if (profileStartup) ScenarioStartup.finish(true /*checkBudget*/);
 }
 
 /**
@@ -2381,6 +2406,81 @@ public void refresh() {
 	prepare();
 }
 
+/**
+ * Reset the current browser session to get back to a clean state.
+ * <p>
+ * The browser session is reset in place when the browser supports it (see
+ * {@link Browser#softReset()}), which is much faster than restarting the browser.
+ * Otherwise, or if the soft reset fails, the browser is restarted
+ * (see {@link #startNewBrowserSession()}).
+ * </p>
+ */
+public void resetBrowserSession() {
+	if (!this.browser.softReset()) {
+		startNewBrowserSession();
+		return;
+	}
+
+	// Clear page cache
+	getPagesHistory().clear();
+
+	//Clear login data
+	getTopology().logoutApplications();
+}
+
+/**
+ * Restore the cached session of the given user instead of performing a login
+ * operation (see {@link BrowserSessionCache}).
+ * <p>
+ * The restored session is checked by looking for the logged user element or,
+ * if the page has none, by checking that the browser is still on the page location.
+ * If the check fails, the cached session is invalidated and the page location
+ * is reloaded for a full login.
+ * </p>
+ * @param user The user to log in
+ * @return <code>true</code> if the session was restored, <code>false</code> if
+ * the login operation still has to be performed.
+ */
+protected boolean restoreCachedSession(final User user) {
+	if (!BrowserSessionCache.restore(this.browser, user, this.application, this.location)) {
+		return false;
+	}
+
+	// Check that the restored session is still valid
+	boolean valid;
+	if (getLoggedUserElementLocator() == null) {
+		valid = matchBrowserUrl();
+	} else {
+		BrowserElement loggedUserElement = getLoggedUserElement(false /*fail*/, shortTimeout());
+		valid = loggedUserElement != null && matchDisplayedUser(user, loggedUserElement);
+	}
+	if (valid) {
+		if (DEBUG) debugPrintln("		  -> restored cached session of user "+user.getId());
+		// Store user in the application
+		this.topology.login(this.browser.getCurrentUrl(), user);
+		return true;
+	}
+
+	// Session has expired, login is necessary
+	if (DEBUG) debugPrintln("		  -> cached session of user "+user.getId()+" has expired");
+	BrowserSessionCache.invalidate(user, this.application);
+	// Remove the restored local storage as well as the cookies
+	try {
+		this.browser.executeScript("window.localStorage.clear();");
+	}
+	catch (WebDriverException wde) {
+		if (DEBUG) debugPrintln("		  -> cannot clear local storage: "+wde.getMessage());
+	}
+	// Cookies were restored for all domains, hence clear them all when possible
+	if (this.browser.isCdpSupported()) {
+		this.browser.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+	} else {
+		this.driver.manage().deleteAllCookies();
+	}
+	this.driver.get(this.location);
+	return false;
+}
+
 /**
  * Perform a mouse hovering over the given link element.
  *
@@ -2615,6 +2715,16 @@ public void takeSnapshotFailure(final String fileName) {
 	this.browser.takeSnapshotFailure(fileName);
 }
 
+/**
+ * Takes a failure snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotFailure(final String fileName, final WebElement element) {
+	this.browser.takeSnapshotFailure(fileName, element);
+}
+
 /**
  * Takes an information snapshot.
  *
@@ -2624,6 +2734,16 @@ public void takeSnapshotInfo(final String fileName) {
 	this.browser.takeSnapshotInfo(fileName);
 }
 
+/**
+ * Takes an information snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotInfo(final String fileName, final WebElement element) {
+	this.browser.takeSnapshotInfo(fileName, element);
+}
+
 /**
  * Takes a warning snapshot.
  *
@@ -2633,6 +2753,16 @@ public void takeSnapshotWarning(final String fileName) {
 	this.browser.takeSnapshotWarning(fileName);
 }
 
+/**
+ * Takes a warning snapshot of the given element only.
+ *
+ * @param fileName The name of the snapshot file.
+ * @param element The element to take the snapshot of.
+ */
+public void takeSnapshotWarning(final String fileName, final WebElement element) {
+	this.browser.takeSnapshotWarning(fileName, element);
+}
+
 /**
  * Return the general timeout used on the page.
  *
@@ -3811,6 +3941,9 @@ public BrowserElement[] waitForMultipleElements(final int time_out, final By...
  * Wait for the ready state of the page.
  */
 protected void waitForReadyState() {
+	// Wait for the browser notifying the end of the navigation when possible,
+	// the document state is then usually complete at the first check.
+	this.browser.waitForNavigationsEnd(openTimeout());
 	long timeoutMillis = openTimeout() * 1000 + System.currentTimeMillis();
 	while (!this.browser.executeScript("return document.readyState").equals("complete")) {
 		if (System.currentTimeMillis() > timeoutMillis) {
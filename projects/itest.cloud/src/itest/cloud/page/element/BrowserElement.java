@@ -21,7 +21,9 @@ import static itest.cloud.util.ByUtils.fixLocator;
 import static itest.cloud.util.ByUtils.getNormalizedLocatorString;
 import static java.lang.Boolean.parseBoolean;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.openqa.selenium.*;
@@ -32,7 +34,6 @@ import org.openqa.selenium.remote.UnreachableBrowserException;
 
 import itest.cloud.browser.Browser;
 import itest.cloud.config.IUser;
-import itest.cloud.config.User;
 import itest.cloud.page.frame.BrowserFrame;
 import itest.cloud.scenario.error.*;
 
@@ -308,14 +309,14 @@ private void catchWebDriverException(final WebDriverException wde, final String
 		try {
 			if (	recover(n) || !recovery) return;
 			if (n++ >= MAX_RECOVERY_ATTEMPTS) {
-				debugPrintln("Cannot recover even after "+MAX_RECOVERY_ATTEMPTS+" retries... give up");
+				debugPrintln(() -> "Cannot recover even after "+MAX_RECOVERY_ATTEMPTS+" retries... give up");
 				return;
 			}
 		}
 		catch (WebDriverException ex) {
 			// Give up right now if the exception is too serious
 			if (!(ex instanceof StaleElementReferenceException)) {
-				debugPrintln("Fatal exception occured when "+title+"'... give up");
+				debugPrintln(() -> "Fatal exception occured when "+title+"'... give up");
 		    	debugPrintException(ex);
 				throw ex;
 			}
@@ -325,13 +326,13 @@ private void catchWebDriverException(final WebDriverException wde, final String
 
 			// Give up if too many failures occurred
 			if (n++ >= MAX_RECOVERY_ATTEMPTS) {
-				debugPrintln("More than "+MAX_RECOVERY_ATTEMPTS+" exceptions occured when trying to find again the "+this.by+"'... give up");
+				debugPrintln(() -> "More than "+MAX_RECOVERY_ATTEMPTS+" exceptions occured when trying to find again the "+this.by+"'... give up");
 		    	debugPrintException(ex);
 				throw wde;
 			}
 
 			// Workaround
-			debugPrint("ScenarioWorkaround exception when trying to find again the "+this.by+"': ");
+			debugPrint(() -> "ScenarioWorkaround exception when trying to find again the "+this.by+"': ");
 			debugPrintException(ex);
 		}
 	}
@@ -463,7 +464,14 @@ public void doubleClickViaJavaScript() {
  * @since 6.0
  */
 public void enterPassword(final IUser user) {
-	sendKeys(true/*recovery*/, true/*password*/, ((User)user).getPassword());
+	char[] password = user.getPasswordChars();
+	try {
+		// The password is only converted to a String by the driver
+		sendKeys(true/*recovery*/, true/*password*/, CharBuffer.wrap(password));
+	}
+	finally {
+		Arrays.fill(password, '\0');
+	}
 }
 
 @Override
@@ -557,7 +565,7 @@ public BrowserElement findElement(final By locator, final BrowserFrame webFrame,
 			return null;
 		}
 		catch (UnhandledAlertException uae) {
-			this.browser.purgeAlerts("Finding element '"+fixedLocator+"'");
+			this.browser.purgeAlerts("Finding element '"+fixedLocator+"'", true /*alertOpen*/);
 			if (!recovery) {
 				return null;
 			}
@@ -665,7 +673,7 @@ public List<WebElement> findElements(final By locator, final boolean displayed,
 			return Browser.NO_ELEMENT_FOUND;
 		}
 		catch (UnhandledAlertException uae) {
-			this.browser.purgeAlerts("Finding element '"+fixedLocator+"'");
+			this.browser.purgeAlerts("Finding element '"+fixedLocator+"'", true /*alertOpen*/);
 			if (!recovery) {
 				return Browser.NO_ELEMENT_FOUND;
 			}
@@ -1448,7 +1456,7 @@ public void moveToElement(final boolean entirelyVisible) {
  * WebBrowserElement as parent, then recover it first.
  */
 private boolean recover(final int n) {
-	debugPrintln("		+ Recover "+this);
+	debugPrintln(() -> "		+ Recover "+this);
 
 	// If there's a parent, then recover it first
 	if (this.context instanceof BrowserElement) {
@@ -1458,7 +1466,7 @@ private boolean recover(final int n) {
 		}
 	}
 
-	debugPrint("		  -> find element {"+this.by+"}");
+	debugPrint(() -> "		  -> find element {"+this.by+"}");
 	WebElement recoveredElement = null;
 	if (this.parentListSize == 0) {
 
@@ -1483,7 +1491,7 @@ private boolean recover(final int n) {
 
 		// If no element was found, give up now
 		final int size = foundElements.size();
-		debugPrintln("		  -> found "+size+" elements:");
+		debugPrintln(() -> "		  -> found "+size+" elements:");
 		if (size == 0) {
 			debugPrintln("		  -> no element found => cannot recover, hence give up");
 			return false;
@@ -1539,7 +1547,7 @@ private boolean recover(final int n) {
 
 	// Give up if no element was found
 	if (recoveredElement == null) {
-		debugPrintln("WARNING: Cannot recover web element for "+this.by+"!");
+		debugPrintln(() -> "WARNING: Cannot recover web element for "+this.by+"!");
 		return false;
 	}
 
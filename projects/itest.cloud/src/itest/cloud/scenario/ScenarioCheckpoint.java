@@ -0,0 +1,113 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import itest.cloud.config.Config;
+import itest.cloud.config.User;
+import itest.cloud.page.Page;
+
+/**
+ * A checkpoint reached by a test.
+ * <p>
+ * A checkpoint captures where the test was when it was reached, i.e. the location,
+ * class and data of the current page with its config and user, and some test specific
+ * state. The page itself is not kept as its browser may have been restarted since then,
+ * it's reopened in the current browser instead (see {@link #reopenPage()}).
+ * </p><p>
+ * When a test is run again after a failure, its method is run again from its beginning.
+ * Only the parts guarded by {@link ScenarioStep#isCheckpointPassed(String)} are skipped,
+ * the page of the last checkpoint being reopened when the test asks for the first time
+ * whether a checkpoint was passed. Tests which do not guard any part are simply run again.
+ * </p><p>
+ * Checkpoints are only recorded for re-runnable tests, i.e. which are not annotated
+ * with {@link itest.cloud.annotation.NotRerunnable}.
+ * </p>
+ */
+public class ScenarioCheckpoint {
+
+	private final String name;
+	private final Map<String, Object> state;
+
+	// Page info
+	private final String location;
+	private final Class<? extends Page> pageClass;
+	private final Config config;
+	private final User user;
+	private final String[] data;
+
+ScenarioCheckpoint(final String name, final Page page, final Map<String, Object> state) {
+	this.name = name;
+	this.state = state == null ? Collections.<String, Object>emptyMap() : Collections.unmodifiableMap(new HashMap<String, Object>(state));
+	if (page == null) {
+		this.location = null;
+		this.pageClass = null;
+		this.config = null;
+		this.user = null;
+		this.data = null;
+	} else {
+		this.location = page.getLocation();
+		this.pageClass = page.getClass();
+		this.config = page.getConfig();
+		this.user = page.getUser();
+		this.data = page.getData();
+	}
+}
+
+/**
+ * Return the checkpoint name.
+ *
+ * @return The name as a {@link String}
+ */
+public String getName() {
+	return this.name;
+}
+
+/**
+ * Return the location of the page the test was on when the checkpoint was reached.
+ *
+ * @return The page location or <code>null</code> if there was no current page.
+ */
+public String getPageLocation() {
+	return this.location;
+}
+
+/**
+ * Return the test state captured with the checkpoint.
+ *
+ * @return The state as an unmodifiable {@link Map}
+ */
+public Map<String, Object> getState() {
+	return this.state;
+}
+
+/**
+ * Reopen the checkpoint page in the current browser of the page config.
+ *
+ * @return The reopened page or <code>null</code> if there was no current page
+ * when the checkpoint was reached.
+ */
+Page reopenPage() {
+	if (this.location == null) return null;
+	return Page.openPage(this.location, this.config, this.user, this.pageClass, this.data);
+}
+
+@Override
+public String toString() {
+	return "Checkpoint '" + this.name + "'" + (this.location == null ? "" : " on " + this.location);
+}
+}
@@ -0,0 +1,445 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Ignore;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Sorter;
+
+import itest.cloud.annotation.Dependency;
+import itest.cloud.annotation.DependsOn;
+import itest.cloud.annotation.NotRerunnable;
+import itest.cloud.scenario.error.ScenarioFailedError;
+
+/**
+ * Manage the graph of dependencies between the scenario tests.
+ * <p>
+ * The graph is built before the scenario starts from the following annotations:
+ * <ul>
+ * <li>{@link Dependency}: the test cannot run if one of the given tests did not pass.</li>
+ * <li>{@link DependsOn} on a test: the test has to run after the previous test of its step.</li>
+ * <li>{@link DependsOn} on a step: the step has to run after the previous step of the scenario.</li>
+ * </ul>
+ * </p><p>
+ * The graph is used to:
+ * <ul>
+ * <li>sort steps and tests to run the prerequisites before the tests depending on them
+ * (see {@link #getSorter()}),</li>
+ * <li>skip a test as soon as one of its prerequisites failed without even creating the step
+ * instance (see {@link #getFailedPrerequisite(String)}),</li>
+ * <li>group steps which need to run in the same browser when running in parallel
+ * (see {@link #getStepPrerequisites(String)}),</li>
+ * <li>report the critical path of the scenario, i.e. the longest chain of dependent
+ * tests (see {@link #printCriticalPath()}).</li>
+ * </ul>
+ * </p>
+ */
+public class ScenarioDependencyGraph {
+
+	/**
+	 * A test of the graph.
+	 */
+	class TestNode {
+		final String name;
+		final String stepName;
+		// Tests which have to pass before this one
+		final List<String> prerequisites = new ArrayList<String>();
+		// Tests which have to run before this one
+		final List<String> predecessors = new ArrayList<String>();
+		volatile long duration = 0;
+		final boolean ignored;
+		final boolean notRerunnable;
+
+		TestNode(final String name, final String stepName, final boolean ignored, final boolean notRerunnable) {
+			this.name = name;
+			this.stepName = stepName;
+			this.ignored = ignored;
+			this.notRerunnable = notRerunnable;
+		}
+	}
+
+	// Graph content
+	private final Map<String, TestNode> tests = new LinkedHashMap<String, TestNode>();
+	private final Map<String, List<String>> stepTests = new LinkedHashMap<String, List<String>>();
+	private final Map<String, Set<String>> stepPrerequisites = new LinkedHashMap<String, Set<String>>();
+	// Previous step of the steps annotated with DependsOn
+	private final Map<String, String> stepPredecessors = new HashMap<String, String>();
+	private final List<String> missingTests = new ArrayList<String>();
+	private final Map<String, Boolean> results = new ConcurrentHashMap<String, Boolean>();
+
+	// Topological ranks of steps and tests
+	private final Map<String, Integer> ranks = new HashMap<String, Integer>();
+
+public ScenarioDependencyGraph(final List<Runner> steps) {
+	// Add tests
+	String previousStep = null;
+	for (Runner step: steps) {
+		Description stepDescription = step.getDescription();
+		String stepName = stepDescription.getClassName();
+		List<String> testNames = new ArrayList<String>();
+		Set<String> prerequisiteSteps = new LinkedHashSet<String>();
+		if (previousStep != null && stepDescription.getAnnotation(DependsOn.class) != null) {
+			prerequisiteSteps.add(previousStep);
+			this.stepPredecessors.put(stepName, previousStep);
+		}
+		boolean stepIgnored = stepDescription.getAnnotation(Ignore.class) != null;
+		String previousTest = null;
+		for (Description testDescription: stepDescription.getChildren()) {
+			if (testDescription.getMethodName() == null) continue;
+			TestNode test = new TestNode(stepName + "." + testDescription.getMethodName(), stepName,
+				stepIgnored || testDescription.getAnnotation(Ignore.class) != null,
+				testDescription.getAnnotation(NotRerunnable.class) != null);
+			if (previousTest != null && testDescription.getAnnotation(DependsOn.class) != null) {
+				test.predecessors.add(previousTest);
+			}
+			Dependency dependency = testDescription.getAnnotation(Dependency.class);
+			if (dependency != null && stepDescription.getTestClass() != null) {
+				for (String dependentTest: dependency.value()) {
+					test.prerequisites.add(ScenarioExecution.getQualifiedDependency(dependentTest, stepDescription.getTestClass()));
+				}
+			}
+			this.tests.put(test.name, test);
+			testNames.add(test.name);
+			previousTest = test.name;
+		}
+		this.stepTests.put(stepName, testNames);
+		this.stepPrerequisites.put(stepName, prerequisiteSteps);
+		previousStep = stepName;
+	}
+
+	// Check prerequisites and link steps
+	for (TestNode test: this.tests.values()) {
+		for (String prerequisite: test.prerequisites) {
+			TestNode prerequisiteTest = this.tests.get(prerequisite);
+			if (prerequisiteTest == null) {
+				if (!this.missingTests.contains(prerequisite)) {
+					this.missingTests.add(prerequisite);
+				}
+			} else if (!prerequisiteTest.stepName.equals(test.stepName)) {
+				this.stepPrerequisites.get(test.stepName).add(prerequisiteTest.stepName);
+			}
+		}
+	}
+
+	// Check there's no cycle and compute ranks
+	checkCycles();
+	computeRanks();
+}
+
+private void checkCycles() {
+	Set<String> visited = new HashSet<String>();
+	for (String test: this.tests.keySet()) {
+		checkCycles(test, visited, new LinkedHashSet<String>());
+	}
+}
+
+private void checkCycles(final String test, final Set<String> visited, final LinkedHashSet<String> path) {
+	if (path.contains(test)) {
+		StringBuilder cycleBuilder = new StringBuilder();
+		boolean inCycle = false;
+		for (String pathTest: path) {
+			if (pathTest.equals(test)) inCycle = true;
+			if (inCycle) cycleBuilder.append(pathTest).append(" -> ");
+		}
+		cycleBuilder.append(test);
+		throw new ScenarioFailedError("Tests dependencies have a cycle: " + cycleBuilder);
+	}
+	if (!visited.add(test)) return;
+	TestNode node = this.tests.get(test);
+	if (node == null) return;
+	path.add(test);
+	for (String prerequisite: node.prerequisites) {
+		checkCycles(prerequisite, visited, path);
+	}
+	for (String predecessor: node.predecessors) {
+		checkCycles(predecessor, visited, path);
+	}
+	path.remove(test);
+}
+
+/*
+ * Compute ranks using a stable topological sort: the declaration order is kept
+ * unless a step or a test has to be moved after its prerequisites.
+ */
+private void computeRanks() {
+	int rank = 0;
+	for (String step: sortTopologically(new ArrayList<String>(this.stepTests.keySet()), this.stepPrerequisites)) {
+		this.ranks.put(step, rank++);
+		List<String> testNames = this.stepTests.get(step);
+		Map<String, Set<String>> testPredecessors = new HashMap<String, Set<String>>();
+		for (String test: testNames) {
+			Set<String> predecessors = new LinkedHashSet<String>();
+			TestNode node = this.tests.get(test);
+			for (String prerequisite: node.prerequisites) {
+				if (testNames.contains(prerequisite)) predecessors.add(prerequisite);
+			}
+			predecessors.addAll(node.predecessors);
+			testPredecessors.put(test, predecessors);
+		}
+		for (String test: sortTopologically(testNames, testPredecessors)) {
+			this.ranks.put(test, rank++);
+		}
+	}
+}
+
+/**
+ * Return the first prerequisite of the given test which failed or did not run.
+ *
+ * @param test The qualified name of the test
+ * @return The qualified name of the failed prerequisite or <code>null</code>
+ * if all prerequisites passed or if the test is not part of the graph.
+ */
+public String getFailedPrerequisite(final String test) {
+	TestNode node = this.tests.get(test);
+	if (node == null) return null;
+	for (String prerequisite: node.prerequisites) {
+		Boolean result = this.results.get(prerequisite);
+		if (result == null || !result.booleanValue()) {
+			return prerequisite;
+		}
+	}
+	return null;
+}
+
+/**
+ * Return the given tests with all the tests they need to run again, i.e. their
+ * prerequisites (see {@link Dependency}), their predecessors (see {@link DependsOn}),
+ * and all tests of the previous step when their step is annotated with {@link DependsOn},
+ * recursively.
+ * <p>
+ * Ignored tests and tests which cannot run again (see {@link NotRerunnable}) are never
+ * returned, hence the tests they would need are not returned either.
+ * </p>
+ * @param tests The qualified names of the tests
+ * @return The qualified names of the tests and of the tests they need which are
+ * part of the graph
+ */
+public Set<String> getRequiredTests(final Collection<String> tests) {
+	Set<String> requiredTests = new HashSet<String>();
+	LinkedList<String> remainingTests = new LinkedList<String>(tests);
+	while (!remainingTests.isEmpty()) {
+		String test = remainingTests.removeFirst();
+		TestNode node = this.tests.get(test);
+		if (node == null || node.ignored || node.notRerunnable) continue;
+		if (requiredTests.add(test)) {
+			remainingTests.addAll(node.prerequisites);
+			remainingTests.addAll(node.predecessors);
+			String predecessorStep = this.stepPredecessors.get(node.stepName);
+			if (predecessorStep != null) {
+				remainingTests.addAll(this.stepTests.get(predecessorStep));
+			}
+		}
+	}
+	return requiredTests;
+}
+
+/**
+ * Return the result recorded for the given test.
+ *
+ * @param test The qualified name of the test
+ * @return The test result or <code>null</code> if none was recorded
+ * @see #recordResult(String, Boolean)
+ */
+public Boolean getResult(final String test) {
+	return this.results.get(test);
+}
+
+/**
+ * Return the tests of the graph which cannot run again (see {@link NotRerunnable}).
+ *
+ * @return The qualified names of the tests
+ */
+public Set<String> getNotRerunnableTests() {
+	Set<String> notRerunnableTests = new LinkedHashSet<String>();
+	for (TestNode node: this.tests.values()) {
+		if (node.notRerunnable) notRerunnableTests.add(node.name);
+	}
+	return notRerunnableTests;
+}
+
+/**
+ * Return the sorter to apply to the scenario to run each step and test
+ * after their prerequisites.
+ *
+ * @return The sorter as a {@link Sorter}.
+ */
+public Sorter getSorter() {
+	return new Sorter(new Comparator<Description>() {
+		@Override
+		public int compare(final Description description1, final Description description2) {
+			return Integer.compare(getRank(description1), getRank(description2));
+		}
+	});
+}
+
+private int getRank(final Description description) {
+	String name = description.getMethodName() == null ? description.getClassName() : description.getClassName() + "." + description.getMethodName();
+	Integer rank = this.ranks.get(name);
+	return rank == null ? Integer.MAX_VALUE : rank.intValue();
+}
+
+/**
+ * Return the steps which have to run before the given step, either because
+ * it's annotated with {@link DependsOn} or because one of its tests depends on
+ * one of their tests.
+ *
+ * @param step The step class name
+ * @return The set of prerequisite step class names, might be empty
+ */
+public Set<String> getStepPrerequisites(final String step) {
+	Set<String> prerequisites = this.stepPrerequisites.get(step);
+	return prerequisites == null ? Collections.<String>emptySet() : prerequisites;
+}
+
+private long getPathDuration(final String test, final Map<String, Long> durations, final Map<String, String> previousTests) {
+	Long duration = durations.get(test);
+	if (duration != null) return duration.longValue();
+	TestNode node = this.tests.get(test);
+	if (node == null) return 0;
+	long longest = 0;
+	String longestPrevious = null;
+	List<String> previous = new ArrayList<String>(node.prerequisites);
+	previous.addAll(node.predecessors);
+	for (String previousTest: previous) {
+		long pathDuration = getPathDuration(previousTest, durations, previousTests);
+		if (longestPrevious == null || pathDuration > longest) {
+			longest = pathDuration;
+			longestPrevious = previousTest;
+		}
+	}
+	if (longestPrevious != null && this.tests.containsKey(longestPrevious)) {
+		previousTests.put(test, longestPrevious);
+	}
+	durations.put(test, longest + node.duration);
+	return longest + node.duration;
+}
+
+/**
+ * Return the qualified names of all tests in the graph.
+ *
+ * @return The tests names in declaration order
+ */
+public Set<String> getTests() {
+	return Collections.unmodifiableSet(this.tests.keySet());
+}
+
+/**
+ * Print the critical path of the scenario.
+ * <p>
+ * The critical path is the chain of dependent tests which took the longest time
+ * to run. That's the minimum time the scenario would take even with unlimited
+ * parallel browsers.
+ * </p>
+ */
+public void printCriticalPath() {
+	if (this.tests.isEmpty()) return;
+	Map<String, Long> durations = new HashMap<String, Long>();
+	Map<String, String> previousTests = new HashMap<String, String>();
+	String lastTest = null;
+	long longest = -1;
+	for (String test: this.tests.keySet()) {
+		long duration = getPathDuration(test, durations, previousTests);
+		if (duration > longest) {
+			longest = duration;
+			lastTest = test;
+		}
+	}
+	LinkedList<String> path = new LinkedList<String>();
+	for (String test = lastTest; test != null; test = previousTests.get(test)) {
+		path.addFirst(test);
+	}
+	println("Critical path of the scenario (" + timeString(longest) + "):");
+	for (String test: path) {
+		println("	- " + test + " (" + timeString(this.tests.get(test).duration) + ")");
+	}
+}
+
+/**
+ * Print a summary of the graph.
+ * <p>
+ * Also warn about the tests which are prerequisites of other tests but which
+ * will not run in the current scenario.
+ * </p>
+ */
+public void printSummary() {
+	int dependencies = 0;
+	for (TestNode test: this.tests.values()) {
+		dependencies += test.prerequisites.size();
+	}
+	println("Scenario dependencies graph: " + this.stepTests.size() + " steps, " + this.tests.size() + " tests and " + dependencies + " dependencies.");
+	for (String missingTest: this.missingTests) {
+		println("WARNING: Test '" + missingTest + "' is a prerequisite but will not run in this scenario, hence the tests depending on it will be skipped.");
+	}
+}
+
+/**
+ * Record the duration of the given test.
+ *
+ * @param test The qualified name of the test
+ * @param duration The duration in milliseconds
+ */
+public void recordDuration(final String test, final long duration) {
+	TestNode node = this.tests.get(test);
+	if (node != null) {
+		node.duration = duration;
+	}
+}
+
+/**
+ * Record the result of the given test.
+ *
+ * @param test The qualified name of the test
+ * @param result Whether the test passed or not
+ */
+public void recordResult(final String test, final Boolean result) {
+	this.results.put(test, result);
+}
+
+private List<String> sortTopologically(final List<String> nodes, final Map<String, Set<String>> predecessors) {
+	List<String> sortedNodes = new ArrayList<String>();
+	List<String> remainingNodes = new ArrayList<String>(nodes);
+	while (!remainingNodes.isEmpty()) {
+		// Take the first node in declaration order which has all its predecessors already sorted
+		String readyNode = null;
+		for (String node: remainingNodes) {
+			boolean ready = true;
+			for (String predecessor: predecessors.get(node)) {
+				if (remainingNodes.contains(predecessor)) {
+					ready = false;
+					break;
+				}
+			}
+			if (ready) {
+				readyNode = node;
+				break;
+			}
+		}
+		if (readyNode == null) {
+			// Steps cross dependencies, keep the declaration order for the remaining ones
+			println("WARNING: Cannot sort " + remainingNodes + " according to their dependencies, declaration order is kept.");
+			sortedNodes.addAll(remainingNodes);
+			break;
+		}
+		sortedNodes.add(readyNode);
+		remainingNodes.remove(readyNode);
+	}
+	return sortedNodes;
+}
+}
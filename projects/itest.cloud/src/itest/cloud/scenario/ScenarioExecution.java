@@ -67,6 +67,11 @@ import itest.cloud.topology.Topology;
  * it was a transient problem. In the latter case, a snapshot will be taken and
  * put in the warning directory and the failure stack trace will be written in the
  * console output.</li>
+ * <li>{@link #JAVASCRIPT_ERRORS_THRESHOLD_ID}: Number of tolerated uncaught JavaScript
+ * exceptions when running a test, the browser console messages being recorded
+ * (see {@link itest.cloud.browser.ConsoleRecorder}).<br>
+ * When the threshold is reached, the test will fail even if it has run to the end, otherwise
+ * a warning is printed. Exceptions are not counted when the threshold is 0 (default).</li>
  * </ul>
  * </p><p>
  * Another important thing done by this class is to store the current {@link Page page}
@@ -84,6 +89,7 @@ public abstract class ScenarioExecution implements ScenarioDataConstants {
 		int multiples = 0;
 		int browserErrors = 0;
 		int invocations = 0;
+		int javaScriptErrors = 0;
 
 		public Blemishes() {}
 	}
@@ -97,6 +103,7 @@ public abstract class ScenarioExecution implements ScenarioDataConstants {
 	private final static String INVOCATIONS_THRESHOLD_ID = "invocationsThreshold";
 	private final static String MULTIPLES_THRESHOLD_ID = "multiplesThreshold";
 	private final static String BROWSER_ERRORS_THRESHOLD_ID = "browserErrorsThreshold";
+	private final static String JAVASCRIPT_ERRORS_THRESHOLD_ID = "javaScriptErrorsThreshold";
 	private final static int DEFAULT_ALERTS_THRESHOLD = 2;
 	private final static int DEFAULT_FAILURES_THRESHOLD = 2;
 	private final static int DEFAULT_TIMEOUTS_THRESHOLD = 2;
@@ -125,6 +132,7 @@ public abstract class ScenarioExecution implements ScenarioDataConstants {
 	private final int invocationsThreshold;
 	private final int multiplesThreshold;
 	private final int browserErrorsThreshold;
+	private final int javaScriptErrorsThreshold;
 	private boolean shouldStop = false;
 	private boolean singleStep = false;
 	private List<FrameworkMethod> mandatoryTests = new ArrayList<FrameworkMethod>();
@@ -138,6 +146,14 @@ public abstract class ScenarioExecution implements ScenarioDataConstants {
 	private Blemishes blemishes;
 
 	private Hashtable<String, Boolean> testResults = new Hashtable<String, Boolean>();
+	private ScenarioDependencyGraph dependencyGraph;
+	private ScenarioHistory history;
+	private ScenarioResults results;
+	// Checkpoints reached by the current test
+	private final List<ScenarioCheckpoint> checkpoints = new ArrayList<ScenarioCheckpoint>();
+	// Checkpoint whose page has to be reopened when the re-run test skips its first passed checkpoint
+	private ScenarioCheckpoint checkpointToResume;
+	private boolean rerunnableTest = true;
 
 	// Configuration
 	protected Config config;
@@ -163,6 +179,7 @@ public ScenarioExecution() {
 	this.invocationsThreshold = getParameterIntValue(INVOCATIONS_THRESHOLD_ID, DEFAULT_INVOCATIONS_THRESHOLD);
 	this.browserErrorsThreshold = getParameterIntValue(BROWSER_ERRORS_THRESHOLD_ID, DEFAULT_BROWSER_ERRORS_THRESHOLD);
 	this.multiplesThreshold = getParameterIntValue(MULTIPLES_THRESHOLD_ID, DEFAULT_MULTIPLES_THRESHOLD);
+	this.javaScriptErrorsThreshold = getParameterIntValue(JAVASCRIPT_ERRORS_THRESHOLD_ID, 0);
 	this.closeBrowserOnExit = getParameterBooleanValue("closeBrowserOnExit", true);
 	this.verifyDependencies = getParameterBooleanValue("verifyDependencies", true);
 	this.verifyDependenciesOnly = getParameterBooleanValue("verifyDependenciesOnly", false);
@@ -174,6 +191,28 @@ public ScenarioExecution() {
 	initData();
 }
 
+/**
+ * Add a checkpoint to the current test.
+ * <p>
+ * If the test fails after this point, the parts of the test guarded by this checkpoint
+ * are skipped when it's run again (see {@link #isCheckpointPassed(String)}).
+ * </p><p>
+ * Nothing happens if the test is not re-runnable.
+ * </p>
+ * @param name The checkpoint name, unique in the test
+ * @param state The test state to capture with the checkpoint. May be <code>null</code>.
+ */
+public void addCheckpoint(final String name, final Map<String, Object> state) {
+	if (!this.rerunnableTest) {
+		if (DEBUG) debugPrintln("		+ Checkpoint '" + name + "' ignored as test " + this.testName + " is not re-runnable.");
+		return;
+	}
+	ScenarioCheckpoint checkpoint = new ScenarioCheckpoint(name, Page.getCurrentPage(), state);
+	if (DEBUG) debugPrintln("		+ " + checkpoint + " reached in test " + this.testName);
+	this.checkpoints.removeIf(previous -> previous.getName().equals(name));
+	this.checkpoints.add(checkpoint);
+}
+
 /**
  * Add a list of mandatory tests.
  *
@@ -183,6 +222,26 @@ public void addMandatoryTests(final List<FrameworkMethod> tests) {
 	this.mandatoryTests.addAll(tests);
 }
 
+/*
+ * Count the uncaught JavaScript exceptions of the current test as blemishes
+ * and fail the test if there are too many of them.
+ */
+private void checkJavaScriptErrors() {
+	if (this.javaScriptErrorsThreshold <= 0) return;
+	Browser browser = getBrowser();
+	if (browser == null) return;
+	int exceptionsCount = browser.getJavaScriptExceptionsCount();
+	if (exceptionsCount == 0) return;
+	this.blemishes.javaScriptErrors += exceptionsCount;
+	if (this.blemishes.javaScriptErrors >= this.javaScriptErrorsThreshold) {
+		throw new ScenarioFailedError("Too many uncaught JavaScript exceptions occurred while running test " + this.testName + " (" + this.blemishes.javaScriptErrors + ").");
+	}
+	println("WARNING: " + exceptionsCount + " uncaught JavaScript exceptions occurred while running test " + this.testName + ":");
+	for (String consoleMessage: browser.flushConsoleMessages()) {
+		println("	" + consoleMessage);
+	}
+}
+
 /*
  * Helper method to check if the server speed is considered normal (according to
  * pipeline averages) or slower than normal.  Individual tests can trigger this
@@ -242,6 +301,17 @@ private void createExecutionDetailsFile() {
 	}
 }
 
+/*
+ * Tell the browser that the current run of the test has failed, hence the records
+ * of this run (e.g. its HAR file) are written before the browser is restarted.
+ */
+private void endBrowserTest(final Object target, final long start) {
+	Browser browser = getBrowser();
+	if (browser != null) {
+		browser.endTest(target.getClass().getName() + "." + this.testName, false /*passed*/, getElapsedTime(start));
+	}
+}
+
 /**
  * Ends the scenario execution.
  */
@@ -300,6 +370,16 @@ public ScenarioData getData() {
 	return this.data;
 }
 
+/**
+ * Return the scenario dependencies graph.
+ *
+ * @return The graph as {@link ScenarioDependencyGraph} or <code>null</code>
+ * if the steps are run outside a scenario.
+ */
+public ScenarioDependencyGraph getDependencyGraph() {
+	return this.dependencyGraph;
+}
+
 private String getShouldStopReason(final boolean mandatoryTest) {
 	String reason = EMPTY_STRING;
 	if (this.stopOnFailure) {
@@ -312,6 +392,92 @@ private String getShouldStopReason(final boolean mandatoryTest) {
 	return reason;
 }
 
+/**
+ * Return the first prerequisite of the given test which failed or did not run.
+ * <p>
+ * This allows to skip the test before even creating the step instance.
+ * Note that this is only possible when the scenario dependencies graph has
+ * been built and the dependencies have to be verified.
+ * </p>
+ * @param qualifiedTestName The qualified name of the test
+ * @return The qualified name of the failed prerequisite or <code>null</code>
+ * if the test can be run.
+ */
+public String getFailedPrerequisite(final String qualifiedTestName) {
+	if (!this.verifyDependencies || this.dependencyGraph == null) return null;
+	return this.dependencyGraph.getFailedPrerequisite(qualifiedTestName);
+}
+
+/**
+ * Return the fully qualified name of a test declared in a {@link Dependency} annotation.
+ * <p>
+ * The class and package indicators of the given dependency are replaced
+ * by the given step class and package names.
+ * </p>
+ * @param dependency The dependency as declared in the annotation
+ * @param stepClass The step class where the dependency is declared
+ * @return The qualified test name as <code>package.class.test</code>
+ */
+public static String getQualifiedDependency(final String dependency, final Class<?> stepClass) {
+	return dependency
+		.replace(CLASS_INDICATOR_OF_DEPENDENCY, stepClass.getName())
+		.replace(PACKAGE_INDICATOR_OF_DEPENDENCY, stepClass.getPackage().getName());
+}
+
+/**
+ * Return the given checkpoint of the current test.
+ *
+ * @param name The checkpoint name
+ * @return The checkpoint or <code>null</code> if the current test has not
+ * reached it yet.
+ */
+public ScenarioCheckpoint getCheckpoint(final String name) {
+	for (ScenarioCheckpoint checkpoint: this.checkpoints) {
+		if (checkpoint.getName().equals(name)) return checkpoint;
+	}
+	return null;
+}
+
+/**
+ * Tells whether the current test has already passed the given checkpoint.
+ * <p>
+ * When the test is re-run and asks for the first time whether a checkpoint was passed,
+ * the page of its last checkpoint is reopened in the current browser, as the test is
+ * going to skip the parts done before. If that page cannot be reopened, checkpoints are
+ * dropped and the test does all its parts again.
+ * </p>
+ * @param name The checkpoint name
+ * @return <code>true</code> if the checkpoint has been reached by a previous
+ * run of the current test, <code>false</code> otherwise.
+ */
+public boolean isCheckpointPassed(final String name) {
+	if (getCheckpoint(name) == null) return false;
+	if (this.checkpointToResume != null) {
+		ScenarioCheckpoint checkpoint = this.checkpointToResume;
+		this.checkpointToResume = null;
+		println("WORKAROUND: Resume the test from " + checkpoint + "...");
+		try {
+			checkpoint.reopenPage();
+		}
+		catch (Throwable t) {
+			println("		  -> Cannot reopen checkpoint page (" + t.getMessage() + "), the test will do all its parts again.");
+			this.checkpoints.clear();
+			return false;
+		}
+	}
+	return true;
+}
+
+/**
+ * Return the last checkpoint reached by the current test.
+ *
+ * @return The checkpoint or <code>null</code> if the current test has not
+ * reached any checkpoint yet.
+ */
+public ScenarioCheckpoint getLastCheckpoint() {
+	return this.checkpoints.isEmpty() ? null : this.checkpoints.get(this.checkpoints.size() - 1);
+}
+
 /**
  * Return the scenario topology used during the run.
  *
@@ -324,7 +490,7 @@ public Topology getTopology() {
 private void handleAlert(final FrameworkMethod frameworkMethod, final WebDriverException wde) throws Throwable {
 	this.blemishes.alerts++;
 	printException(wde);
-	getBrowser().purgeAlert("Running test "+this.testName, 0);
+	getBrowser().purgeAlert("Running test "+this.testName, 0, true /*alertOpen*/);
 	if (this.blemishes.alerts > this.alertsThreshold) {
 		takeSnapshotFailure();
 		this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(frameworkMethod);
@@ -342,7 +508,7 @@ private void handleBrowserError(final Statement statement, final FrameworkMethod
 		println("Too many browser errors occurred during scenario execution, give up.");
 		takeSnapshotInfo(e.toString());
 		this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(frameworkMethod);
-		// Restart the browser in case that can help for next test to proceed properly.
+		// Reset or restart the browser in case that can help for next test to proceed properly.
 		// However, restarting the browser may not be possible if the tests are executed on a remote host
 		// while using a Selenium Grid for example. In such a situation, simply refresh the current web
 		// page than restarting the browser.
@@ -352,8 +518,8 @@ private void handleBrowserError(final Statement statement, final FrameworkMethod
 				try { currentPage.refresh(); } catch (Throwable t) {}
 			}
 			else {
-				println("WORKAROUND: Restart the browser...");
-				currentPage.startNewBrowserSession();
+				println("WORKAROUND: Reset the browser session...");
+				resetBrowserSession(currentPage, target, start);
 			}
 		}
 		logTestFailure(e);
@@ -361,7 +527,7 @@ private void handleBrowserError(final Statement statement, final FrameworkMethod
 	println("WORKAROUND: Try to run the test again in case this was a transient issue...");
 	takeSnapshotWarning();
 
-	// Restart the browser in case that can help. However, restarting the browser may not be possible if
+	// Reset or restart the browser in case that can help. However, restarting the browser may not be possible if
 	// the tests are executed on a remote host while using a Selenium Grid for example. In such a situation,
 	// simply refresh the current web page than restarting the browser.
 	if(currentPage != null) {
@@ -370,8 +536,8 @@ private void handleBrowserError(final Statement statement, final FrameworkMethod
 			try { currentPage.refresh(); } catch (Throwable t) {}
 		}
 		else {
-			println("WORKAROUND: Restart the browser...");
-			currentPage.startNewBrowserSession();
+			println("WORKAROUND: Reset the browser session...");
+			resetBrowserSession(currentPage, target, start);
 		}
 	}
 
@@ -495,6 +661,18 @@ protected void manageFailure(final long start, final Throwable t, final boolean
 		}
 	}
 
+	// Print the browser console messages recorded during the test
+	Browser browser = getBrowser();
+	if (browser != null) {
+		List<String> consoleMessages = browser.flushConsoleMessages();
+		if (!consoleMessages.isEmpty()) {
+			println("BROWSER CONSOLE MESSAGES:");
+			for (String consoleMessage: consoleMessages) {
+				println("	" + consoleMessage);
+			}
+		}
+	}
+
 	// Stop execution when test is not re-runnable
 	if (isNotRerunnable) {
 		// Skip test re-run
@@ -506,18 +684,83 @@ protected void manageFailure(final long start, final Throwable t, final boolean
 //	cleanUp(t);
 }
 
+/**
+ * Record that the given test has been skipped due to a failed prerequisite.
+ * <p>
+ * The test is then considered as failed for the tests depending on it.
+ * </p>
+ * @param qualifiedTestName The qualified name of the test
+ */
+public void recordSkippedTest(final String qualifiedTestName) {
+	recordTestResult(qualifiedTestName, FALSE);
+	if (this.history != null) {
+		this.history.skip(qualifiedTestName);
+	}
+	if (this.results != null) {
+		this.results.record(qualifiedTestName, ScenarioResults.BLOCKED);
+	}
+}
+
+/**
+ * Record the duration of the given test once it has been run.
+ * <p>
+ * The test outcome is also stored in the tests results and the estimated
+ * remaining time of the scenario is printed when the tests history is available.
+ * </p>
+ * @param qualifiedTestName The qualified name of the test
+ * @param duration The test duration in milliseconds
+ */
+public void recordTestDuration(final String qualifiedTestName, final long duration) {
+	if (this.dependencyGraph != null) {
+		this.dependencyGraph.recordDuration(qualifiedTestName, duration);
+	}
+	Boolean result = this.testResults.get(qualifiedTestName);
+	Browser browser = getBrowser();
+	if (browser != null) {
+		browser.endTest(qualifiedTestName, TRUE.equals(result), duration);
+	}
+	if (this.results != null && result != null) {
+		this.results.record(qualifiedTestName, result.booleanValue() ? ScenarioResults.PASSED : ScenarioResults.FAILED);
+	}
+	if (this.history != null) {
+		this.history.record(qualifiedTestName, duration, TRUE.equals(this.testResults.get(qualifiedTestName)));
+		long remainingTime = this.history.getRemainingTime();
+		if (remainingTime >= 0) {
+			println("		-> Estimated remaining time of the scenario: " + timeString(remainingTime));
+		}
+	}
+}
+
 private void recordTestResult(final String test, final Boolean result) {
 	this.testResults.put(test, result);
+	if (this.dependencyGraph != null) {
+		this.dependencyGraph.recordResult(test, result);
+	}
+}
+
+/*
+ * Reset the browser session of the given page after having written the records
+ * of the failed run of the current test (e.g. its HAR file) as they would be lost
+ * if the browser is restarted.
+ */
+private void resetBrowserSession(final Page currentPage, final Object target, final long start) {
+	endBrowserTest(target, start);
+	currentPage.resetBrowserSession();
 }
 
 /**
  * Run the current test and take specific actions when some typical exception
  * or error occurs (e.g. take a snapshot when a error occurs, retry when allowed).
  * <p>
+ * The test is run again from its beginning. If it has reached checkpoints, the parts
+ * it guards with them are skipped and the page of the last checkpoint is reopened
+ * (see {@link #isCheckpointPassed(String)}).
+ * </p><p>
  * <b>Design Needs finalization</b>
  * </p>
  */
 public void rerunTest(final Statement statement, final FrameworkMethod frameworkMethod, final Object target) throws Throwable {
+	this.checkpointToResume = getLastCheckpoint();
 	runTest(statement, frameworkMethod, target, false /*isNewStep*/, false /*isFirstRun*/);
 }
 
@@ -527,6 +770,18 @@ public void rerunTest(final Statement statement, final FrameworkMethod framework
  */
 public void runTest(final Statement statement, final FrameworkMethod frameworkMethod, final Object target, final boolean isNewStep) throws Throwable {
 	runTest(statement, frameworkMethod, target, isNewStep, true /*isFirstRun*/);
+
+	// Checks which fail the test without running it again
+	try {
+		ScenarioStartup.checkBudget();
+
+		// Count the uncaught JavaScript exceptions which occurred while running the test
+		checkJavaScriptErrors();
+	}
+	catch (ScenarioFailedError sfe) {
+		recordTestResult(target.getClass().getName() + "." + this.testName, FALSE);
+		throw sfe;
+	}
 }
 
 /**
@@ -556,6 +811,13 @@ private void runTest(final Statement statement, final FrameworkMethod frameworkM
 
 	// Record the re-runnable status.
 	boolean isNotRerunnable = frameworkMethod.getAnnotation(NotRerunnable.class) != null;
+	this.rerunnableTest = !isNotRerunnable;
+
+	// Forget the checkpoints of previous test
+	if (isFirstRun) {
+		this.checkpoints.clear();
+		this.checkpointToResume = null;
+	}
 
 	// Record the initial result of the test to FALSE in advance.
 	final String qualifiedTestName = target.getClass().getName() + "." + this.testName;
@@ -603,7 +865,7 @@ private void runTest(final Statement statement, final FrameworkMethod frameworkM
 		println("WORKAROUND: Try to run the test again in case this was a transient issue...");
 		// Restart the browser in case that can help
 		println("WORKAROUND: Restart the browser...");
-		if(currentPage != null) currentPage.startNewBrowserSession();
+		if(currentPage != null) startNewBrowserSession(currentPage, target, start);
 		// Re-run the test
 		println("		  -> Re-run the test...");
 		rerunTest(statement, frameworkMethod, target);
@@ -631,7 +893,7 @@ private void runTest(final Statement statement, final FrameworkMethod frameworkM
 			println("WORKAROUND: Try to run the test again in case this was a transient issue...");
 			// Restart the browser in case that can help
 			println("WORKAROUND: Restart the browser...");
-			if(currentPage != null) currentPage.startNewBrowserSession();
+			if(currentPage != null) startNewBrowserSession(currentPage, target, start);
 		}
 		else {
 			this.blemishes.failures++;
@@ -705,14 +967,14 @@ private void runTest(final Statement statement, final FrameworkMethod frameworkM
 			takeSnapshotFailure();
 			this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(frameworkMethod);
 			// Restart browser in case that can help for next test to proceed properly...
-			if(currentPage != null) currentPage.startNewBrowserSession();
+			if(currentPage != null) startNewBrowserSession(currentPage, target, start);
 			logTestFailure(ite);
 		}
 		println("WORKAROUND: Try to run the test again in case this was a transient issue...");
 		takeSnapshotWarning();
 		// Refresh browser in case that can help...
 		println("WORKAROUND: Restart the borwser...");
-		if(currentPage != null) currentPage.startNewBrowserSession();
+		if(currentPage != null) startNewBrowserSession(currentPage, target, start);
 		// Re-run the test
 		println("		  -> Re-run the test...");
 		rerunTest(statement, frameworkMethod, target);
@@ -831,6 +1093,33 @@ void setPackageName(final Object target) {
 //	this.shouldStop = shouldStop;
 //}
 
+/**
+ * Set the scenario dependencies graph.
+ *
+ * @param graph The graph as {@link ScenarioDependencyGraph}
+ */
+public void setDependencyGraph(final ScenarioDependencyGraph graph) {
+	this.dependencyGraph = graph;
+}
+
+/**
+ * Set the tests history.
+ *
+ * @param history The history as {@link ScenarioHistory}
+ */
+public void setHistory(final ScenarioHistory history) {
+	this.history = history;
+}
+
+/**
+ * Set the tests results.
+ *
+ * @param results The results as {@link ScenarioResults}
+ */
+public void setResults(final ScenarioResults results) {
+	this.results = results;
+}
+
 /**
  * @param singleStep the singleStep to set
  */
@@ -840,6 +1129,7 @@ public void setSingleStep(final boolean singleStep) {
 
 void setStepName(final Object target, final boolean isNewStep) {
 	this.stepName = getClassSimpleName(target.getClass());
+	ScenarioLogger.setContext(this.stepName, null);
 	// If it is a new step, print an appropriate message to the console.
 	if(isNewStep) {
 		printStepStart(this.stepName);
@@ -849,6 +1139,7 @@ void setStepName(final Object target, final boolean isNewStep) {
 void setTestName(final String methodName) {
 	println("	- " + TIME_FORMAT.format(new Date(System.currentTimeMillis())) + ": start test case '" + methodName +"'...");
     this.testName = methodName;
+	ScenarioLogger.setContext(this.stepName, methodName);
 }
 
 /**
@@ -864,6 +1155,16 @@ public void showVersionInfo() {
 	println("	- " + getBrowser().getName() + " version: " + getBrowser().getVersion());
 }
 
+/*
+ * Open a new browser session for the given page after having written the records
+ * of the failed run of the current test (e.g. its HAR file) as they would be lost
+ * with the current browser.
+ */
+private void startNewBrowserSession(final Page currentPage, final Object target, final long start) {
+	endBrowserTest(target, start);
+	currentPage.startNewBrowserSession();
+}
+
 /**
  * Takes a failure snapshot.
  */
@@ -928,13 +1229,14 @@ private void verifyDependencies(final FrameworkMethod frameworkMethod, final Obj
 	Dependency dependency = frameworkMethod.getAnnotation(Dependency.class);
 	if (dependency != null) {
 		for (String dependentTest : dependency.value()) {
-			String formalizedDependentTest =
-				dependentTest
-					.replace(CLASS_INDICATOR_OF_DEPENDENCY, target.getClass().getName())
-					.replace(PACKAGE_INDICATOR_OF_DEPENDENCY, target.getClass().getPackage().getName());
+			String formalizedDependentTest = getQualifiedDependency(dependentTest, target.getClass());
 
 			// Throw an appropriate exception if the dependent test was not run, failed or ignored.
 			Boolean testResult = this.testResults.get(formalizedDependentTest);
+			if (testResult == null && this.dependencyGraph != null) {
+				// The test may have passed in a previous run when only failed tests are run again
+				testResult = this.dependencyGraph.getResult(formalizedDependentTest);
+			}
 			if((testResult == null) || !testResult.booleanValue()) {
 				throw new AssumptionViolatedException("Passing of test '" + formalizedDependentTest + "' was a prerequisite for this test, but the dependent test failed, ignored or did not run");
 			}
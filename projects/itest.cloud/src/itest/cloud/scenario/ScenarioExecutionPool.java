@@ -0,0 +1,117 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+import itest.cloud.browser.Browser;
+import itest.cloud.scenario.error.ScenarioFailedError;
+
+/**
+ * Manage a pool of {@link ScenarioExecution} used when running steps in parallel.
+ * <p>
+ * Each execution owns its configuration, hence its own {@link Browser}, so the pool is
+ * also a pool of browsers. An execution is only used by one thread at a time: it's
+ * acquired before running a chain of steps and released afterwards, so that the same
+ * browser can be reused by the next chain.
+ * </p><p>
+ * Executions are lazily created up to the pool size, the first one being the
+ * execution initially created by the {@link ScenarioRunner}.
+ * </p>
+ */
+public class ScenarioExecutionPool {
+
+	// Pool content
+	private final int size;
+	private final Supplier<ScenarioExecution> factory;
+	private final List<ScenarioExecution> executions = new ArrayList<ScenarioExecution>();
+	private final LinkedBlockingQueue<ScenarioExecution> available = new LinkedBlockingQueue<ScenarioExecution>();
+
+public ScenarioExecutionPool(final ScenarioExecution initialExecution, final int size, final Supplier<ScenarioExecution> factory) {
+	this.size = size;
+	this.factory = factory;
+	this.executions.add(initialExecution);
+	this.available.add(initialExecution);
+}
+
+/**
+ * Acquire an execution from the pool.
+ * <p>
+ * If no execution is available and the pool has not reached its size yet, then
+ * a new one is created, otherwise wait until one is released by another thread.
+ * </p>
+ * @return The execution as a {@link ScenarioExecution}.
+ */
+public ScenarioExecution acquire() {
+	ScenarioExecution execution = this.available.poll();
+	if (execution != null) return execution;
+	synchronized (this.executions) {
+		if (this.executions.size() < this.size) {
+			if (DEBUG) debugPrintln("		+ Create execution #" + (this.executions.size()+1) + " of the pool in thread " + Thread.currentThread().getName());
+			execution = this.factory.get();
+			this.executions.add(execution);
+			return execution;
+		}
+	}
+	try {
+		return this.available.take();
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new ScenarioFailedError(ie);
+	}
+}
+
+/**
+ * Finish all executions of the pool.
+ * <p>
+ * That closes all browsers opened by the pool executions.
+ * </p>
+ */
+public void finish() {
+	synchronized (this.executions) {
+		for (ScenarioExecution execution: this.executions) {
+			execution.finish();
+		}
+	}
+}
+
+/**
+ * Release the given execution to the pool.
+ *
+ * @param execution The execution to release as a {@link ScenarioExecution}.
+ */
+public void release(final ScenarioExecution execution) {
+	this.available.add(execution);
+}
+
+/**
+ * Return whether one of the pool executions has been told to stop.
+ *
+ * @return <code>true</code> if the whole scenario should stop, <code>false</code> otherwise.
+ */
+public boolean shouldStop() {
+	synchronized (this.executions) {
+		for (ScenarioExecution execution: this.executions) {
+			if (execution.shouldStop()) return true;
+		}
+	}
+	return false;
+}
+}
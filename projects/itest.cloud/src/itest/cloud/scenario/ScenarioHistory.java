@@ -0,0 +1,340 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+/**
+ * Manage the history of the tests durations and outcomes of previous runs.
+ * <p>
+ * The history is stored in a JSON file (see {@link #HISTORY_FILE_ID} parameter) which
+ * is read when the scenario starts and written when it ends. For each test, only the
+ * last runs are kept (see {@link #HISTORY_SIZE_ID} parameter).
+ * </p><p>
+ * As the file may be shared by several runs (e.g. shards or agents), it is locked while
+ * written and the durations and outcomes of the current run are merged with its content
+ * on disk at that time, hence the history of concurrent runs is not lost.
+ * </p><p>
+ * The history is used to:
+ * <ul>
+ * <li>estimate steps durations to run the longest ones first when running
+ * steps in parallel or in shards (see {@link #getAverageDurations()}),</li>
+ * <li>report the estimated remaining time of the scenario after each test
+ * (see {@link #getRemainingTime()}),</li>
+ * <li>warn when a test took much longer than usual (see {@link #DURATION_REGRESSION_FACTOR_ID}
+ * parameter), which might be the sign of a performance regression.</li>
+ * </ul>
+ * </p>
+ */
+public class ScenarioHistory {
+
+	// Parameters
+	final static String HISTORY_FILE_ID = "historyFile";
+	final static String HISTORY_SIZE_ID = "historySize";
+	final static String DURATION_REGRESSION_FACTOR_ID = "durationRegressionFactor";
+	final static String DURATION_REGRESSION_MIN_ID = "durationRegressionMin";
+
+	// JSON keys
+	private final static String TESTS_KEY = "tests";
+	private final static String DURATIONS_KEY = "durations";
+	private final static String OUTCOMES_KEY = "outcomes";
+
+	// Minimum number of recorded durations to detect a regression
+	private final static int REGRESSION_MIN_HISTORY = 3;
+
+	// History
+	private final File file;
+	private final int size;
+	private final double regressionFactor;
+	private final long regressionMin;
+	private final Map<String, LinkedList<Long>> durations = new TreeMap<String, LinkedList<Long>>();
+	private final Map<String, LinkedList<String>> outcomes = new TreeMap<String, LinkedList<String>>();
+	private final Map<String, Long> averageDurations;
+
+	// Current run
+	private final Map<String, List<Long>> runDurations = new TreeMap<String, List<Long>>();
+	private final Map<String, List<String>> runOutcomes = new TreeMap<String, List<String>>();
+	private final Set<String> remainingTests = new HashSet<String>();
+	private final List<String> regressions = new ArrayList<String>();
+	private long defaultDuration;
+	private int parallelism = 1;
+
+public ScenarioHistory() {
+	String defaultDir = DEBUG_DIRECTORY == null ? System.getProperty("user.dir") : DEBUG_DIRECTORY;
+	this.file = new File(getParameterValue(HISTORY_FILE_ID, defaultDir + File.separator + "testsHistory.json"));
+	this.size = getParameterIntValue(HISTORY_SIZE_ID, 10);
+	this.regressionFactor = getParameterDoubleValue(DURATION_REGRESSION_FACTOR_ID, 2.0);
+	this.regressionMin = getParameterIntValue(DURATION_REGRESSION_MIN_ID, 10) * 1000L;
+	if (this.file.exists()) {
+		try {
+			read(this.durations, this.outcomes);
+			if (DEBUG) debugPrintln("		+ Read history of " + this.durations.size() + " tests from '" + this.file.getAbsolutePath() + "'");
+		}
+		catch (IOException | JsonException | ClassCastException ex) {
+			println("WARNING: Cannot read tests history from '" + this.file.getAbsolutePath() + "' (" + ex.getMessage() + "), it will be overwritten at the end of the run.");
+			this.durations.clear();
+			this.outcomes.clear();
+		}
+	} else {
+		if (DEBUG) debugPrintln("		+ No tests history found at '" + this.file.getAbsolutePath() + "'");
+	}
+	this.averageDurations = computeAverageDurations();
+}
+
+private Map<String, Long> computeAverageDurations() {
+	Map<String, Long> averages = new HashMap<String, Long>();
+	long total = 0;
+	for (Map.Entry<String, LinkedList<Long>> entry: this.durations.entrySet()) {
+		Long average = getAverage(entry.getValue());
+		if (average != null) {
+			averages.put(entry.getKey(), average);
+			total += average.longValue();
+		}
+	}
+	this.defaultDuration = averages.isEmpty() ? 0 : total / averages.size();
+	return Collections.unmodifiableMap(averages);
+}
+
+private Long getAverage(final List<Long> values) {
+	if (values.isEmpty()) return null;
+	long total = 0;
+	for (Long value: values) {
+		total += value.longValue();
+	}
+	return Long.valueOf(total / values.size());
+}
+
+/**
+ * Return the average durations of the tests recorded in the history.
+ *
+ * @return The durations in milliseconds as a map of qualified test names
+ */
+public Map<String, Long> getAverageDurations() {
+	return this.averageDurations;
+}
+
+/**
+ * Return the estimated remaining time of the current run.
+ *
+ * @return The remaining time in milliseconds or <code>-1</code> if the history is empty.
+ */
+public long getRemainingTime() {
+	if (this.averageDurations.isEmpty()) return -1;
+	long remaining = 0;
+	synchronized (this.remainingTests) {
+		for (String test: this.remainingTests) {
+			Long duration = this.averageDurations.get(test);
+			remaining += duration == null ? this.defaultDuration : duration.longValue();
+		}
+	}
+	return remaining / this.parallelism;
+}
+
+/**
+ * Print the tests which took much longer than usual during the current run.
+ */
+public void printRegressions() {
+	synchronized (this.regressions) {
+		if (this.regressions.isEmpty()) return;
+		println("WARNING: " + this.regressions.size() + " test(s) took much longer than in previous runs:");
+		for (String regression: this.regressions) {
+			println("	- " + regression);
+		}
+	}
+}
+
+/**
+ * Read the history file into the given maps.
+ */
+@SuppressWarnings("unchecked")
+private void read(final Map<String, LinkedList<Long>> fileDurations, final Map<String, LinkedList<String>> fileOutcomes) throws IOException {
+	String content = new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8);
+	Map<String, Object> history = new Json().toType(content, Json.MAP_TYPE);
+	Map<String, Object> tests = (Map<String, Object>) history.get(TESTS_KEY);
+	if (tests == null) return;
+	for (Map.Entry<String, Object> entry: tests.entrySet()) {
+		Map<String, Object> test = (Map<String, Object>) entry.getValue();
+		LinkedList<Long> testDurations = new LinkedList<Long>();
+		List<Object> durationValues = (List<Object>) test.get(DURATIONS_KEY);
+		if (durationValues != null) {
+			for (Object duration: durationValues) {
+				testDurations.add(Long.valueOf(((Number) duration).longValue()));
+			}
+		}
+		LinkedList<String> testOutcomes = new LinkedList<String>();
+		List<Object> outcomeValues = (List<Object>) test.get(OUTCOMES_KEY);
+		if (outcomeValues != null) {
+			for (Object outcome: outcomeValues) {
+				testOutcomes.add(String.valueOf(outcome));
+			}
+		}
+		fileDurations.put(entry.getKey(), testDurations);
+		fileOutcomes.put(entry.getKey(), testOutcomes);
+	}
+}
+
+/**
+ * Record the duration and outcome of the given test.
+ * <p>
+ * A warning is printed if the test took much longer than its average duration
+ * in the history.
+ * </p>
+ * @param test The qualified name of the test
+ * @param duration The test duration in milliseconds
+ * @param passed Whether the test passed or not
+ */
+public void record(final String test, final long duration, final boolean passed) {
+	synchronized (this.remainingTests) {
+		this.remainingTests.remove(test);
+	}
+
+	// Check duration against history
+	LinkedList<Long> testDurations;
+	synchronized (this.durations) {
+		testDurations = this.durations.get(test);
+		if (testDurations == null) {
+			testDurations = new LinkedList<Long>();
+			this.durations.put(test, testDurations);
+		}
+		LinkedList<String> testOutcomes = this.outcomes.get(test);
+		if (testOutcomes == null) {
+			testOutcomes = new LinkedList<String>();
+			this.outcomes.put(test, testOutcomes);
+		}
+		if (passed && testDurations.size() >= REGRESSION_MIN_HISTORY) {
+			long average = getAverage(testDurations).longValue();
+			if (duration > average * this.regressionFactor && duration - average > this.regressionMin) {
+				String regression = test + " took " + timeString(duration) + " while it usually takes " + timeString(average);
+				println("		-> WARNING: " + regression);
+				synchronized (this.regressions) {
+					this.regressions.add(regression);
+				}
+			}
+		}
+
+		// Store the new values
+		testDurations.add(Long.valueOf(duration));
+		testOutcomes.add(passed ? "PASSED" : "FAILED");
+		while (testDurations.size() > this.size) testDurations.removeFirst();
+		while (testOutcomes.size() > this.size) testOutcomes.removeFirst();
+
+		// Remember the values of the current run to merge them when writing
+		this.runDurations.computeIfAbsent(test, key -> new ArrayList<Long>()).add(Long.valueOf(duration));
+		this.runOutcomes.computeIfAbsent(test, key -> new ArrayList<String>()).add(passed ? "PASSED" : "FAILED");
+	}
+}
+
+/**
+ * Record that the given test has been skipped.
+ *
+ * @param test The qualified name of the test
+ */
+public void skip(final String test) {
+	synchronized (this.remainingTests) {
+		this.remainingTests.remove(test);
+	}
+}
+
+/**
+ * Start the run of the given tests.
+ *
+ * @param tests The qualified names of the tests to run
+ * @param threads The number of threads running the tests
+ */
+public void startRun(final Collection<String> tests, final int threads) {
+	synchronized (this.remainingTests) {
+		this.remainingTests.clear();
+		this.remainingTests.addAll(tests);
+	}
+	this.parallelism = Math.max(1, threads);
+	long remainingTime = getRemainingTime();
+	if (remainingTime >= 0) {
+		println("Estimated duration of the scenario: " + timeString(remainingTime));
+	}
+}
+
+/**
+ * Write the history to its file.
+ * <p>
+ * The file is locked while written and the values recorded during the current run are
+ * appended to its content on disk, which may have been updated by concurrent runs since
+ * it was read.
+ * </p>
+ */
+public void write() {
+	File parentDir = this.file.getAbsoluteFile().getParentFile();
+	if (parentDir != null) parentDir.mkdirs();
+	Path lockFile = new File(this.file.getAbsolutePath() + ".lock").toPath();
+	try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock lock = channel.lock()) {
+
+		// Merge the current run values with the history on disk
+		Map<String, LinkedList<Long>> fileDurations = new TreeMap<String, LinkedList<Long>>();
+		Map<String, LinkedList<String>> fileOutcomes = new TreeMap<String, LinkedList<String>>();
+		if (this.file.exists()) {
+			try {
+				read(fileDurations, fileOutcomes);
+			}
+			catch (IOException | JsonException | ClassCastException ex) {
+				println("WARNING: Cannot read tests history from '" + this.file.getAbsolutePath() + "' (" + ex.getMessage() + "), it will be overwritten.");
+				fileDurations.clear();
+				fileOutcomes.clear();
+			}
+		}
+		Map<String, Object> tests = new TreeMap<String, Object>();
+		synchronized (this.durations) {
+			for (String test: this.runDurations.keySet()) {
+				LinkedList<Long> testDurations = fileDurations.computeIfAbsent(test, key -> new LinkedList<Long>());
+				LinkedList<String> testOutcomes = fileOutcomes.computeIfAbsent(test, key -> new LinkedList<String>());
+				testDurations.addAll(this.runDurations.get(test));
+				testOutcomes.addAll(this.runOutcomes.get(test));
+				while (testDurations.size() > this.size) testDurations.removeFirst();
+				while (testOutcomes.size() > this.size) testOutcomes.removeFirst();
+			}
+		}
+		for (String test: fileDurations.keySet()) {
+			Map<String, Object> testHistory = new LinkedHashMap<String, Object>();
+			testHistory.put(DURATIONS_KEY, new ArrayList<Long>(fileDurations.get(test)));
+			testHistory.put(OUTCOMES_KEY, new ArrayList<String>(fileOutcomes.get(test)));
+			tests.put(test, testHistory);
+		}
+		Map<String, Object> history = new LinkedHashMap<String, Object>();
+		history.put(TESTS_KEY, tests);
+
+		// Write a temporary file first to never leave a truncated history
+		Path tempFile = Files.createTempFile(parentDir == null ? null : parentDir.toPath(), "history", ".tmp");
+		Files.write(tempFile, new Json().toJson(history).getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		synchronized (this.durations) {
+			this.runDurations.clear();
+			this.runOutcomes.clear();
+		}
+		if (DEBUG) debugPrintln("		+ Tests history written to '" + this.file.getAbsolutePath() + "'");
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot write tests history to '" + this.file.getAbsolutePath() + "': " + ioe.getMessage());
+	}
+}
+}
@@ -0,0 +1,284 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Asynchronous writer of the debug stream.
+ * <p>
+ * Debug lines are queued by the calling threads and written in batches by a single
+ * background thread, hence tests never wait for the debug file I/O. The debug file
+ * is flushed once per batch.
+ * </p><p>
+ * When a JSON file is given, each line is also written to it as a JSON object on a single
+ * line (<a href="https://jsonlines.org">JSON Lines</a>) with the following properties:
+ * <ul>
+ * <li><code>time</code>: the time the line was printed, in ISO-8601 format,</li>
+ * <li><code>thread</code>: the name of the thread which printed the line,</li>
+ * <li><code>step</code>: the name of the step running in that thread, if any,</li>
+ * <li><code>test</code>: the name of the test running in that thread, if any,</li>
+ * <li><code>message</code>: the printed line.</li>
+ * </ul>
+ * Step and test names are set by the scenario execution (see {@link #setContext(String, String)}).
+ * </p>
+ */
+public class ScenarioLogger {
+
+	/*
+	 * A line or a part of line printed in the debug stream.
+	 */
+	private static class Record {
+		final long time;
+		final String thread;
+		final String[] context;
+		final String text;
+		final boolean newLine;
+		final CountDownLatch flushed;
+		Record(final String text, final boolean newLine) {
+			this.time = System.currentTimeMillis();
+			this.thread = Thread.currentThread().getName();
+			this.context = CONTEXT.get();
+			this.text = text;
+			this.newLine = newLine;
+			this.flushed = null;
+		}
+		Record(final CountDownLatch latch) {
+			this.time = 0;
+			this.thread = null;
+			this.context = null;
+			this.text = null;
+			this.newLine = false;
+			this.flushed = latch;
+		}
+	}
+
+	// Record queued to stop the writer thread
+	private final static Record STOP = new Record((CountDownLatch) null);
+
+	// Maximum number of records written before flushing the streams
+	private final static int BATCH_SIZE = 256;
+
+	// Maximum time to wait for queued records to be written
+	private final static long FLUSH_TIMEOUT = 10;
+
+	// Step and test names of the current thread
+	private final static ThreadLocal<String[]> CONTEXT = ThreadLocal.withInitial(() -> new String[2]);
+
+	// Streams
+	private final PrintWriter writer;
+	private final PrintWriter jsonWriter;
+
+	// Queue
+	private final LinkedBlockingQueue<Record> records = new LinkedBlockingQueue<Record>();
+	private final Thread thread;
+	private volatile boolean closed = false;
+
+	// Parts of lines printed by each thread, only used by the writer thread
+	private final Map<String, StringBuilder> partialLines = new HashMap<String, StringBuilder>();
+
+ScenarioLogger(final PrintWriter writer, final File jsonFile) {
+	this.writer = writer;
+	PrintWriter json = null;
+	if (jsonFile != null) {
+		try {
+			json = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(jsonFile, false), StandardCharsets.UTF_8)), false);
+		} catch (FileNotFoundException e) {
+			System.err.println("Cannot create stream for JSON log: " + e.getMessage());
+		}
+	}
+	this.jsonWriter = json;
+	this.thread = new Thread(() -> writeRecords(), "debug-log-writer");
+	this.thread.setDaemon(true);
+	this.thread.start();
+}
+
+private static void appendJsonString(final StringBuilder builder, final String value) {
+	if (value == null) {
+		builder.append("null");
+		return;
+	}
+	builder.append('"');
+	for (int i = 0; i < value.length(); i++) {
+		char c = value.charAt(i);
+		switch (c) {
+			case '"':
+				builder.append("\\\"");
+				break;
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					builder.append(String.format("\\u%04x", (int) c));
+				} else {
+					builder.append(c);
+				}
+				break;
+		}
+	}
+	builder.append('"');
+}
+
+/**
+ * Close the logger.
+ * <p>
+ * All queued lines are written before closing the JSON file. Note that the debug
+ * stream itself is not closed.
+ * </p>
+ */
+void close() {
+	if (this.closed) return;
+	this.records.add(STOP);
+	try {
+		this.thread.join(TimeUnit.SECONDS.toMillis(FLUSH_TIMEOUT));
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+	}
+	this.closed = true;
+	if (!this.thread.isAlive()) {
+		// Write the lines queued after the stop record
+		List<Record> batch = new ArrayList<Record>();
+		this.records.drainTo(batch);
+		batch.remove(STOP);
+		write(batch);
+	}
+	if (this.jsonWriter != null) {
+		this.jsonWriter.close();
+	}
+}
+
+/**
+ * Wait for all the lines queued so far to be written.
+ */
+void flush() {
+	if (this.closed) return;
+	CountDownLatch latch = new CountDownLatch(1);
+	this.records.add(new Record(latch));
+	try {
+		latch.await(FLUSH_TIMEOUT, TimeUnit.SECONDS);
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+	}
+}
+
+/**
+ * Queue the given text to be written in the debug stream.
+ *
+ * @param text The text to write
+ * @param newLine Tells whether a new line has to be written after the text
+ */
+void log(final String text, final boolean newLine) {
+	if (this.closed) {
+		// Writer thread is stopped, write the text directly
+		synchronized (this.writer) {
+			if (newLine) this.writer.println(text); else this.writer.print(text);
+		}
+		return;
+	}
+	this.records.add(new Record(text, newLine));
+}
+
+/**
+ * Set the step and test names of the current thread.
+ * <p>
+ * These names are added to each line written in the JSON file by the current thread.
+ * </p>
+ * @param stepName The step name, might be <code>null</code>
+ * @param testName The test name, might be <code>null</code>
+ */
+public static void setContext(final String stepName, final String testName) {
+	CONTEXT.set(new String[] { stepName, testName });
+}
+
+private void writeJson(final Record record) {
+	StringBuilder partialLine = this.partialLines.get(record.thread);
+	if (!record.newLine) {
+		if (partialLine == null) {
+			this.partialLines.put(record.thread, partialLine = new StringBuilder());
+		}
+		partialLine.append(record.text);
+		return;
+	}
+	String message = record.text;
+	if (partialLine != null) {
+		message = partialLine.append(message).toString();
+		this.partialLines.remove(record.thread);
+	}
+	StringBuilder builder = new StringBuilder("{\"time\":\"").append(Instant.ofEpochMilli(record.time)).append("\",\"thread\":");
+	appendJsonString(builder, record.thread);
+	builder.append(",\"step\":");
+	appendJsonString(builder, record.context[0]);
+	builder.append(",\"test\":");
+	appendJsonString(builder, record.context[1]);
+	builder.append(",\"message\":");
+	appendJsonString(builder, message);
+	this.jsonWriter.println(builder.append('}'));
+}
+
+private void write(final List<Record> batch) {
+	List<CountDownLatch> latches = new ArrayList<CountDownLatch>();
+	synchronized (this.writer) {
+		for (Record record: batch) {
+			if (record.flushed != null) {
+				latches.add(record.flushed);
+				continue;
+			}
+			if (record.newLine) this.writer.println(record.text); else this.writer.print(record.text);
+			if (this.jsonWriter != null) {
+				writeJson(record);
+			}
+		}
+		this.writer.flush();
+		if (this.jsonWriter != null) {
+			this.jsonWriter.flush();
+		}
+	}
+	for (CountDownLatch latch: latches) {
+		latch.countDown();
+	}
+}
+
+private void writeRecords() {
+	List<Record> batch = new ArrayList<Record>(BATCH_SIZE);
+	boolean stopped = false;
+	while (!stopped) {
+		try {
+			batch.add(this.records.take());
+		}
+		catch (InterruptedException ie) {
+			break;
+		}
+		this.records.drainTo(batch, BATCH_SIZE - 1);
+		stopped = batch.remove(STOP);
+		write(batch);
+		batch.clear();
+	}
+}
+}
@@ -0,0 +1,144 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import itest.cloud.util.CredentialVault;
+
+/**
+ * Immutable snapshot of the scenario parameters.
+ * <p>
+ * Parameters are resolved once from the parameters files and the System properties,
+ * the latter taking precedence. Blank values are ignored as if the parameter was not defined.
+ * </p><p>
+ * Typed values (boolean, integer and double values) are parsed the first time they are read
+ * and then kept, hence reading a parameter in a hot path only costs a map lookup. Decrypted
+ * values are kept by the {@link CredentialVault}.
+ * </p><p>
+ * A new snapshot has to be taken when System properties are changed after the scenario start
+ * (see {@link ScenarioUtil#refreshParameters()}).
+ * </p>
+ */
+public class ScenarioParameters {
+
+	// Value used to remember that a parameter value cannot be parsed
+	private final static Object INVALID_VALUE = new Object();
+
+	// Values
+	private final Map<String, String> values;
+	private final Map<String, Object> parsedValues = new ConcurrentHashMap<String, Object>();
+
+ScenarioParameters(final Properties fileParameters) {
+	Map<String, String> allValues = new HashMap<String, String>();
+	if (fileParameters != null) {
+		putValues(allValues, fileParameters);
+	}
+	putValues(allValues, System.getProperties());
+	this.values = Collections.unmodifiableMap(allValues);
+}
+
+private static void putValues(final Map<String, String> allValues, final Properties properties) {
+	for (String name: properties.stringPropertyNames()) {
+		String value = properties.getProperty(name);
+		if (value != null && !value.trim().isEmpty()) {
+			allValues.put(name, value);
+		}
+	}
+}
+
+/**
+ * Return the value of the given parameter.
+ *
+ * @param name The parameter name
+ * @return The value as a {@link String} or <code>null</code> if the parameter
+ * is not defined.
+ */
+public String get(final String name) {
+	return this.values.get(name);
+}
+
+/**
+ * Return all the defined parameters.
+ *
+ * @return The parameters values as an unmodifiable {@link Map}
+ */
+public Map<String, String> getAll() {
+	return this.values;
+}
+
+/**
+ * Return the boolean value of the given parameter.
+ *
+ * @param name The parameter name
+ * @return <code>true</code> if the parameter value is <code>"true"</code>,
+ * <code>false</code> otherwise or <code>null</code> if the parameter is not defined.
+ */
+public Boolean getBoolean(final String name) {
+	return getParsedValue(name, "boolean", value -> Boolean.valueOf(value.equals("true")));
+}
+
+/**
+ * Return the decrypted value of the given parameter.
+ *
+ * @param name The parameter name
+ * @return A copy of the decrypted value as a <code>char[]</code>, which the caller can
+ * overwrite once used, or <code>null</code> if the parameter is not defined.
+ */
+public char[] getDecrypted(final String name) {
+	return CredentialVault.getChars(this.values.get(name));
+}
+
+/**
+ * Return the double value of the given parameter.
+ *
+ * @param name The parameter name
+ * @return The value as a {@link Double} or <code>null</code> if the parameter is
+ * not defined or is not a valid double.
+ */
+public Double getDouble(final String name) {
+	return getParsedValue(name, "double", value -> Double.valueOf(value));
+}
+
+/**
+ * Return the integer value of the given parameter.
+ *
+ * @param name The parameter name
+ * @return The value as an {@link Integer} or <code>null</code> if the parameter is
+ * not defined or is not a valid integer.
+ */
+public Integer getInt(final String name) {
+	return getParsedValue(name, "integer", value -> Integer.valueOf(value));
+}
+
+@SuppressWarnings("unchecked")
+private <T> T getParsedValue(final String name, final String type, final Function<String, T> parser) {
+	String value = this.values.get(name);
+	if (value == null) return null;
+	Object parsedValue = this.parsedValues.computeIfAbsent(type + ":" + name, key -> {
+		try {
+			return parser.apply(value);
+		}
+		catch (NumberFormatException nfe) {
+			// Warn only once, the default value will be used on each read
+			System.err.println("The specified value for parameter '"+name+"' is not a valid "+type+"!");
+			System.err.println("Default value will be used instead...");
+			return INVALID_VALUE;
+		}
+	});
+	return parsedValue == INVALID_VALUE ? null : (T) parsedValue;
+}
+}
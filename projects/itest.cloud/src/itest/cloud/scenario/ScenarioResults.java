@@ -0,0 +1,212 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+/**
+ * Manage the results of the scenario tests.
+ * <p>
+ * The outcome of each test is stored in a JSON file (see {@link #RESULTS_FILE_ID} parameter)
+ * as soon as the test ends, hence the file is always up-to-date even if the run is aborted.
+ * Possible outcomes are:
+ * <ul>
+ * <li>{@link #PASSED}: the test passed,</li>
+ * <li>{@link #FAILED}: the test failed,</li>
+ * <li>{@link #BLOCKED}: the test was skipped because one of its prerequisites failed,</li>
+ * <li>{@link #NOT_RUN}: the test was selected but did not run, e.g. because the scenario
+ * stopped before.</li>
+ * </ul>
+ * </p><p>
+ * When the {@link #RERUN_FAILED_ID} parameter is set, the results of the previous run are
+ * read and only the tests which did not pass are run again (see {@link #getTestsToRerun()}).
+ * The results file is then updated with the new outcomes of these tests, other tests keeping
+ * their previous outcome.
+ * </p>
+ */
+public class ScenarioResults {
+
+	// Parameters
+	final static String RESULTS_FILE_ID = "resultsFile";
+	final static String RERUN_FAILED_ID = "rerunFailed";
+
+	// Outcomes
+	final static String PASSED = "PASSED";
+	final static String FAILED = "FAILED";
+	final static String BLOCKED = "BLOCKED";
+	final static String NOT_RUN = "NOT_RUN";
+
+	// JSON keys
+	private final static String TESTS_KEY = "tests";
+
+	// Results
+	private final File file;
+	private final boolean rerunFailed;
+	private final Map<String, String> outcomes = new TreeMap<String, String>();
+	private boolean previousResultsRead = false;
+
+public ScenarioResults() {
+	String defaultDir = DEBUG_DIRECTORY == null ? System.getProperty("user.dir") : DEBUG_DIRECTORY;
+	this.file = new File(getParameterValue(RESULTS_FILE_ID, defaultDir + File.separator + "testsResults.json"));
+	this.rerunFailed = getParameterBooleanValue(RERUN_FAILED_ID);
+	if (this.rerunFailed) {
+		read();
+	}
+}
+
+/**
+ * Return the tests which passed in the previous run.
+ *
+ * @return The qualified names of passed tests, empty if the results of the
+ * previous run could not be read.
+ */
+public Set<String> getPassedTests() {
+	Set<String> tests = new LinkedHashSet<String>();
+	if (!this.previousResultsRead) return tests;
+	synchronized (this.outcomes) {
+		for (Map.Entry<String, String> entry: this.outcomes.entrySet()) {
+			if (PASSED.equals(entry.getValue())) {
+				tests.add(entry.getKey());
+			}
+		}
+	}
+	return tests;
+}
+
+/**
+ * Return the tests which did not pass in the previous run.
+ *
+ * @return The qualified names of failed, blocked or not run tests or <code>null</code>
+ * if the results of the previous run could not be read.
+ */
+public Set<String> getTestsToRerun() {
+	if (!this.previousResultsRead) {
+		return null;
+	}
+	Set<String> tests = new LinkedHashSet<String>();
+	synchronized (this.outcomes) {
+		for (Map.Entry<String, String> entry: this.outcomes.entrySet()) {
+			if (!PASSED.equals(entry.getValue())) {
+				tests.add(entry.getKey());
+			}
+		}
+	}
+	return tests;
+}
+
+/**
+ * Tells whether only the tests which did not pass in the previous run should be run.
+ *
+ * @return <code>true</code> if the {@link #RERUN_FAILED_ID} parameter is set,
+ * <code>false</code> otherwise.
+ */
+public boolean isRerunFailed() {
+	return this.rerunFailed;
+}
+
+/**
+ * Print a summary of the results.
+ */
+public void printSummary() {
+	Map<String, Integer> counts = new TreeMap<String, Integer>();
+	synchronized (this.outcomes) {
+		for (String outcome: this.outcomes.values()) {
+			Integer count = counts.get(outcome);
+			counts.put(outcome, count == null ? 1 : count + 1);
+		}
+	}
+	println("Tests results " + counts + " stored in '" + this.file.getAbsolutePath() + "'");
+}
+
+@SuppressWarnings("unchecked")
+private void read() {
+	if (!this.file.exists()) {
+		println("WARNING: Cannot find tests results '" + this.file.getAbsolutePath() + "', all tests will be run.");
+		return;
+	}
+	try {
+		String content = new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8);
+		Map<String, Object> results = new Json().toType(content, Json.MAP_TYPE);
+		Map<String, Object> tests = (Map<String, Object>) results.get(TESTS_KEY);
+		if (tests == null) return;
+		for (Map.Entry<String, Object> entry: tests.entrySet()) {
+			this.outcomes.put(entry.getKey(), String.valueOf(entry.getValue()));
+		}
+		this.previousResultsRead = true;
+		if (DEBUG) debugPrintln("		+ Read results of " + this.outcomes.size() + " tests from '" + this.file.getAbsolutePath() + "'");
+	}
+	catch (IOException | JsonException | ClassCastException ex) {
+		println("WARNING: Cannot read tests results from '" + this.file.getAbsolutePath() + "' (" + ex.getMessage() + "), all tests will be run.");
+		this.outcomes.clear();
+	}
+}
+
+/**
+ * Record the outcome of the given test and write the results file.
+ *
+ * @param test The qualified name of the test
+ * @param outcome The test outcome
+ */
+public void record(final String test, final String outcome) {
+	synchronized (this.outcomes) {
+		this.outcomes.put(test, outcome);
+		write();
+	}
+}
+
+/**
+ * Start the run of the given tests.
+ * <p>
+ * All tests are recorded as {@link #NOT_RUN} until they end. Results of the other
+ * tests are kept when only failed tests are run again, otherwise they are discarded.
+ * </p>
+ * @param tests The qualified names of the tests to run
+ */
+public void startRun(final Collection<String> tests) {
+	synchronized (this.outcomes) {
+		if (!this.rerunFailed) {
+			this.outcomes.clear();
+		}
+		for (String test: tests) {
+			this.outcomes.put(test, NOT_RUN);
+		}
+		write();
+	}
+}
+
+private void write() {
+	Map<String, Object> results = new LinkedHashMap<String, Object>();
+	results.put(TESTS_KEY, new TreeMap<String, String>(this.outcomes));
+	try {
+		// Write a temporary file first to never leave truncated results
+		File parentDir = this.file.getAbsoluteFile().getParentFile();
+		if (parentDir != null) parentDir.mkdirs();
+		Path tempFile = Files.createTempFile(parentDir == null ? null : parentDir.toPath(), "results", ".tmp");
+		Files.write(tempFile, new Json().toJson(results).getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot write tests results to '" + this.file.getAbsolutePath() + "': " + ioe.getMessage());
+	}
+}
+}
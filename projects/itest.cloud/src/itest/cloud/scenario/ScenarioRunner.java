@@ -19,6 +19,7 @@ import static java.lang.System.setProperty;
 
 import java.lang.annotation.Annotation;
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.junit.runner.Description;
 import org.junit.runner.Runner;
@@ -26,11 +27,15 @@ import org.junit.runner.manipulation.Filter;
 import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.Suite;
-import org.junit.runners.model.InitializationError;
-import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.*;
 
 import itest.cloud.annotation.*;
+import itest.cloud.browser.AssetCache;
+import itest.cloud.browser.BrowserPool;
+import itest.cloud.browser.HarRecorder;
+import itest.cloud.browser.SnapshotWriter;
 import itest.cloud.scenario.error.ScenarioFailedError;
+import itest.cloud.util.CredentialVault;
 
 /**
  * Manage scenario JUnit run.
@@ -48,6 +53,22 @@ import itest.cloud.scenario.error.ScenarioFailedError;
  * has to end instead of default one.</li>
  * <li>{@link #STEPS}: steps the scenario has to run</li>
  * </ul>
+ * </p><p>
+ * Steps can also be run in parallel by setting the {@link #PARALLEL_STEPS_ID}
+ * parameter to the maximum number of browsers to use at the same time. In that case,
+ * steps connected through {@link DependsOn} or {@link Dependency} annotations are
+ * grouped in chains which are run sequentially in the same browser, each chain
+ * running in parallel with the other ones.
+ * </p><p>
+ * Finally, steps can be distributed across several agents by setting the
+ * {@link #SHARD_COUNT_ID} and {@link #SHARD_INDEX_ID} parameters (see {@link ScenarioShard}).
+ * </p><p>
+ * The tests durations and outcomes are stored in a history (see {@link ScenarioHistory})
+ * used to start the longest steps first and to estimate the remaining time of the scenario.
+ * </p><p>
+ * The tests outcomes are also stored in a results file (see {@link ScenarioResults}). Setting the
+ * {@link ScenarioResults#RERUN_FAILED_ID} parameter then allows to only run the tests which did not
+ * pass in the previous run, together with the tests they depend on.
  * </p>
  */
 public abstract class ScenarioRunner extends Suite {
@@ -83,6 +104,10 @@ public abstract class ScenarioRunner extends Suite {
 	final static String FIRST_TEST = getParametersValue("runTest", "firstTest");
 	final static String LAST_TEST = getParameterValue("lastTest");
 	final static String TESTS = getParameterValue("tests");
+	final static String PARALLEL_STEPS_ID = "parallelSteps";
+	final static String SHARD_INDEX_ID = "shardIndex";
+	final static String SHARD_COUNT_ID = "shardCount";
+	final static String SHARD_DURATIONS_ID = "shardDurations";
 	final static List<String> TESTS_LIST = new ArrayList<String>();
 
 	static {
@@ -97,6 +122,25 @@ public abstract class ScenarioRunner extends Suite {
 	// Data
 	protected ScenarioExecution scenarioExecution;
 
+	// Dependencies
+	protected ScenarioDependencyGraph dependencyGraph;
+
+	// Durations history
+	protected ScenarioHistory history;
+
+	// Tests results
+	protected ScenarioResults results;
+	// Tests which passed in previous run and are not run again
+	private Set<String> previouslyPassedTests = Collections.emptySet();
+
+	// Parallel execution
+	protected int parallelSteps;
+	protected ScenarioExecutionPool executionPool;
+
+	// Sharding
+	protected int shardIndex;
+	protected int shardCount;
+
 	// Execution controls
 	boolean stopOnFailure;
 	private final Set<String> steps = new HashSet<String>();
@@ -112,6 +156,19 @@ public ScenarioRunner(final Class< ? > klass, final RunnerBuilder builder) throw
 	// Initialize the parameters passed in bulk.
     initBulkParams();
 
+	// Read the number of steps which can run in parallel
+	this.parallelSteps = getParameterIntValue(PARALLEL_STEPS_ID, 1);
+
+	// Read the tests history
+	this.history = new ScenarioHistory();
+
+	// Read the tests results
+	this.results = new ScenarioResults();
+
+	// Read the shard to run
+	this.shardIndex = getParameterIntValue(SHARD_INDEX_ID, 0);
+	this.shardCount = getParameterIntValue(SHARD_COUNT_ID, 1);
+
 	// Start execution
 	startExecution();
 
@@ -173,11 +230,121 @@ public ScenarioRunner(final Class< ? > klass, final RunnerBuilder builder) throw
 	};
 
 	// Filter steps and tests
+	long filterStart = System.nanoTime();
 	try {
 	    filter(filter);
     } catch (NoTestsRemainException e) {
 	    e.printStackTrace();
     }
+
+	// Build the dependencies graph and sort steps and tests to run prerequisites first
+	this.dependencyGraph = new ScenarioDependencyGraph(getChildren());
+
+	// Only keep the tests which did not pass in previous run if requested
+	if (this.results.isRerunFailed()) {
+		filterPassedTests();
+		this.dependencyGraph = new ScenarioDependencyGraph(getChildren());
+	}
+
+	// Only keep the steps of the current shard if any
+	if (this.shardCount > 1) {
+		filterShardSteps();
+		this.dependencyGraph = new ScenarioDependencyGraph(getChildren());
+	}
+	// Tests which are not run again keep their previous result for their dependents
+	for (String test: this.previouslyPassedTests) {
+		this.dependencyGraph.recordResult(test, Boolean.TRUE);
+	}
+	this.dependencyGraph.printSummary();
+	sort(this.dependencyGraph.getSorter());
+	ScenarioStartup.record("Steps filtering", filterStart);
+}
+
+/**
+ * Build the chains of steps to run when steps are run in parallel.
+ * <p>
+ * A step is put in the same chain than its prerequisite steps in the
+ * dependencies graph (see {@link ScenarioDependencyGraph#getStepPrerequisites(String)}).
+ * The steps order is kept inside each chain.
+ * </p>
+ * @return The list of chains
+ */
+protected List<List<Runner>> buildStepChains() {
+	List<Runner> children = getChildren();
+	int size = children.size();
+
+	// Store the step indexes
+	Map<String, Integer> indexes = new HashMap<String, Integer>();
+	for (int i = 0; i < size; i++) {
+		indexes.put(children.get(i).getDescription().getClassName(), i);
+	}
+
+	// Link steps which depend on each other
+	int[] links = new int[size];
+	for (int i = 0; i < size; i++) {
+		links[i] = i;
+	}
+	for (int i = 0; i < size; i++) {
+		for (String prerequisiteStep: this.dependencyGraph.getStepPrerequisites(children.get(i).getDescription().getClassName())) {
+			Integer index = indexes.get(prerequisiteStep);
+			if (index != null) {
+				linkSteps(links, i, index.intValue());
+			}
+		}
+	}
+
+	// Group the steps in chains
+	Map<Integer, List<Runner>> chains = new LinkedHashMap<Integer, List<Runner>>();
+	for (int i = 0; i < size; i++) {
+		Integer root = Integer.valueOf(getLinkedStep(links, i));
+		List<Runner> chain = chains.get(root);
+		if (chain == null) {
+			chain = new ArrayList<Runner>();
+			chains.put(root, chain);
+		}
+		chain.add(children.get(i));
+	}
+	return new ArrayList<List<Runner>>(chains.values());
+}
+
+/**
+ * {@inheritDoc}
+ * <p>
+ * Run the steps in parallel if the {@link #PARALLEL_STEPS_ID} parameter
+ * is greater than 1.
+ * </p>
+ */
+@Override
+protected Statement childrenInvoker(final RunNotifier notifier) {
+	if (this.parallelSteps <= 1) {
+		return super.childrenInvoker(notifier);
+	}
+	return new Statement() {
+		@Override
+		public void evaluate() {
+			runChildrenInParallel(notifier);
+		}
+	};
+}
+
+/**
+ * Create a new scenario execution for a thread running steps in parallel.
+ * <p>
+ * Default is to create a new instance of the initial execution class, which
+ * therefore needs a public constructor without argument. Subclasses may want
+ * to override this method if that's not the case.
+ * </p>
+ * @return The new execution as a {@link ScenarioExecution}.
+ */
+protected ScenarioExecution createScenarioExecution() {
+	try {
+		ScenarioExecution execution = this.scenarioExecution.getClass().getConstructor().newInstance();
+		execution.setSingleStep(this.scenarioExecution.isSingleStep());
+		return execution;
+	}
+	catch (ReflectiveOperationException roe) {
+		throw new ScenarioFailedError(roe);
+	}
 }
 
 /**
@@ -195,7 +362,105 @@ protected <T extends Annotation> void addAnnotationFilter(final AnnotationFilter
  * Ends the scenario execution.
  */
 protected void endExecution() {
-	this.scenarioExecution.finish();
+	this.dependencyGraph.printCriticalPath();
+	this.history.printRegressions();
+	this.history.write();
+	this.results.printSummary();
+	ScenarioStartup.finish(false /*checkBudget*/);
+	if (this.executionPool != null) {
+		this.executionPool.finish();
+	} else {
+		this.scenarioExecution.finish();
+	}
+	BrowserPool.shutdown();
+	SnapshotWriter.shutdown();
+	AssetCache.shutdown();
+	HarRecorder.shutdown();
+	CredentialVault.close();
+}
+
+/**
+ * Filter the tests which passed in the previous run.
+ * <p>
+ * Only the tests which failed, were blocked or did not run in the previous
+ * run are kept (see {@link ScenarioResults#getTestsToRerun()}), together with
+ * the tests they need to run (see {@link ScenarioDependencyGraph#getRequiredTests(Collection)}).
+ * Ignored tests and tests which cannot run again (see {@link NotRerunnable}) are
+ * never kept, the latter keeping the result of the previous run for their dependents.
+ * </p>
+ */
+protected void filterPassedTests() {
+	Set<String> testsToRerun = this.results.getTestsToRerun();
+	if (testsToRerun == null) return;
+	final Set<String> requiredTests = this.dependencyGraph.getRequiredTests(testsToRerun);
+	for (String test: this.dependencyGraph.getNotRerunnableTests()) {
+		if (testsToRerun.contains(test)) {
+			println("WARNING: Test " + test + " did not pass in previous run but cannot run again, tests depending on it will be blocked.");
+		}
+	}
+	this.previouslyPassedTests = this.results.getPassedTests();
+	this.previouslyPassedTests.removeAll(requiredTests);
+	println("Re-running " + requiredTests.size() + " test(s) which did not pass in previous run or which are needed by them.");
+	try {
+		filter(new Filter() {
+			@Override
+			public String describe() {
+				return "Filtering tests which passed in previous run";
+			}
+			@Override
+			public boolean shouldRun(final Description description) {
+				if (description.getMethodName() != null) {
+					return requiredTests.contains(description.getClassName() + "." + description.getMethodName());
+				}
+				for (Description testDescription: description.getChildren()) {
+					if (shouldRun(testDescription)) return true;
+				}
+				return false;
+			}
+		});
+	} catch (NoTestsRemainException e) {
+		println("WARNING: All tests passed in previous run, there's no test to re-run.");
+	}
+}
+
+/**
+ * Filter the steps which do not belong to the current shard.
+ * <p>
+ * Steps are partitioned using the durations of the tests found in the JUnit XML
+ * report(s) given by the {@link #SHARD_DURATIONS_ID} parameter or, if not set, the
+ * durations of the tests history when its file is explicitly given. Otherwise, all
+ * tests are assumed to last the same time.
+ * </p>
+ */
+protected void filterShardSteps() {
+	ScenarioShard shard = new ScenarioShard(this.shardIndex, this.shardCount);
+	// All agents need the same durations to compute the same partition, hence the history is only
+	// used when its file is explicitly given as the default one is local to each agent
+	String durationsReport = getParameterValue(SHARD_DURATIONS_ID);
+	Map<String, Long> durations;
+	if (durationsReport != null) {
+		durations = ScenarioShard.readTestDurations(durationsReport);
+	} else if (getParameterValue(ScenarioHistory.HISTORY_FILE_ID) != null) {
+		durations = this.history.getAverageDurations();
+	} else {
+		println("WARNING: Neither " + SHARD_DURATIONS_ID + " nor " + ScenarioHistory.HISTORY_FILE_ID + " parameter is set, steps are partitioned assuming all tests have the same duration.");
+		durations = Collections.emptyMap();
+	}
+	final Set<String> shardSteps = shard.selectSteps(buildStepChains(), durations);
+	try {
+		filter(new Filter() {
+			@Override
+			public String describe() {
+				return "Filtering steps of shard " + ScenarioRunner.this.shardIndex + " of " + ScenarioRunner.this.shardCount;
+			}
+			@Override
+			public boolean shouldRun(final Description description) {
+				return description.getMethodName() != null || shardSteps.contains(description.getClassName());
+			}
+		});
+	} catch (NoTestsRemainException e) {
+		println("WARNING: There's no step to run in shard " + this.shardIndex + " of " + this.shardCount + ".");
+	}
 }
 
 private List<AnnotationFilter<? extends Annotation>> getAnnotationFilters() {
@@ -212,6 +477,14 @@ public ScenarioExecution getScenarioExecution() {
 	return this.scenarioExecution;
 }
 
+private int getLinkedStep(final int[] links, final int index) {
+	int root = index;
+	while (links[root] != root) {
+		root = links[root];
+	}
+	return root;
+}
+
 /**
  * Init filters based on annotations.
  * <p>
@@ -239,6 +512,7 @@ protected void initBulkParams() {
 			setProperty(parameter.substring(0 /*beginIndex*/, equalCharIndex /*endIndex*/),
 				parameter.substring(equalCharIndex + 1) /*beginIndex*/);
 		}
+		refreshParameters();
 	}
 }
 
@@ -255,6 +529,9 @@ protected void initBulkParams() {
 public void run(final RunNotifier notifier) {
 
 	// Propagate config to step runners
+	this.scenarioExecution.setDependencyGraph(this.dependencyGraph);
+	this.scenarioExecution.setHistory(this.history);
+	this.scenarioExecution.setResults(this.results);
 	for (Runner runner: getChildren()) {
 		try {
 	        ScenarioStepRunner stepRunner = (ScenarioStepRunner) runner;
@@ -265,8 +542,15 @@ public void run(final RunNotifier notifier) {
         }
 	}
 
+	// Create the pool of executions when steps are run in parallel
+	if (this.parallelSteps > 1 && this.executionPool == null) {
+		this.executionPool = new ScenarioExecutionPool(this.scenarioExecution, this.parallelSteps, () -> createScenarioExecution());
+	}
+
 	// Looping of scenarios for performance testing
+	this.results.startRun(this.dependencyGraph.getTests());
 	for (int i = 0; i < PERFORMANCE_LOOPS; i++){
+		this.history.startRun(this.dependencyGraph.getTests(), this.parallelSteps);
 		// Run the scenario
 		super.run(notifier);
 	}
@@ -288,6 +572,90 @@ protected void runChild(final Runner runner, final RunNotifier notifier) {
 	}
 }
 
+private void linkSteps(final int[] links, final int first, final int second) {
+	int firstRoot = getLinkedStep(links, first);
+	int secondRoot = getLinkedStep(links, second);
+	// Always keep the lowest index as root to preserve the steps order
+	if (firstRoot < secondRoot) {
+		links[secondRoot] = firstRoot;
+	} else {
+		links[firstRoot] = secondRoot;
+	}
+}
+
+/**
+ * Run the steps chains in parallel.
+ * <p>
+ * Each chain is run in a separate thread with its own execution, hence its own browser,
+ * acquired from the executions pool. Each chain steps are run sequentially.
+ * </p>
+ * @param notifier The run notifier
+ */
+protected void runChildrenInParallel(final RunNotifier notifier) {
+	// Start longest chains first
+	List<List<Runner>> chains = buildStepChains();
+	ScenarioShard.sortChainsByDuration(chains, this.history.getAverageDurations());
+	int threads = Math.min(this.parallelSteps, chains.size());
+	println("Running " + getChildren().size() + " steps grouped in " + chains.size() + " chain(s) using " + threads + " parallel thread(s)...");
+
+	// Start a thread per chain up to the parallel steps number
+	ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+		private int counter = 0;
+		@Override
+		public synchronized Thread newThread(final Runnable runnable) {
+			return new Thread(runnable, "scenario-steps-" + (++this.counter));
+		}
+	});
+	List<Future<?>> futures = new ArrayList<Future<?>>();
+	for (final List<Runner> chain: chains) {
+		futures.add(executor.submit(() -> runStepsChain(chain, notifier)));
+	}
+
+	// Wait for all chains to finish
+	try {
+		for (Future<?> future: futures) {
+			try {
+				future.get();
+			}
+			catch (ExecutionException ee) {
+				printException(ee.getCause());
+			}
+		}
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new ScenarioFailedError(ie);
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+ * Run the given chain of steps in the current thread.
+ *
+ * @param chain The steps to run sequentially
+ * @param notifier The run notifier
+ */
+protected void runStepsChain(final List<Runner> chain, final RunNotifier notifier) {
+	ScenarioExecution execution = this.executionPool.acquire();
+	try {
+		for (Runner runner: chain) {
+			if (this.executionPool.shouldStop()) break;
+			if (runner instanceof ScenarioStepRunner) {
+				execution.setDependencyGraph(this.dependencyGraph);
+				execution.setHistory(this.history);
+				execution.setResults(this.results);
+				((ScenarioStepRunner) runner).setScenarioExecution(execution);
+			}
+			runner.run(notifier);
+		}
+	}
+	finally {
+		this.executionPool.release(execution);
+	}
+}
+
 private final boolean shouldRunBasedOnAnnotations(final Description description, final List<Description> filteredList) {
 
 	// Check each annotation filter
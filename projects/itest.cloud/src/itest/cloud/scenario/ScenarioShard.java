@@ -0,0 +1,192 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.util.*;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import itest.cloud.scenario.error.ScenarioFailedError;
+
+/**
+ * Manage the partition of a scenario steps across several agents.
+ * <p>
+ * Each agent runs the same scenario with the same {@link ScenarioRunner#SHARD_COUNT_ID}
+ * parameter but a different {@link ScenarioRunner#SHARD_INDEX_ID} parameter. The partition
+ * is deterministic, hence each step is run by one and only one agent.
+ * </p><p>
+ * Steps chains (see {@link ScenarioRunner#buildStepChains()}) are never split, so that
+ * tests depending on each other are always run by the same agent. Chains are distributed
+ * using their estimated duration, longest first, to the agent having the smallest load.
+ * </p><p>
+ * Durations are read from JUnit XML reports of previous runs (see {@link #readTestDurations(String)})
+ * or from the tests history (see {@link ScenarioHistory}). When a test has no recorded duration,
+ * the average of recorded durations is used instead.
+ * </p>
+ */
+public class ScenarioShard {
+
+	// Duration used for tests when there's no recorded duration at all
+	private final static long DEFAULT_TEST_DURATION = 60000;
+
+	// Shard
+	private final int index;
+	private final int count;
+
+public ScenarioShard(final int index, final int count) {
+	if (count < 1 || index < 0 || index >= count) {
+		throw new ScenarioFailedError("Invalid shard index " + index + " for shard count " + count + ", index must be between 0 and " + (count-1) + ".");
+	}
+	this.index = index;
+	this.count = count;
+}
+
+/**
+ * Read the tests durations from the given JUnit XML report(s).
+ *
+ * @param reportsPath The path of a JUnit XML report or of a directory containing
+ * JUnit XML reports. Might be <code>null</code>.
+ * @return The durations in milliseconds as a map of qualified test names, empty if the path
+ * is <code>null</code> or if no valid report was found.
+ */
+public static Map<String, Long> readTestDurations(final String reportsPath) {
+	Map<String, Long> durations = new HashMap<String, Long>();
+	if (reportsPath == null) return durations;
+	List<File> reports = new ArrayList<File>();
+	File reportsFile = new File(reportsPath);
+	if (reportsFile.isDirectory()) {
+		File[] files = reportsFile.listFiles();
+		if (files != null) {
+			for (File file: files) {
+				if (file.getName().endsWith(".xml")) reports.add(file);
+			}
+		}
+	} else if (reportsFile.exists()) {
+		reports.add(reportsFile);
+	} else {
+		println("WARNING: Cannot find durations report '" + reportsPath + "', tests will be considered as having the same duration.");
+	}
+	for (File report: reports) {
+		try {
+			NodeList testCases = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(report).getElementsByTagName("testcase");
+			for (int i = 0; i < testCases.getLength(); i++) {
+				Element testCase = (Element) testCases.item(i);
+				String time = testCase.getAttribute("time");
+				if (time.length() > 0) {
+					durations.put(testCase.getAttribute("classname") + "." + testCase.getAttribute("name"), Long.valueOf((long) (Double.parseDouble(time.replace(",", "")) * 1000)));
+				}
+			}
+		}
+		catch (Exception ex) {
+			println("WARNING: Cannot read durations from '" + report.getAbsolutePath() + "': " + ex.getMessage());
+		}
+	}
+	if (DEBUG) debugPrintln("		+ Read " + durations.size() + " test durations from '" + reportsPath + "'");
+	return durations;
+}
+
+private static long getEstimatedDuration(final List<Runner> chain, final Map<String, Long> durations, final long defaultDuration) {
+	long duration = 0;
+	for (Runner step: chain) {
+		Description stepDescription = step.getDescription();
+		for (Description testDescription: stepDescription.getChildren()) {
+			Long testDuration = durations.get(stepDescription.getClassName() + "." + testDescription.getMethodName());
+			duration += testDuration == null ? defaultDuration : testDuration.longValue();
+		}
+	}
+	return duration;
+}
+
+/**
+ * Sort the given steps chains using their estimated duration, longest first.
+ * <p>
+ * Chains having the same duration are sorted using their first step name,
+ * hence the order is the same on all agents.
+ * </p>
+ * @param chains The steps chains to sort
+ * @param durations The recorded tests durations
+ * @return The estimated duration of each chain
+ */
+public static Map<List<Runner>, Long> sortChainsByDuration(final List<List<Runner>> chains, final Map<String, Long> durations) {
+	// Compute the duration to use for tests without recorded duration
+	long defaultDuration = DEFAULT_TEST_DURATION;
+	if (!durations.isEmpty()) {
+		long total = 0;
+		for (Long duration: durations.values()) {
+			total += duration.longValue();
+		}
+		defaultDuration = total / durations.size();
+	}
+
+	// Sort chains
+	final Map<List<Runner>, Long> chainDurations = new IdentityHashMap<List<Runner>, Long>();
+	for (List<Runner> chain: chains) {
+		chainDurations.put(chain, getEstimatedDuration(chain, durations, defaultDuration));
+	}
+	Collections.sort(chains, new Comparator<List<Runner>>() {
+		@Override
+		public int compare(final List<Runner> chain1, final List<Runner> chain2) {
+			int comparison = chainDurations.get(chain2).compareTo(chainDurations.get(chain1));
+			if (comparison != 0) return comparison;
+			return chain1.get(0).getDescription().getClassName().compareTo(chain2.get(0).getDescription().getClassName());
+		}
+	});
+	return chainDurations;
+}
+
+/**
+ * Select the steps to run in the current shard.
+ *
+ * @param chains The steps chains of the whole scenario
+ * @param durations The recorded tests durations
+ * @return The set of step class names to run in the current shard
+ */
+public Set<String> selectSteps(final List<List<Runner>> chains, final Map<String, Long> durations) {
+	// Sort chains by estimated duration, longest first
+	List<List<Runner>> sortedChains = new ArrayList<List<Runner>>(chains);
+	Map<List<Runner>, Long> chainDurations = sortChainsByDuration(sortedChains, durations);
+
+	// Give each chain to the shard having the smallest load
+	long[] loads = new long[this.count];
+	Set<String> steps = new LinkedHashSet<String>();
+	for (List<Runner> chain: sortedChains) {
+		int shard = 0;
+		for (int i = 1; i < this.count; i++) {
+			if (loads[i] < loads[shard]) shard = i;
+		}
+		loads[shard] += chainDurations.get(chain).longValue();
+		if (shard == this.index) {
+			for (Runner step: chain) {
+				steps.add(step.getDescription().getClassName());
+			}
+		}
+	}
+
+	println("Running shard " + this.index + " of " + this.count + ": " + steps.size() + " step(s) with an estimated duration of " + timeString(loads[this.index]) + ".");
+	if (DEBUG) {
+		for (int i = 0; i < this.count; i++) {
+			debugPrintln("		+ Shard " + i + " estimated duration: " + timeString(loads[i]));
+		}
+	}
+	return steps;
+}
+}
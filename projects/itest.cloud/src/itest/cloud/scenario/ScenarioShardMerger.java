@@ -0,0 +1,206 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.openqa.selenium.json.Json;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Merge the results of a scenario run in several shards (see {@link ScenarioShard}).
+ * <p>
+ * Usage: <code>ScenarioShardMerger &lt;output dir&gt; &lt;shard dir&gt; [&lt;shard dir&gt;...]</code>
+ * </p><p>
+ * As shard directories are read recursively, a single directory containing one
+ * sub-directory per shard can also be given.
+ * </p><p>
+ * All files found in the shard directories (recursively) are merged as follows:
+ * <ul>
+ * <li>JUnit XML reports are merged into a single <code>report.xml</code> file
+ * having a <code>testsuites</code> root element with the cumulated counters.</li>
+ * <li>Performance CSV files (see {@link itest.cloud.performance.TaskDataWriter}) are merged
+ * into a single <code>PerfResults.csv</code> file having only one header line.</li>
+ * <li>Tests results files (see {@link ScenarioResults}) are merged into a single
+ * <code>testsResults.json</code> file. When a test has several outcomes, the failure
+ * is kept over the block, then over the pass, then over the not run outcome.</li>
+ * </ul>
+ * </p>
+ */
+public class ScenarioShardMerger {
+
+	private final static String REPORT_FILE_NAME = "report.xml";
+	private final static String PERFORMANCE_FILE_NAME = "PerfResults.csv";
+	private final static String PERFORMANCE_HEADER_START = "\"Step Name\"";
+	private final static String RESULTS_FILE_NAME = "testsResults.json";
+	private final static String RESULTS_TESTS_KEY = "tests";
+	// Outcomes of the tests results, in increasing priority (see ScenarioResults)
+	private final static List<String> OUTCOMES_PRIORITY = Arrays.asList("NOT_RUN", "PASSED", "BLOCKED", "FAILED");
+	private final static String[] COUNTERS = { "tests", "failures", "errors", "skipped" };
+
+	// Merged files
+	private final File outputDir;
+	private final List<File> reports = new ArrayList<File>();
+	private final List<File> performanceFiles = new ArrayList<File>();
+	private final List<File> resultsFiles = new ArrayList<File>();
+
+public ScenarioShardMerger(final File outputDir) {
+	this.outputDir = outputDir;
+}
+
+/**
+ * Add the result files of the given shard directory.
+ *
+ * @param dir The directory where a shard has stored its results
+ * @throws IOException If a file cannot be read
+ */
+public void addShardDir(final File dir) throws IOException {
+	File[] files = dir.listFiles();
+	if (files == null) {
+		throw new IOException("Cannot list files of shard directory '" + dir.getAbsolutePath() + "'.");
+	}
+	for (File file: files) {
+		if (file.isDirectory()) {
+			addShardDir(file);
+		} else if (file.getName().endsWith(".xml") && isJUnitReport(file)) {
+			this.reports.add(file);
+		} else if (file.getName().endsWith(".csv") && isPerformanceFile(file)) {
+			this.performanceFiles.add(file);
+		} else if (file.getName().equals(RESULTS_FILE_NAME)) {
+			this.resultsFiles.add(file);
+		}
+	}
+}
+
+private boolean isJUnitReport(final File file) throws IOException {
+	for (String line: Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+		if (line.trim().startsWith("<?xml") || line.trim().isEmpty()) continue;
+		return line.trim().startsWith("<testsuite");
+	}
+	return false;
+}
+
+private boolean isPerformanceFile(final File file) throws IOException {
+	List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+	return !lines.isEmpty() && lines.get(0).startsWith(PERFORMANCE_HEADER_START);
+}
+
+/**
+ * Merge the result files of all added shard directories into the output directory.
+ *
+ * @throws Exception If a file cannot be read, parsed or written
+ */
+public void merge() throws Exception {
+	if (!this.outputDir.isDirectory() && !this.outputDir.mkdirs()) {
+		throw new IOException("Cannot create output directory '" + this.outputDir.getAbsolutePath() + "'.");
+	}
+	if (!this.reports.isEmpty()) {
+		mergeReports();
+	}
+	if (!this.performanceFiles.isEmpty()) {
+		mergePerformanceFiles();
+	}
+	if (!this.resultsFiles.isEmpty()) {
+		mergeResultsFiles();
+	}
+}
+
+private void mergePerformanceFiles() throws IOException {
+	List<String> lines = new ArrayList<String>();
+	for (File file: this.performanceFiles) {
+		List<String> fileLines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		lines.addAll(lines.isEmpty() ? fileLines : fileLines.subList(1, fileLines.size()));
+	}
+	File mergedFile = new File(this.outputDir, PERFORMANCE_FILE_NAME);
+	Files.write(mergedFile.toPath(), lines, StandardCharsets.UTF_8);
+	System.out.println("Merged " + this.performanceFiles.size() + " performance file(s) into " + mergedFile.getAbsolutePath());
+}
+
+@SuppressWarnings("unchecked")
+private void mergeResultsFiles() throws IOException {
+	Map<String, String> outcomes = new TreeMap<String, String>();
+	for (File file: this.resultsFiles) {
+		String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		Map<String, Object> results = new Json().toType(content, Json.MAP_TYPE);
+		Map<String, Object> tests = (Map<String, Object>) results.get(RESULTS_TESTS_KEY);
+		if (tests == null) continue;
+		for (Map.Entry<String, Object> entry: tests.entrySet()) {
+			String outcome = String.valueOf(entry.getValue());
+			String previousOutcome = outcomes.get(entry.getKey());
+			if (previousOutcome == null || OUTCOMES_PRIORITY.indexOf(outcome) > OUTCOMES_PRIORITY.indexOf(previousOutcome)) {
+				outcomes.put(entry.getKey(), outcome);
+			}
+		}
+	}
+	Map<String, Object> mergedResults = new LinkedHashMap<String, Object>();
+	mergedResults.put(RESULTS_TESTS_KEY, outcomes);
+	File mergedFile = new File(this.outputDir, RESULTS_FILE_NAME);
+	Files.write(mergedFile.toPath(), new Json().toJson(mergedResults).getBytes(StandardCharsets.UTF_8));
+	System.out.println("Merged " + this.resultsFiles.size() + " tests results file(s) into " + mergedFile.getAbsolutePath());
+}
+
+private void mergeReports() throws Exception {
+	DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+	Document mergedDocument = builder.newDocument();
+	Element testSuites = mergedDocument.createElement("testsuites");
+	mergedDocument.appendChild(testSuites);
+	long[] counters = new long[COUNTERS.length];
+	double time = 0;
+	for (File report: this.reports) {
+		Element testSuite = builder.parse(report).getDocumentElement();
+		for (int i = 0; i < COUNTERS.length; i++) {
+			String counter = testSuite.getAttribute(COUNTERS[i]);
+			if (counter.length() > 0) counters[i] += Long.parseLong(counter);
+		}
+		String suiteTime = testSuite.getAttribute("time");
+		if (suiteTime.length() > 0) time += Double.parseDouble(suiteTime.replace(",", ""));
+		testSuites.appendChild(mergedDocument.importNode(testSuite, true /*deep*/));
+	}
+	for (int i = 0; i < COUNTERS.length; i++) {
+		testSuites.setAttribute(COUNTERS[i], Long.toString(counters[i]));
+	}
+	testSuites.setAttribute("time", String.format(Locale.ROOT, "%.3f", Double.valueOf(time)));
+
+	File mergedFile = new File(this.outputDir, REPORT_FILE_NAME);
+	Transformer transformer = TransformerFactory.newInstance().newTransformer();
+	transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+	transformer.transform(new DOMSource(mergedDocument), new StreamResult(mergedFile));
+	System.out.println("Merged " + this.reports.size() + " JUnit report(s) into " + mergedFile.getAbsolutePath());
+}
+
+public static void main(final String[] args) throws Exception {
+	if (args.length < 2) {
+		System.err.println("Usage: ScenarioShardMerger <output dir> <shard dir> [<shard dir>...]");
+		System.exit(1);
+	}
+	ScenarioShardMerger merger = new ScenarioShardMerger(new File(args[0]));
+	for (int i = 1; i < args.length; i++) {
+		merger.addShardDir(new File(args[i]));
+	}
+	merger.merge();
+}
+}
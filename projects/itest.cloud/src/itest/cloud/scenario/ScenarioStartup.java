@@ -0,0 +1,186 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario;
+
+import static itest.cloud.scenario.ScenarioUtil.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.json.Json;
+
+import itest.cloud.scenario.error.ScenarioFailedError;
+
+/**
+ * Profile the scenario startup.
+ * <p>
+ * The startup goes from the JVM start to the end of the first page load, which
+ * includes the initial login. Its main phases (parameters loading, topology
+ * initialization, browser start, scenario steps filtering, login, ...) are recorded
+ * with a nanosecond precision (see {@link #record(String, long)}). Only the first
+ * occurrence of each phase is recorded. Phases run by background threads (e.g. spare
+ * browsers or browser profile template builder) are not recorded (see {@link #ignoreCurrentThread()}).
+ * </p><p>
+ * When the startup ends (see {@link #finish(boolean)}), the breakdown of the phases is
+ * printed and written in a JSON file (see {@link #STARTUP_FILE_ID} parameter).
+ * If the {@link #STARTUP_BUDGET_ID} parameter is set and the startup took longer than
+ * this number of seconds, the test running at that time fails once it has been run
+ * (see {@link #checkBudget()}).
+ * </p>
+ */
+public class ScenarioStartup {
+
+	// Parameters
+	final static String STARTUP_FILE_ID = "startupFile";
+	final static String STARTUP_BUDGET_ID = "startupBudget";
+
+	// Phases
+	private final static Map<String, Long> PHASES = new LinkedHashMap<String, Long>();
+	private static boolean FINISHED = false;
+	private static String BUDGET_ERROR = null;
+
+	// Threads whose phases are not part of the startup
+	private final static ThreadLocal<Boolean> IGNORED_THREAD = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+/**
+ * Check whether the startup exceeded its budget.
+ * <p>
+ * The error is only reported once, hence only one test fails because of the budget.
+ * </p>
+ * @throws ScenarioFailedError If the startup took longer than the
+ * {@link #STARTUP_BUDGET_ID} parameter and this has not been reported yet.
+ */
+public static void checkBudget() throws ScenarioFailedError {
+	String message;
+	synchronized (PHASES) {
+		message = BUDGET_ERROR;
+		BUDGET_ERROR = null;
+	}
+	if (message != null) {
+		throw new ScenarioFailedError(message, true /*print*/);
+	}
+}
+
+/**
+ * Finish the startup profiling.
+ * <p>
+ * Print the startup phases breakdown and write it in the startup file.
+ * Nothing happens if the startup has already been finished or if the current
+ * thread is ignored.
+ * </p><p>
+ * Exceeding the budget does not throw any error here, as the startup typically ends
+ * inside a test which may be run again. The error is reported by {@link #checkBudget()}.
+ * </p>
+ * @param checkBudget Tells whether the startup budget has to be checked
+ */
+public static void finish(final boolean checkBudget) {
+	if (IGNORED_THREAD.get().booleanValue()) return;
+	Map<String, Long> phases;
+	synchronized (PHASES) {
+		if (FINISHED) return;
+		FINISHED = true;
+		phases = new LinkedHashMap<String, Long>(PHASES);
+	}
+
+	// Compute the total startup time from the JVM start
+	long total = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+	long recorded = 0;
+	for (Long duration: phases.values()) {
+		recorded += duration.longValue();
+	}
+
+	// Print the breakdown
+	println("Startup took " + timeString(TimeUnit.NANOSECONDS.toMillis(total)) + ":");
+	Map<String, Object> breakdown = new LinkedHashMap<String, Object>();
+	for (Map.Entry<String, Long> phase: phases.entrySet()) {
+		printPhase(phase.getKey(), phase.getValue().longValue(), total);
+		breakdown.put(phase.getKey(), phase.getValue());
+	}
+	printPhase("Other", Math.max(0, total - recorded), total);
+
+	// Write the breakdown
+	String defaultDir = DEBUG_DIRECTORY == null ? System.getProperty("user.dir") : DEBUG_DIRECTORY;
+	File file = new File(getParameterValue(STARTUP_FILE_ID, defaultDir + File.separator + "startupProfile.json"));
+	Map<String, Object> profile = new LinkedHashMap<String, Object>();
+	profile.put("totalNanos", Long.valueOf(total));
+	profile.put("phasesNanos", breakdown);
+	try {
+		File parentDir = file.getAbsoluteFile().getParentFile();
+		if (parentDir != null) parentDir.mkdirs();
+		Files.write(file.toPath(), new Json().toJson(profile).getBytes(StandardCharsets.UTF_8));
+	}
+	catch (IOException ioe) {
+		println("WARNING: Cannot write startup profile to '" + file.getAbsolutePath() + "': " + ioe.getMessage());
+	}
+
+	// Check the budget
+	int budget = getParameterIntValue(STARTUP_BUDGET_ID, 0);
+	if (checkBudget && budget > 0 && total > TimeUnit.SECONDS.toNanos(budget)) {
+		synchronized (PHASES) {
+			BUDGET_ERROR = "Startup took " + timeString(TimeUnit.NANOSECONDS.toMillis(total)) + " which exceeds the budget of " + budget + " seconds.";
+		}
+	}
+}
+
+/**
+ * Do not record the startup phases run by the current thread.
+ * <p>
+ * This has to be called by background threads which start browsers (e.g. spare
+ * browsers), as their time is not part of the scenario startup.
+ * </p>
+ */
+public static void ignoreCurrentThread() {
+	IGNORED_THREAD.set(Boolean.TRUE);
+}
+
+/**
+ * Tells whether the startup is still being profiled.
+ *
+ * @return <code>true</code> if the startup is not finished yet, <code>false</code> otherwise.
+ */
+public static boolean isRunning() {
+	if (IGNORED_THREAD.get().booleanValue()) return false;
+	synchronized (PHASES) {
+		return !FINISHED;
+	}
+}
+
+private static void printPhase(final String name, final long duration, final long total) {
+	println(String.format("	- %-30s %10.3f ms (%4.1f%%)", name, Double.valueOf(duration / 1e6), Double.valueOf(total == 0 ? 0 : duration * 100.0 / total)));
+}
+
+/**
+ * Record the given startup phase.
+ * <p>
+ * Nothing happens if the phase has already been recorded, if the startup is finished
+ * or if the current thread is ignored.
+ * </p>
+ * @param phase The phase name
+ * @param start The phase start got from {@link System#nanoTime()}
+ */
+public static void record(final String phase, final long start) {
+	if (IGNORED_THREAD.get().booleanValue()) return;
+	long duration = System.nanoTime() - start;
+	synchronized (PHASES) {
+		if (FINISHED || PHASES.containsKey(phase)) return;
+		PHASES.put(phase, Long.valueOf(duration));
+	}
+	if (DEBUG) debugPrintln("		+ Startup phase '" + phase + "' took " + (duration / 1000000) + " ms");
+}
+}
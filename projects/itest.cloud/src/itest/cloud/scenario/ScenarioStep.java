@@ -15,6 +15,8 @@ package itest.cloud.scenario;
 
 import static itest.cloud.scenario.ScenarioUtil.*;
 
+import java.util.Map;
+
 import org.junit.*;
 import org.junit.runners.Suite.SuiteClasses;
 import org.junit.runners.model.FrameworkMethod;
@@ -62,7 +64,7 @@ public class ScenarioStep {
 
 			@Override
 			public void evaluate() throws Throwable {
-				ScenarioStep.this.scenarioExecution.runTest(this.statement, this.method, this.target, IS_NEW_STEP);
+				ScenarioStep.this.scenarioExecution.runTest(this.statement, this.method, this.target, IS_NEW_STEP.get().booleanValue());
 			}
 
 			public void setExecution(final ScenarioExecution execution) {
@@ -76,12 +78,12 @@ public class ScenarioStep {
 		}
 	}
 
-	// Step info
-	protected static boolean IS_NEW_STEP = true;
+	// Step info (one flag per thread as steps may run in parallel)
+	protected static final ThreadLocal<Boolean> IS_NEW_STEP = ThreadLocal.withInitial(() -> Boolean.TRUE);
 
 	@BeforeClass
 	public static void setUpStep() {
-		IS_NEW_STEP = true;
+		IS_NEW_STEP.set(Boolean.TRUE);
 	}
 
 	// Execution
@@ -90,6 +92,30 @@ public class ScenarioStep {
 	@Rule
 	public ScenarioStepRule stepRule = new ScenarioStepRule();
 
+/**
+ * Mark a checkpoint in the current test.
+ *
+ * @param name The checkpoint name, unique in the test
+ * @see ScenarioExecution#addCheckpoint(String, Map)
+ */
+protected void checkpoint(final String name) {
+	checkpoint(name, null);
+}
+
+/**
+ * Mark a checkpoint in the current test capturing the given state.
+ * <p>
+ * The state can be got back with {@link #getCheckpointValue(String)} when the test
+ * is run again and skips the parts done before this checkpoint.
+ * </p>
+ * @param name The checkpoint name, unique in the test
+ * @param state The state to capture
+ * @see ScenarioExecution#addCheckpoint(String, Map)
+ */
+protected void checkpoint(final String name, final Map<String, Object> state) {
+	this.scenarioExecution.addCheckpoint(name, state);
+}
+
 /**
  * @see Config#getBrowser()
  */
@@ -97,6 +123,18 @@ protected Browser getBrowser() {
 	return getConfig().getBrowser();
 }
 
+/**
+ * Return the value captured with the last checkpoint of the current test.
+ *
+ * @param key The state key
+ * @return The value or <code>null</code> if no checkpoint was reached or
+ * if the last checkpoint has no value for the key.
+ */
+protected Object getCheckpointValue(final String key) {
+	ScenarioCheckpoint checkpoint = this.scenarioExecution.getLastCheckpoint();
+	return checkpoint == null ? null : checkpoint.getState().get(key);
+}
+
 /**
  * @see ScenarioExecution#getConfig()
  */
@@ -185,6 +223,28 @@ protected Topology getTopology() {
 //	println("	- "+TIME_FORMAT.format(new Date(System.currentTimeMillis()))+": start test case '"+getScenarioExecution().testName+"'...");
 //}
 
+/**
+ * Tells whether the current test has already passed the given checkpoint.
+ * <p>
+ * A re-run test is run again from its beginning, hence that's the way to skip
+ * the parts of a test which were already done before a failure. The page of the
+ * last checkpoint is reopened when a re-run test gets a passed checkpoint for
+ * the first time (see {@link ScenarioExecution#isCheckpointPassed(String)}):
+ * <pre>
+ * if (!isCheckpointPassed("firstQuestions")) {
+ *     ...
+ *     checkpoint("firstQuestions");
+ * }
+ * </pre>
+ * </p>
+ * @param name The checkpoint name
+ * @return <code>true</code> if the checkpoint has been reached by a previous
+ * run of the current test, <code>false</code> otherwise.
+ */
+protected boolean isCheckpointPassed(final String name) {
+	return this.scenarioExecution.isCheckpointPassed(name);
+}
+
 /**
  * Sleep for a given number of seconds if the server is considered slow.
  * <p>
@@ -209,6 +269,6 @@ public void sleepIfSlowServer(final int time) {
  */
 @After
 public void tearDownTest() throws Exception {
-	IS_NEW_STEP = false;
+	IS_NEW_STEP.set(Boolean.FALSE);
 }
 }
@@ -13,11 +13,15 @@
  *********************************************************************/
 package itest.cloud.scenario;
 
+import static itest.cloud.scenario.ScenarioUtil.println;
+
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.AssumptionViolatedException;
 import org.junit.Test;
+import org.junit.internal.runners.model.EachTestNotifier;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.junit.runners.model.*;
@@ -101,13 +105,23 @@ protected Statement methodBlock(final FrameworkMethod method) {
 /**
  * {@inheritDoc}
  * <p>
- * Skip the child run if it should stop.
+ * Skip the child run if it should stop or if one of its prerequisites
+ * has failed.
  * </p>
  */
 @Override
 protected void runChild(final FrameworkMethod method, final RunNotifier notifier) {
-	if (!getScenarioExecution().shouldStop()) {
-		super.runChild(method, notifier);
+	ScenarioExecution execution = getScenarioExecution();
+	if (!execution.shouldStop()) {
+		String qualifiedTestName = getTestClass().getName() + "." + method.getName();
+		String failedPrerequisite = execution.getFailedPrerequisite(qualifiedTestName);
+		if (failedPrerequisite == null) {
+			long start = System.currentTimeMillis();
+			super.runChild(method, notifier);
+			execution.recordTestDuration(qualifiedTestName, System.currentTimeMillis() - start);
+		} else {
+			skipTest(method, notifier, qualifiedTestName, failedPrerequisite);
+		}
 	}
 	if (++this.testCounter == testCount() && this.shouldEndExecution) {
 		this.scenarioExecution.finish();
@@ -126,6 +140,15 @@ public void setScenarioExecution(final ScenarioExecution execution) {
 	this.scenarioExecution.addMandatoryTests(this.criticalTests);
 }
 
+private void skipTest(final FrameworkMethod method, final RunNotifier notifier, final String qualifiedTestName, final String failedPrerequisite) {
+	println("	- Skip test case '" + method.getName() + "' as its prerequisite '" + failedPrerequisite + "' failed, was ignored or did not run.");
+	this.scenarioExecution.recordSkippedTest(qualifiedTestName);
+	EachTestNotifier eachNotifier = new EachTestNotifier(notifier, describeChild(method));
+	eachNotifier.fireTestStarted();
+	eachNotifier.addFailedAssumption(new AssumptionViolatedException("Passing of test '" + failedPrerequisite + "' was a prerequisite for this test, but the dependent test failed, ignored or did not run"));
+	eachNotifier.fireTestFinished();
+}
+
 /**
  * Start the scenario execution.
  * <p>
@@ -20,6 +20,7 @@ import java.text.SimpleDateFormat;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import javax.management.timer.Timer;
@@ -30,7 +31,7 @@ import org.openqa.selenium.WebElement;
 import itest.cloud.page.element.BrowserElement;
 import itest.cloud.scenario.error.InvalidCommandException;
 import itest.cloud.scenario.error.ScenarioFailedError;
-import itest.cloud.util.EncryptionUtil;
+import itest.cloud.util.CredentialVault;
 
 /**
  * Utils for Scenario tests execution.
@@ -79,7 +80,7 @@ public class ScenarioUtil {
 	public static final String PACKAGE_PREFIX = "itest.cloud";
 
 	/* Internal */
-	private static final List<String> PRINT_PARAMS = new ArrayList<String>();
+	private static final Set<String> PRINT_PARAMS = Collections.synchronizedSet(new LinkedHashSet<String>());
 	private static final List<String> SIZE_UNITS =
 		Arrays.asList(new String[]{"bytes", "KB", "MB", "GB", "TB", "PB", "EB", "ZB", "YB"});
 
@@ -126,6 +127,7 @@ public class ScenarioUtil {
 	 */
 	private static final Properties PARAMETERS;
 	static {
+		long start = System.nanoTime();
 		String rootDir, filesPath;
 		String paramFilePath = System.getProperty(PARAM_FILE_PATH_ID);
 		if (paramFilePath != null) {
@@ -153,8 +155,14 @@ public class ScenarioUtil {
 			}
 			PARAMETERS = allProperties;
 		}
+		ScenarioStartup.record("Parameters files", start);
 	}
 
+	/*
+	 * Snapshot of the parameters values resolved from the parameters files and System properties.
+	 */
+	private static volatile ScenarioParameters PARAMETERS_SNAPSHOT = new ScenarioParameters(PARAMETERS);
+
 	/**
 	 * Global flag whether to print debug information on console or not.
 	 * <p>
@@ -216,6 +224,26 @@ public class ScenarioUtil {
 	 */
 	public final static String LOG_FILE_NAME = getParameterValue("log.file.name", "debug_"+COMPACT_DATE_STRING+".log");
 
+	/**
+	 * Parameter telling whether debug information are also written in JSON Lines format.
+	 * <p>
+	 * Each line of the debug file is then written as a JSON object with its time,
+	 * thread, step and test names in a file having the same name than the debug file
+	 * with the <code>.jsonl</code> extension (see {@link ScenarioLogger}).
+	 * </p><p>
+	 * Name: <code>"log.json"</code><br>
+	 * Value: <code>true</code> or <code>false</code><br>
+	 * Default value: <code>true</code><br>
+	 * Usage: <code>-Dlog.json=false</code> in the VM Arguments
+	 * field of the launch configuration.
+	 * </p><p>
+	 * Note that this parameter is ignored if {@link #DEBUG} parameter
+	 * is set to <code>false</code> or if there's no debug directory.
+	 * </p>
+	 * @category debug parameters
+	 */
+	public final static boolean LOG_JSON = getParameterBooleanValue("log.json", true);
+
 //	/**
 //	 * Parameter specifying the name of the log file to store messages coming from the browser/driver.
 //	 * <p>
@@ -260,8 +288,16 @@ public class ScenarioUtil {
 	/*
 	 * Stream to store debug information.
 	 */
-	private static PrintWriter LOG_WRITER;
+	private static volatile PrintWriter LOG_WRITER;
 	private static StringWriter STR_WRITER;
+	/*
+	 * Asynchronous writer of the debug file.
+	 */
+	private static volatile ScenarioLogger LOGGER;
+	/*
+	 * Number of executions currently sharing the debug stream (steps may run in parallel).
+	 */
+	private static int DEBUG_SESSIONS = 0;
 	static {
 		setDebugWriter();
 	}
@@ -273,6 +309,11 @@ public class ScenarioUtil {
 	private final static String TWO_INDENT_TAB_WITH_PREFIX = "\t\t+ ";
 	private final static String THREE_INDENT_TAB_WITH_PREFIX = "\t\t\t* ";
 
+	/*
+	 * Walker used to find the caller of debug print methods.
+	 */
+	private final static StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
 private static void attachDebugLogToRqmAdapter(final File debugFile) {
 	debugPrintln("Attach debug log file to RQM Adapter:");
     String rqmAdapterAttachmentsFile = getParameterValue("com.ibm.rqm.adapter.resultAttachmentsFile");
@@ -304,11 +345,24 @@ private static void attachDebugLogToRqmAdapter(final File debugFile) {
 	}
 }
 
+private static void closeLogger() {
+	ScenarioLogger logger = LOGGER;
+	if (logger != null) {
+		LOGGER = null;
+		logger.close();
+	}
+}
+
 /**
  * Close the debug stream.
+ * <p>
+ * The stream is only closed when the last execution which opened it closes it.
+ * </p>
  */
-public static void debugClose() {
+public static synchronized void debugClose() {
+	if (DEBUG_SESSIONS > 0 && --DEBUG_SESSIONS > 0) return;
 	if (DEBUG_DIRECTORY != null) {
+		closeLogger();
 		LOG_WRITER.println("**********  Close Debug Session: "+COMPACT_DATE_STRING+"  ********");
 		LOG_WRITER.close();
 		if (STR_WRITER == null) {
@@ -333,12 +387,17 @@ public static void debugClose() {
 
 /**
  * Open debug stream.
+ * <p>
+ * The stream is shared by all executions, hence it's only opened by the first one.
+ * </p>
  */
-public static void debugOpen() {
+public static synchronized void debugOpen() {
+	if (DEBUG_SESSIONS++ > 0) return;
 	if (DEBUG_DIRECTORY == null) {
 		LOG_WRITER = new PrintWriter(System.out, false);
 	} else {
 		// Close previous file if any
+		closeLogger();
 		if (LOG_WRITER != null) {
 			LOG_WRITER.close();
 			LOG_WRITER = null;
@@ -352,6 +411,8 @@ public static void debugOpen() {
 			try {
 				LOG_WRITER = new PrintWriter(new BufferedOutputStream(new FileOutputStream(file, false)), false);
 				LOG_WRITER.println("**********  Open Debug Session: "+COMPACT_DATE_STRING+"  ********");
+				File jsonFile = LOG_JSON ? new File(dir, LOG_FILE_NAME.replaceFirst("\\.log$", "") + ".jsonl") : null;
+				LOGGER = new ScenarioLogger(LOG_WRITER, jsonFile);
 				attachDebugLogToRqmAdapter(file);
 			} catch (FileNotFoundException e) {
 				System.err.println("Cannot create stream for log: " + e.getMessage());
@@ -366,6 +427,20 @@ public static void debugOpen() {
 	}
 }
 
+/**
+ * Write all pending debug information to the debug stream.
+ * <p>
+ * Debug lines are written asynchronously to the debug file, this method
+ * waits for all the lines printed so far to be written.
+ * </p>
+ */
+public static void debugFlush() {
+	ScenarioLogger logger = LOGGER;
+	if (logger != null) {
+		logger.flush();
+	}
+}
+
 /**
  * Print a text in the debug stream.
  *
@@ -373,10 +448,19 @@ public static void debugOpen() {
  */
 public static void debugPrint(final String text) {
 	if (!DEBUG) return;
-	LOG_WRITER.print(formatDebugLine(text));
-	if (DEBUG_DIRECTORY == null) {
-		LOG_WRITER.flush();
-	}
+	writeDebug(formatDebugLine(text), false);
+}
+
+/**
+ * Print a text in the debug stream.
+ * <p>
+ * The text is only built when debug is activated.
+ * </p>
+ * @param text The supplier of the text to print in the stream.
+ */
+public static void debugPrint(final Supplier<String> text) {
+	if (!DEBUG) return;
+	writeDebug(formatDebugLine(text.get()), false);
 }
 
 /**
@@ -423,10 +507,7 @@ public static void debugPrintExpectedStrings(final String kind, final String sta
  */
 public static void debugPrintln() {
 	if (!DEBUG) return;
-	LOG_WRITER.println();
-	if (DEBUG_DIRECTORY == null) {
-		LOG_WRITER.flush();
-	}
+	writeDebug("", true);
 }
 
 /**
@@ -436,12 +517,7 @@ public static void debugPrintln() {
  */
 public static void debugPrintln(final String text) {
 	if (!DEBUG) return;
-	if (LOG_WRITER != null) {
-		LOG_WRITER.println(formatDebugLine(text));
-		if (DEBUG_DIRECTORY == null) {
-			LOG_WRITER.flush();
-		}
-	}
+	writeDebug(formatDebugLine(text), true);
 }
 
 /**
@@ -451,13 +527,25 @@ public static void debugPrintln(final String text) {
  */
 public static void debugPrintln(final String... text) {
 	if (!DEBUG) return;
+	// Build the line first to avoid interleaving with other threads
+	StringBuilder builder = new StringBuilder();
 	for (String str: text) {
-		LOG_WRITER.print(str);
-	}
-	LOG_WRITER.println();
-	if (DEBUG_DIRECTORY == null) {
-		LOG_WRITER.flush();
+		builder.append(str);
 	}
+	writeDebug(builder.toString(), true);
+}
+
+/**
+ * Print a line in the debug stream.
+ * <p>
+ * The line is only built when debug is activated, hence this method should be preferred
+ * when building the line is expensive.
+ * </p>
+ * @param text The supplier of the line to print in the stream.
+ */
+public static void debugPrintln(final Supplier<String> text) {
+	if (!DEBUG) return;
+	writeDebug(formatDebugLine(text.get()), true);
 }
 
 /**
@@ -466,8 +554,8 @@ public static void debugPrintln(final String... text) {
  * @param text The line to print in the stream.
  */
 public static void debugPrintln(final String text, final int indent) {
-	printIndent(indent);
-	debugPrintln(text);
+	if (!DEBUG) return;
+	writeDebug(getIndent(indent) + text, true);
 }
 
 /**
@@ -525,10 +613,10 @@ public static String elapsedTimeString(final long start) {
 private static String formatDebugLine(final String line) {
 	// Check whether the line is starting with appropriate prefix
 	if (line.startsWith("\t\t+")) {
-		// Get the Class.method() name
-		StackTraceElement[] stackElements = whoCallsMe();
-		if (stackElements.length > 0) {
-			String classMethod = getClassSimpleName(stackElements[0].getClass()) + "." + stackElements[0].getMethodName() + "()";
+		// Get the Class.method() name of the first caller outside this class
+		StackWalker.StackFrame caller = STACK_WALKER.walk(frames -> frames.filter(frame -> frame.getDeclaringClass() != ScenarioUtil.class).findFirst()).orElse(null);
+		if (caller != null) {
+			String classMethod = getClassSimpleName(caller.getDeclaringClass()) + "." + caller.getMethodName() + "()";
 			// Format the line
 			int index = line.indexOf('+');
 			return "		+ " + classMethod + ": "+line.substring(index+1).trim();
@@ -609,8 +697,11 @@ public static String getDecryptedParameterValue(final String name) {
  */
 public static String getDecryptedParameterValue(final String name, final String defaultEncryptedValue) {
 	String encryptedValue = getProperty(name);
-	if (encryptedValue == null) encryptedValue = defaultEncryptedValue;
-	String value = EncryptionUtil.decrypt(encryptedValue);
+	// Decrypt the value only once
+	char[] chars = CredentialVault.getChars(encryptedValue == null ? defaultEncryptedValue : encryptedValue);
+	if (chars == null) return null;
+	String value = new String(chars);
+	Arrays.fill(chars, '\0');
 	printReadParameter(name, value.charAt(0) + "*******");
 	return value;
 }
@@ -707,6 +798,12 @@ public static boolean getParameterBooleanValue(final String name) {
 public static boolean getParameterBooleanValue(final String name, final boolean defaultValue) {
 	String parameterValue = getParameterValue(name);
 	if (parameterValue == null) return defaultValue;
+	ScenarioParameters parameters = PARAMETERS_SNAPSHOT;
+	if (parameters != null) {
+		// Use the value parsed once in the parameters snapshot
+		Boolean value = parameters.getBoolean(name);
+		return value == null ? defaultValue : value.booleanValue();
+	}
 	return parameterValue.equals("true");
 }
 
@@ -736,6 +833,12 @@ public static double getParameterDoubleValue(final String name) {
 public static double getParameterDoubleValue(final String name, final double defaultValue) {
 	String parameterValue = getParameterValue(name);
 	if (parameterValue == null || parameterValue.trim().isEmpty()) return defaultValue;
+	ScenarioParameters parameters = PARAMETERS_SNAPSHOT;
+	if (parameters != null) {
+		// Use the value parsed once in the parameters snapshot
+		Double value = parameters.getDouble(name);
+		return value == null ? defaultValue : value.doubleValue();
+	}
 	try {
 		return Double.parseDouble(parameterValue);
 	}
@@ -858,6 +961,12 @@ public static int getParameterIntValue(final String name, final int defaultValue
 public static int getParameterIntValue(final String name, final int defaultValue, final boolean print) {
 	String parameterValue = getParameterValue(name, print);
 	if (parameterValue == null || parameterValue.trim().isEmpty()) return defaultValue;
+	ScenarioParameters parameters = PARAMETERS_SNAPSHOT;
+	if (parameters != null) {
+		// Use the value parsed once in the parameters snapshot
+		Integer value = parameters.getInt(name);
+		return value == null ? defaultValue : value.intValue();
+	}
 	try {
 		return Integer.parseInt(parameterValue);
 	}
@@ -1007,6 +1116,15 @@ public static String getPasswordValue(final String name) {
 	return value;
 }
 
+/**
+ * Return the snapshot of the parameters values.
+ *
+ * @return The parameters as {@link ScenarioParameters}
+ */
+public static ScenarioParameters getParameters() {
+	return PARAMETERS_SNAPSHOT;
+}
+
 /**
  * Return the value of the the given property either got from #PARAM_FILE_NAME
  * file or from the System property value set in the launch config.
@@ -1016,6 +1134,11 @@ public static String getPasswordValue(final String name) {
  * if the parameter is not defined.
  */
 private static String getProperty(final String name) {
+	ScenarioParameters parameters = PARAMETERS_SNAPSHOT;
+	if (parameters != null) {
+		return parameters.get(name);
+	}
+	// Parameters snapshot is not initialized yet
 	String value = System.getProperty(name);
 	if ((value != null) && !value.trim().equals(EMPTY_STRING)) return value;
 	if (PARAMETERS != null) {
@@ -1136,23 +1259,20 @@ public static void printException(final Throwable t) {
 	printStackTrace(t.getStackTrace(), 1);
 }
 
-private static void printIndent(final int indent) {
+private static String getIndent(final int indent) {
 	switch (indent) {
 		case 1:
-			LOG_WRITER.print(ONE_INDENT_TAB_WITH_PREFIX);
-			break;
+			return ONE_INDENT_TAB_WITH_PREFIX;
 		case 2:
-			LOG_WRITER.print(TWO_INDENT_TAB_WITH_PREFIX);
-			break;
+			return TWO_INDENT_TAB_WITH_PREFIX;
 		case 3:
-			LOG_WRITER.print(THREE_INDENT_TAB_WITH_PREFIX);
-			break;
+			return THREE_INDENT_TAB_WITH_PREFIX;
 		default:
+			StringBuilder builder = new StringBuilder();
 			for (int i=0; i<indent; i++) {
-				LOG_WRITER.print("\t");
+				builder.append('\t');
 			}
-			LOG_WRITER.print("->");
-			break;
+			return builder.append("->").toString();
 	}
 }
 
@@ -1177,11 +1297,10 @@ public static void println(final Object text) {
 }
 
 private static void printReadParameter(final String name, final String value) {
-	if (PRINT_PARAMS.isEmpty()) {
-		println("Read parameters while running scenario:");
-	}
-	if (!PRINT_PARAMS.contains(name)) {
-		PRINT_PARAMS.add(name);
+	if (PRINT_PARAMS.add(name)) {
+		if (PRINT_PARAMS.size() == 1) {
+			println("Read parameters while running scenario:");
+		}
 		println("	- '"+name+"' value="+value);
 	}
 }
@@ -1200,7 +1319,7 @@ public static void printStackTrace(final int tabs) {
     	} else {
     		String elementClassName = element.getClassName();
     		if (elementClassName.startsWith(PACKAGE_PREFIX)) {
-	    		printIndent(tabs);
+	    		if (DEBUG) writeDebug(getIndent(tabs), false);
 	    		println(element.toString());
 	    	}
     	}
@@ -1218,7 +1337,7 @@ public static void printStackTrace(final StackTraceElement[] elements, final int
     for (StackTraceElement element: elements) {
 		String elementClassName = element.getClassName();
 		if (elementClassName.startsWith(PACKAGE_PREFIX) && !elementClassName.startsWith(PACKAGE_PREFIX + ".scenario.Scenario")) {
-    		printIndent(tabs);
+    		if (DEBUG) writeDebug(getIndent(tabs), false);
     		println(element.toString());
     	}
     }
@@ -1250,6 +1369,18 @@ public static void printStepStart(final String stepName) {
     }
 }
 
+/**
+ * Take a new snapshot of the parameters values.
+ * <p>
+ * Parameters are resolved once when the scenario starts, this method has to be called
+ * when System properties are changed afterwards, e.g. to set parameters dynamically.
+ * Note that values already stored in constants are not changed.
+ * </p>
+ */
+public static void refreshParameters() {
+	PARAMETERS_SNAPSHOT = new ScenarioParameters(PARAMETERS);
+}
+
 private static Properties readParametersFile(final String fileDir, final String filePath) {
     File paramFile = new File(fileDir, filePath);
 
@@ -1489,4 +1620,24 @@ public static StackTraceElement[] whoCallsMe() {
 	System.arraycopy(callers, 0, callers = new StackTraceElement[length], 0, length);
 	return callers;
 }
-}
\ No newline at end of file
+
+/*
+ * Write the given text to the debug stream.
+ * When debug information are written to a file, the text is written
+ * asynchronously by the logger. Otherwise, it's written immediately to
+ * keep the console output ordered.
+ */
+private static void writeDebug(final String text, final boolean newLine) {
+	ScenarioLogger logger = LOGGER;
+	if (logger != null) {
+		logger.log(text, newLine);
+		return;
+	}
+	PrintWriter writer = LOG_WRITER;
+	if (writer == null) return;
+	if (newLine) writer.println(text); else writer.print(text);
+	if (DEBUG_DIRECTORY == null) {
+		writer.flush();
+	}
+}
+}
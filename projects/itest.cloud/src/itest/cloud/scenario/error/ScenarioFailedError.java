@@ -69,6 +69,7 @@ public ScenarioFailedError(final Throwable ex, final Dialog dialog) {
 
 public ScenarioFailedError(final Throwable ex, final Dialog dialog, final boolean print) {
 	super(ex.getMessage() == null ? getClassSimpleName(ex.getClass()) : ex.getMessage());
+	initCause(ex);
 	this.error = ex;
 	this.dialog = dialog;
 	if (print) {
@@ -0,0 +1,46 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.scenario.error;
+
+/**
+ * Error to report a request of the current page which failed on the server side
+ * (e.g. an XHR answered with a 500 status).
+ */
+public class ServerRequestError extends ServerMessageError {
+
+	private final String summary;
+	private final String details;
+
+public ServerRequestError(final String summary, final String details) {
+	super("Request failed on server: " + summary);
+	this.summary = summary;
+	this.details = details;
+}
+
+@Override
+public String getDetails() {
+	return this.details;
+}
+
+@Override
+public String getSummary() {
+	return this.summary;
+}
+
+@Override
+public boolean showDetails() {
+	// The request is not displayed in the page
+	return false;
+}
+}
@@ -0,0 +1,100 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class to find and invoke public constructors.
+ * <p>
+ * Resolved constructors are cached per class and parameter types as {@link MethodHandle}s,
+ * hence a constructor is looked up by reflection only once. Lookups which fail are cached
+ * as well, hence probing several parameter types combinations until finding the right
+ * constructor does not cost an exception each time.
+ * </p><p>
+ * This class contains following API methods:
+ * <ul>
+ * <li>{@link #getConstructor(Class, Class...)}: Return the public constructor of a class
+ * for the given parameter types.</li>
+ * <li>{@link #newInstance(MethodHandle, Object...)}: Create a new instance using a constructor
+ * returned by the previous method.</li>
+ * </ul>
+ * </p>
+ */
+public final class ConstructorUtil {
+
+	// Value used to remember that a constructor does not exist
+	private final static MethodHandle NOT_FOUND = MethodHandles.constant(Object.class, null);
+
+	// Constructors per class and parameter types
+	private final static Map<List<Class<?>>, MethodHandle> CONSTRUCTORS = new ConcurrentHashMap<List<Class<?>>, MethodHandle>();
+
+private ConstructorUtil() {
+}
+
+/**
+ * Return the public constructor of the given class for the given parameter types.
+ *
+ * @param clazz The class to create instances of
+ * @param parameterTypes The constructor parameter types
+ * @return The constructor as a {@link MethodHandle} taking an <code>Object[]</code>
+ * of the arguments or <code>null</code> if the class has no such public constructor.
+ */
+public static MethodHandle getConstructor(final Class<?> clazz, final Class<?>... parameterTypes) {
+	List<Class<?>> key = new ArrayList<Class<?>>(parameterTypes.length + 1);
+	key.add(clazz);
+	key.addAll(Arrays.asList(parameterTypes));
+	MethodHandle constructor = CONSTRUCTORS.computeIfAbsent(key, k -> {
+		try {
+			Constructor<?> reflectConstructor = clazz.getConstructor(parameterTypes);
+			return MethodHandles.publicLookup()
+				.unreflectConstructor(reflectConstructor)
+				.asSpreader(Object[].class, parameterTypes.length)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+		}
+		catch (NoSuchMethodException | IllegalAccessException ex) {
+			return NOT_FOUND;
+		}
+	});
+	return constructor == NOT_FOUND ? null : constructor;
+}
+
+/**
+ * Create a new instance using the given constructor.
+ *
+ * @param constructor The constructor got from {@link #getConstructor(Class, Class...)}
+ * @param arguments The constructor arguments
+ * @return The new instance
+ * @throws InvocationTargetException If the constructor throws a checked exception.
+ * Errors and runtime exceptions are thrown unchanged.
+ */
+@SuppressWarnings("unchecked")
+public static <T> T newInstance(final MethodHandle constructor, final Object... arguments) throws InvocationTargetException {
+	try {
+		return (T) constructor.invokeExact(arguments);
+	}
+	catch (Error | RuntimeException ex) {
+		throw ex;
+	}
+	catch (Throwable t) {
+		throw new InvocationTargetException(t);
+	}
+}
+}
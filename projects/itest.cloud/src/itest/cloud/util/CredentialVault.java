@@ -0,0 +1,97 @@
+/*********************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *********************************************************************/
+package itest.cloud.util;
+
+import static itest.cloud.scenario.ScenarioUtil.getParameterValue;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vault of the decrypted secrets (e.g. users passwords).
+ * <p>
+ * Each encrypted secret is decrypted only once per encryption key (see
+ * {@link EncryptionUtil}) and kept as a <code>char[]</code>, hence logging in several
+ * times does not cost a decryption each time. Secrets are overwritten in memory
+ * when the vault is closed, which happens at the end of the scenario execution
+ * or when the JVM exits.
+ * </p><p>
+ * Secrets are only returned as <code>char[]</code> copies, which callers are expected
+ * to overwrite once used. They should only be converted to a {@link CharSequence} when
+ * typed in the browser (see {@link CharBuffer#wrap(char[])}).
+ * </p><p>
+ * This class contains following API methods:
+ * <ul>
+ * <li>{@link #getChars(String)}: Return the decrypted secret as a <code>char[]</code>.</li>
+ * <li>{@link #close()}: Overwrite and forget all the decrypted secrets.</li>
+ * </ul>
+ * </p>
+ */
+public final class CredentialVault {
+
+	// Decrypted secrets per encryption key and encrypted text
+	private final static Map<List<String>, char[]> SECRETS = new ConcurrentHashMap<List<String>, char[]>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> close(), "credential-vault-shutdown"));
+	}
+
+private CredentialVault() {
+}
+
+/**
+ * Overwrite and forget all the decrypted secrets.
+ * <p>
+ * Secrets will be decrypted again if they are read after the vault is closed.
+ * </p>
+ */
+public static void close() {
+	for (List<String> secretKey: new ArrayList<List<String>>(SECRETS.keySet())) {
+		char[] secret = SECRETS.remove(secretKey);
+		if (secret != null) {
+			Arrays.fill(secret, '\0');
+		}
+	}
+}
+
+private static char[] decrypt(final String encryptedText, final String key) {
+	byte[] bytes = EncryptionUtil.decryptBytes(encryptedText, key);
+	if (bytes == null) {
+		// The text is not encrypted
+		return encryptedText.toCharArray();
+	}
+	CharBuffer buffer = UTF_8.decode(ByteBuffer.wrap(bytes));
+	char[] secret = Arrays.copyOf(buffer.array(), buffer.limit());
+	Arrays.fill(bytes, (byte) 0);
+	Arrays.fill(buffer.array(), '\0');
+	return secret;
+}
+
+/**
+ * Return the decrypted value of the given encrypted secret.
+ *
+ * @param encryptedText The encrypted secret
+ * @return A copy of the decrypted secret, which the caller can overwrite once used,
+ * or <code>null</code> if the given secret is <code>null</code>.
+ */
+public static char[] getChars(final String encryptedText) {
+	if (encryptedText == null) return null;
+	// The key is part of the cache key as it may change when the parameters are refreshed
+	String key = getParameterValue("key", false /*print*/);
+	return SECRETS.computeIfAbsent(Arrays.asList(key, encryptedText), secretKey -> decrypt(encryptedText, key)).clone();
+}
+}
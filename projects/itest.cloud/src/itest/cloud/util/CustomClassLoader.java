@@ -13,6 +13,10 @@
  *********************************************************************/
 package itest.cloud.util;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.Enumeration;
+
 /**
  * A class to manage loading of other classes in different plug-ins/layers.
  */
@@ -40,4 +44,27 @@ public static Class< ? > forName(final String className) throws ClassNotFoundExc
 	// classes via the default Java class loader is adequate.
 	return Class.forName(className);
 }
+
+/**
+ * Finds the resource with the given name using the class loader used by
+ * {@link #forName(String)}.
+ *
+ * @param name The resource name, e.g. <code>itest/cloud/page/Page.class</code>
+ * @return The resource {@link URL} or <code>null</code> if the resource could not be found
+ */
+public static URL getResource(final String name) {
+	return CustomClassLoader.class.getClassLoader().getResource(name);
+}
+
+/**
+ * Finds all the resources with the given name using the class loader used by
+ * {@link #forName(String)}.
+ *
+ * @param name The resource name
+ * @return The resources URLs as an {@link Enumeration}
+ * @throws IOException If an I/O error occurs while looking for the resources
+ */
+public static Enumeration<URL> getResources(final String name) throws IOException {
+	return CustomClassLoader.class.getClassLoader().getResources(name);
+}
 }
@@ -22,9 +22,11 @@ import static javax.crypto.Cipher.DECRYPT_MODE;
 import static javax.crypto.Cipher.ENCRYPT_MODE;
 
 import java.security.*;
-import java.util.Base64;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import itest.cloud.scenario.error.ScenarioFailedError;
@@ -32,14 +34,40 @@ import itest.cloud.scenario.error.ScenarioFailedError;
 /**
  * Utilities to perform encryption and decryption to handle sensitive information.
  * <p>
+ * Two formats of encrypted texts are supported:
+ * <ul>
+ * <li>the legacy format using AES in ECB mode, which is the default when encrypting
+ * to keep encrypted texts readable by older versions,</li>
+ * <li>the authenticated format using AES in GCM mode, which encrypted texts start with
+ * {@link #GCM_PREFIX}. It's used when encrypting if the <code>encryptionMode</code>
+ * parameter is set to <code>gcm</code>.</li>
+ * </ul>
+ * Decryption detects the format, hence both can be used in the same parameters files
+ * while migrating.
+ * </p><p>
+ * {@link Cipher} instances are not thread safe and costly to get, hence they are kept
+ * per thread and reused. Use {@link CredentialVault} to decrypt secrets only once.
  * </p>
  */
 public class EncryptionUtil {
 
 	private static final String ALGORITHM = "AES";
 	private static final String CIPHER_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+	private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+	private static final String GCM_MODE = "gcm";
+	public static final String GCM_PREFIX = "{AES-GCM}";
+	private static final int GCM_IV_LENGTH = 12;
+	private static final int GCM_TAG_LENGTH = 128;
 	private static final int KEY_LENGTH = 32;
 
+	// Ciphers per transformation, confined to the thread using them
+	private static final ThreadLocal<Map<String, Cipher>> CIPHERS = ThreadLocal.withInitial(() -> new HashMap<String, Cipher>());
+
+	// Keys already generated
+	private static final Map<String, Key> KEYS = new ConcurrentHashMap<String, Key>();
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
 /**
  * Decrypts a given encrypted text.
  *
@@ -52,41 +80,75 @@ public static String decrypt(final String encryptedText) {
 }
 
 public static String decrypt(final String encryptedText, final String key) {
+	final byte[] bytes = decryptBytes(encryptedText, key);
+	return bytes == null ? encryptedText : new String(bytes, UTF_8);
+}
+
+/**
+ * Decrypts a given encrypted text with the given key.
+ *
+ * @return the decrypted bytes or <code>null</code> if the given text is not encrypted.
+ */
+static byte[] decryptBytes(final String encryptedText, final String key) {
 	try {
-		final Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+		if (encryptedText.startsWith(GCM_PREFIX)) {
+			final byte[] data = getDecoder().decode(encryptedText.substring(GCM_PREFIX.length()));
+			if (data.length <= GCM_IV_LENGTH) {
+				throw new ScenarioFailedError("Invalid " + GCM_PREFIX + " encrypted text.");
+			}
+			final Cipher cipher = getCipher(GCM_TRANSFORMATION);
+			cipher.init(DECRYPT_MODE, generateKey(key), new GCMParameterSpec(GCM_TAG_LENGTH, data, 0, GCM_IV_LENGTH));
+			return cipher.doFinal(data, GCM_IV_LENGTH, data.length - GCM_IV_LENGTH);
+		}
+		final Cipher cipher = getCipher(CIPHER_TRANSFORMATION);
 		cipher.init(DECRYPT_MODE, generateKey(key));
-
-		return new String(cipher.doFinal(getDecoder().decode(encryptedText)));
+		return cipher.doFinal(getDecoder().decode(encryptedText));
 	}
 	catch (IllegalStateException | IllegalArgumentException e) {
-		// If reached here, it means that the original text is not encrypted. Therefore, return the particular text to the caller.
-		return encryptedText;
+		// If reached here, it means that the original text is not encrypted.
+		if (encryptedText.startsWith(GCM_PREFIX)) {
+			throw new ScenarioFailedError(e, true /*print*/);
+		}
+		return null;
 	}
-	catch (InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | IllegalBlockSizeException | BadPaddingException e) {
+	catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
 		throw new ScenarioFailedError(e, true /*print*/);
 	}
 }
 
 /**
  * Encrypts a given text.
- *
+ * <p>
+ * The legacy format is used unless the <code>encryptionMode</code> parameter
+ * is set to <code>gcm</code>.
+ * </p>
  * @param text the text to be encrypted as {@link String}.
  *
  * @return the encrypted text as {@link String}.
  */
 public static String encrypt(final String text) {
-	return encrypt(text, getKey());
+	return encrypt(text, getKey(), getParameterValue("encryptionMode", "ecb", false /*print*/));
 }
 
-private static String encrypt(final String text, final String key) {
+private static String encrypt(final String text, final String key, final String mode) {
 	try {
-		final Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+		if (mode.equalsIgnoreCase(GCM_MODE)) {
+			final byte[] iv = new byte[GCM_IV_LENGTH];
+			RANDOM.nextBytes(iv);
+			final Cipher cipher = getCipher(GCM_TRANSFORMATION);
+			cipher.init(ENCRYPT_MODE, generateKey(key), new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+			final byte[] encrypted = cipher.doFinal(text.getBytes(UTF_8));
+			final byte[] data = copyOf(iv, GCM_IV_LENGTH + encrypted.length);
+			System.arraycopy(encrypted, 0, data, GCM_IV_LENGTH, encrypted.length);
+			return GCM_PREFIX + getEncoder().encodeToString(data);
+		}
+		final Cipher cipher = getCipher(CIPHER_TRANSFORMATION);
 		cipher.init(ENCRYPT_MODE, generateKey(key));
 
 		return getEncoder().encodeToString(cipher.doFinal(text.getBytes(UTF_8)));
 
 	}
-	catch (InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | IllegalBlockSizeException | BadPaddingException e) {
+	catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e) {
 		throw new ScenarioFailedError(e, true /*print*/);
 	}
 }
@@ -111,24 +173,56 @@ public static String generateSecretKey() {
 }
 
 private static Key generateKey(final String key) {
-	final String croppedKey = (key.length() > KEY_LENGTH) ? key.substring(0 /*beginIndex*/, KEY_LENGTH /*endIndex*/) : key;
-	final byte[] croppedKeyArray = copyOf(croppedKey.getBytes(UTF_8), KEY_LENGTH);
+	return KEYS.computeIfAbsent(key, k -> {
+		final String croppedKey = (k.length() > KEY_LENGTH) ? k.substring(0 /*beginIndex*/, KEY_LENGTH /*endIndex*/) : k;
+		final byte[] croppedKeyArray = copyOf(croppedKey.getBytes(UTF_8), KEY_LENGTH);
+
+		return new SecretKeySpec(croppedKeyArray, ALGORITHM);
+	});
+}
 
-	return new SecretKeySpec(croppedKeyArray, ALGORITHM);
+/*
+ * Return the cipher of the current thread for the given transformation.
+ */
+private static Cipher getCipher(final String transformation) {
+	final Map<String, Cipher> ciphers = CIPHERS.get();
+	Cipher cipher = ciphers.get(transformation);
+	if (cipher == null) {
+		try {
+			cipher = Cipher.getInstance(transformation);
+		}
+		catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+			throw new ScenarioFailedError(e, true /*print*/);
+		}
+		ciphers.put(transformation, cipher);
+	}
+	return cipher;
 }
 
 private static String getKey() {
 	return getParameterValue("key", false /*print*/);
 }
 
-public static void main(final String[] args) throws InvalidKeyException, NoSuchAlgorithmException, NoSuchPaddingException, IllegalBlockSizeException, BadPaddingException {
+/**
+ * Tells whether an encryption key is defined.
+ * <p>
+ * The key is defined with the <code>key</code> parameter.
+ * </p>
+ * @return <code>true</code> if a key is defined, <code>false</code> otherwise.
+ */
+public static boolean isKeyDefined() {
+	final String key = getKey();
+	return (key != null) && !key.isEmpty();
+}
+
+public static void main(final String[] args) {
 	if((args == null) || (args.length < 3)) {
 		System.err.println("Invalid usage! The following is the expected usage:");
-		System.err.println("<text> <secret key> <encrypt|decrypt>");
+		System.err.println("<text> <secret key> <encrypt|decrypt> [ecb|gcm]");
 	}
 	else {
 		if (args[2].equalsIgnoreCase("encrypt")) {
-			System.out.println("Encrypted text: " + encrypt(args[0], args[1]));
+			System.out.println("Encrypted text: " + encrypt(args[0], args[1], args.length > 3 ? args[3] : "ecb"));
 		}
 		else {
 			System.out.println("Descypted text: " + decrypt(args[0], args[1]));
@@ -131,7 +131,8 @@ public static File copyFile(final File sourceFile, final File destDir, final Str
  */
 public static File createDir(final String dirPath) {
 	File dir = new File(dirPath);
-	if (!dir.exists() && !dir.mkdirs()) {
+	// Directory might be concurrently created by another thread, hence check it again when mkdirs() fails
+	if (!dir.mkdirs() && !dir.isDirectory()) {
 		System.err.println("Cannot create directory '"+dirPath+"'.");
 		dir = null;
 	}
@@ -152,7 +153,7 @@ public static File createDir(final String dirPath, final String subdirName) {
 	File dir = createDir(dirPath);
 	if (dir != null) {
 		File subdir = new File(dir, subdirName);
-		if (subdir.exists() || subdir.mkdirs()) {
+		if (subdir.mkdirs() || subdir.isDirectory()) {
 			return subdir;
 		}
 		System.err.println("Cannot create sub-directory '"+subdirName+"' in '"+dirPath+"'.");